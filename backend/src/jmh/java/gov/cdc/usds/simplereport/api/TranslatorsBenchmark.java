@@ -0,0 +1,92 @@
+package gov.cdc.usds.simplereport.api;
+
+import gov.cdc.usds.simplereport.db.model.auxiliary.PersonRole;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The parsers that {@code UploadService} runs on every cell of a patient CSV upload, each fed the
+ * kind of value found in real uploads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(
+    value = 2,
+    jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class TranslatorsBenchmark {
+
+  // not final, so that the JIT can't fold the parsing away
+  private String _uuid = "2f4b5d3e-8c4a-4f2e-9a51-6a0c7e2d9b10";
+  private String _string = "  Fred  ";
+  private String _date = "5/10/1899";
+  private String _phone = "(520) 555-1212";
+  private String _role = "Staff";
+  private String _email = "fred@example.com";
+  private String _race = "Black or African American";
+  private String _ethnicity = "Not_Hispanic";
+  private String _gender = "Female";
+  private String _yesNo = "No";
+
+  @Benchmark
+  public UUID parseUUID() {
+    return Translators.parseUUID(_uuid);
+  }
+
+  @Benchmark
+  public String parseString() {
+    return Translators.parseString(_string);
+  }
+
+  @Benchmark
+  public LocalDate parseUserShortDate() {
+    return Translators.parseUserShortDate(_date);
+  }
+
+  @Benchmark
+  public String parsePhoneNumber() {
+    return Translators.parsePhoneNumber(_phone);
+  }
+
+  @Benchmark
+  public PersonRole parsePersonRole() {
+    return Translators.parsePersonRole(_role);
+  }
+
+  @Benchmark
+  public String parseEmail() {
+    return Translators.parseEmail(_email);
+  }
+
+  @Benchmark
+  public String parseRaceDisplayValue() {
+    return Translators.parseRaceDisplayValue(_race);
+  }
+
+  @Benchmark
+  public String parseEthnicity() {
+    return Translators.parseEthnicity(_ethnicity);
+  }
+
+  @Benchmark
+  public String parseGender() {
+    return Translators.parseGender(_gender);
+  }
+
+  @Benchmark
+  public Boolean parseYesNo() {
+    return Translators.parseYesNo(_yesNo);
+  }
+}
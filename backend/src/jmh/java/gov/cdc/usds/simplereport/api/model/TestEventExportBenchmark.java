@@ -0,0 +1,173 @@
+package gov.cdc.usds.simplereport.api.model;
+
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import gov.cdc.usds.simplereport.db.model.AuditedEntity;
+import gov.cdc.usds.simplereport.db.model.DeviceSpecimenType;
+import gov.cdc.usds.simplereport.db.model.DeviceType;
+import gov.cdc.usds.simplereport.db.model.Facility;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.model.PatientAnswers;
+import gov.cdc.usds.simplereport.db.model.Person;
+import gov.cdc.usds.simplereport.db.model.Provider;
+import gov.cdc.usds.simplereport.db.model.SpecimenType;
+import gov.cdc.usds.simplereport.db.model.TestEvent;
+import gov.cdc.usds.simplereport.db.model.TestOrder;
+import gov.cdc.usds.simplereport.db.model.auxiliary.AskOnEntrySurvey;
+import gov.cdc.usds.simplereport.db.model.auxiliary.PersonRole;
+import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
+import gov.cdc.usds.simplereport.db.model.auxiliary.TestResult;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The per-row work of the data hub upload: wrapping a test event for export, and writing a batch of
+ * them out as CSV with the mapper set up the same way as in {@code
+ * DataHubUploaderService.writeCsv}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(
+    value = 2,
+    jvmArgsAppend = {"-Xms1g", "-Xmx1g", "-Duser.timezone=UTC"})
+@State(Scope.Benchmark)
+public class TestEventExportBenchmark {
+
+  private static final String[] GENDERS = {"male", "female", "other", null};
+  private static final String[] RACES = {"white", "black", "asian", "native", "refused", null};
+  private static final String[] ETHNICITIES = {"hispanic", "not_hispanic", null};
+  private static final TestResult[] RESULTS = {
+    TestResult.NEGATIVE, TestResult.POSITIVE, TestResult.UNDETERMINED
+  };
+  private static final Instant DATE_TESTED = Instant.parse("2021-02-01T15:30:00Z");
+
+  @Param({"1", "1000"})
+  private int rowCount;
+
+  private List<TestEvent> _events;
+  private ByteArrayOutputStream _out;
+
+  @Setup
+  public void setup() throws ReflectiveOperationException {
+    Organization org = new Organization("Dis Organization", "DIS_ORG");
+    Field internalId = AuditedEntity.class.getDeclaredField("internalId");
+    internalId.setAccessible(true);
+    DeviceType device =
+        new DeviceType("Quidel Sofia 2", "Quidel", "Sofia 2", "95209-3", "445297001");
+    internalId.set(device, new UUID(0, 1));
+    DeviceSpecimenType deviceSpecimen =
+        new DeviceSpecimenType(
+            device,
+            new SpecimenType("Swab of internal nose", "445297001", "Internal nose structure", "1"));
+    Provider provider =
+        new Provider(
+            "Doctor",
+            "",
+            "Doom",
+            "",
+            "1234567890",
+            new StreetAddress("736 Jackson PI NW", null, "Washington", "DC", "20503", "Washington"),
+            "(202) 555-1212");
+    Facility facility =
+        new Facility(
+            org,
+            "Injection Site",
+            "123456",
+            new StreetAddress("2797 N Cerrada de Beto", null, "Tucson", "AZ", "85745", "Pima"),
+            "(520) 555-1212",
+            "frontdesk@injection-site.org",
+            provider,
+            deviceSpecimen,
+            List.of());
+
+    _events = new ArrayList<>(rowCount);
+    // every ID and value is fixed, so that each run writes exactly the same rows
+    for (int i = 0; i < rowCount; i++) {
+      Person patient =
+          new Person(
+              org,
+              "lookup" + i,
+              "Fred" + i,
+              "M",
+              "Astaire",
+              null,
+              LocalDate.of(1899, 5, 10).plusDays(i),
+              new StreetAddress(i + " Sesame Street", "Apt " + i, "Tucson", "AZ", "85745", "Pima"),
+              "(520) 555-" + String.format("%04d", i % 10000),
+              PersonRole.values()[i % PersonRole.values().length],
+              "fred" + i + "@example.com",
+              RACES[i % RACES.length],
+              ETHNICITIES[i % ETHNICITIES.length],
+              GENDERS[i % GENDERS.length],
+              i % 2 == 0,
+              i % 3 == 0);
+      internalId.set(patient, new UUID(1, i));
+      TestOrder order = new TestOrder(patient, facility);
+      order.setAskOnEntrySurvey(
+          new PatientAnswers(
+              new AskOnEntrySurvey(
+                  null,
+                  Map.of("25064002", i % 4 == 0, "49727002", false),
+                  i % 4 != 0,
+                  i % 4 == 0 ? LocalDate.of(2021, 1, 28) : null,
+                  i % 5 == 0,
+                  null,
+                  null,
+                  null)));
+      order.setDeviceSpecimen(deviceSpecimen);
+      order.setResult(RESULTS[i % RESULTS.length]);
+      order.setDateTestedBackdate(Date.from(DATE_TESTED));
+      TestEvent event = new TestEvent(order);
+      internalId.set(event, new UUID(2, i));
+      _events.add(event);
+    }
+    _out = new ByteArrayOutputStream();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public TestEventExport constructRow() {
+    return new TestEventExport(_events.get(0));
+  }
+
+  @Benchmark
+  public int writeCsv() throws IOException {
+    _out.reset();
+    CsvMapper mapper = new CsvMapper();
+    mapper
+        .enable(CsvGenerator.Feature.STRICT_CHECK_FOR_QUOTING)
+        .enable(CsvGenerator.Feature.ALWAYS_QUOTE_STRINGS)
+        .enable(CsvGenerator.Feature.ALWAYS_QUOTE_EMPTY_STRINGS);
+    CsvSchema schema = mapper.schemaFor(TestEventExport.class).withHeader().withNullValue("\"\"");
+    try (SequenceWriter csv = mapper.writer(schema).writeValues(_out)) {
+      for (TestEvent event : _events) {
+        csv.write(new TestEventExport(event));
+      }
+    }
+    return _out.size();
+  }
+}
@@ -0,0 +1,72 @@
+package gov.cdc.usds.simplereport.config.authorization;
+
+import gov.cdc.usds.simplereport.config.AuthorizationProperties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Claim parsing, which happens on every authenticated request. The claim sets look like the Okta
+ * groups of real users: a few groups that aren't ours, roles in one organization, and access to
+ * either some number of that organization's facilities or all of them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(
+    value = 2,
+    jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class OrganizationExtractorBenchmark {
+
+  private static final String ROLE_PREFIX = "SR-PROD-TENANT:";
+  private static final String ORG_EXTERNAL_ID = "DIS_ORG";
+
+  @Param({"0", "5", "50"})
+  private int facilityCount;
+
+  private OrganizationExtractor _extractor;
+  private List<String> _claims;
+
+  @Setup
+  public void setup() {
+    _extractor = new OrganizationExtractor(new AuthorizationProperties(null, ROLE_PREFIX));
+    _claims = new ArrayList<>();
+    _claims.add("Everyone");
+    _claims.add("SR-PROD-ADMINS");
+    _claims.add(ROLE_PREFIX + ORG_EXTERNAL_ID + ":" + OrganizationRole.NO_ACCESS);
+    _claims.add(ROLE_PREFIX + ORG_EXTERNAL_ID + ":" + OrganizationRole.USER);
+    if (facilityCount == 0) {
+      // a user with no facility claims had better be able to see all of them
+      _claims.add(ROLE_PREFIX + ORG_EXTERNAL_ID + ":" + OrganizationRole.ALL_FACILITIES);
+    }
+    for (int i = 0; i < facilityCount; i++) {
+      // fixed IDs, so that every run parses exactly the same claims
+      _claims.add(
+          ROLE_PREFIX
+              + ORG_EXTERNAL_ID
+              + ":"
+              + OrganizationExtractor.FACILITY_ACCESS_MARKER
+              + ":"
+              + new UUID(0, i));
+    }
+  }
+
+  @Benchmark
+  public List<OrganizationRoleClaims> convertClaims() {
+    return _extractor.convertClaims(_claims);
+  }
+}
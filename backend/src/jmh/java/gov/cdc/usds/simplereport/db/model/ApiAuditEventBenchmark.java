@@ -0,0 +1,84 @@
+package gov.cdc.usds.simplereport.db.model;
+
+import gov.cdc.usds.simplereport.config.authorization.OrganizationRole;
+import gov.cdc.usds.simplereport.config.authorization.UserPermission;
+import gov.cdc.usds.simplereport.db.model.auxiliary.GraphQlInputs;
+import gov.cdc.usds.simplereport.db.model.auxiliary.HttpRequestDetails;
+import gov.cdc.usds.simplereport.db.model.auxiliary.PersonName;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * Building the audit record that is written for every API request, from a request that has come
+ * through the Azure front door (and so carries the forwarding headers).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(
+    value = 2,
+    jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ApiAuditEventBenchmark {
+
+  private static final String REQUEST_ID = "5d8a6d4c-41b3-4b8f-8b3e-6a7f3e1c2b90";
+
+  private MockHttpServletRequest _request;
+  private HttpRequestDetails _httpDetails;
+  private GraphQlInputs _graphqlInputs;
+  private ApiUser _user;
+  private Organization _org;
+  private PatientLink _patientLink;
+  private List<UserPermission> _permissions;
+
+  @Setup
+  public void setup() {
+    _request = new MockHttpServletRequest("POST", "/graphql");
+    _request.setServerName("simple-report-api-prod.azurewebsites.net");
+    _request.setRemoteAddr("10.3.0.4");
+    _request.addHeader("x-forwarded-for", "203.0.113.7:51234, 10.3.0.4");
+    _request.addHeader("x-forwarded-proto", "https");
+    _request.addHeader("x-original-host", "simplereport.gov");
+    _httpDetails = new HttpRequestDetails(_request);
+    _graphqlInputs =
+        new GraphQlInputs(
+            "GetFacilityQueue",
+            "query GetFacilityQueue($facilityId: ID!) { queue(facilityId: $facilityId) { internalId } }",
+            Map.of("facilityId", "0b7b4c6e-2d1e-4c1a-9b1f-3f0e7d6a5c42"));
+    _user = new ApiUser("joe@example.com", new PersonName("Joe", null, "Bloggs", null));
+    _org = new Organization("Dis Organization", "DIS_ORG");
+    _patientLink = new PatientLink();
+    _permissions = new ArrayList<>(OrganizationRole.USER.getGrantedPermissions());
+  }
+
+  @Benchmark
+  public HttpRequestDetails httpRequestDetails() {
+    return new HttpRequestDetails(_request);
+  }
+
+  @Benchmark
+  public ApiAuditEvent graphqlEvent() {
+    return new ApiAuditEvent(
+        REQUEST_ID, _httpDetails, _graphqlInputs, List.of(), _user, _permissions, false, _org);
+  }
+
+  @Benchmark
+  public ApiAuditEvent restEvent() {
+    return new ApiAuditEvent(
+        REQUEST_ID, new HttpRequestDetails(_request), 200, _user, _org, _patientLink);
+  }
+}
@@ -0,0 +1,64 @@
+package gov.cdc.usds.simplereport.logging;
+
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.OperationDefinition;
+import graphql.parser.Parser;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Collecting the selected field names for the query log, as {@link QueryLoggingInstrumentation}
+ * does for every request. The operations are copied from the frontend, under {@code
+ * src/jmh/resources/graphql}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(
+    value = 2,
+    jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class GraphQLLoggingHelpersBenchmark {
+
+  @Param({"GetFacilityQueue", "GetFacilityResults", "GetPatientsByFacility", "EditQueueItem"})
+  private String operation;
+
+  private Document _document;
+
+  @Setup
+  public void setup() throws IOException {
+    try (InputStream query = getClass().getResourceAsStream("/graphql/" + operation + ".graphql")) {
+      _document =
+          new Parser().parseDocument(new String(query.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Benchmark
+  public Set<String> walkFields() {
+    return _document.getDefinitions().stream()
+        .filter(definition -> definition instanceof OperationDefinition)
+        .flatMap(
+            definition ->
+                ((OperationDefinition) definition).getSelectionSet().getSelections().stream())
+        .filter(selection -> selection instanceof Field)
+        .flatMap(selection -> GraphQLLoggingHelpers.walkFields("", selection))
+        .collect(Collectors.toSet());
+  }
+}
@@ -0,0 +1,45 @@
+package gov.cdc.usds.simplereport.loadtest;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/** Command-line options of the form {@code --name=value}, each with a default. */
+final class Arguments {
+
+  private final Map<String, String> _values = new HashMap<>();
+  private final Set<String> _used = new HashSet<>();
+
+  Arguments(String[] args) {
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (!arg.startsWith("--") || separator < 0) {
+        throw new IllegalArgumentException("Expected --name=value, but got " + arg);
+      }
+      _values.put(arg.substring(2, separator), arg.substring(separator + 1));
+    }
+  }
+
+  String get(String name, String defaultValue) {
+    _used.add(name);
+    return _values.getOrDefault(name, defaultValue);
+  }
+
+  int getInt(String name, int defaultValue) {
+    return Integer.parseInt(get(name, Integer.toString(defaultValue)));
+  }
+
+  long getLong(String name, long defaultValue) {
+    return Long.parseLong(get(name, Long.toString(defaultValue)));
+  }
+
+  /** Fail if any option was given that has not been asked for (most likely, a typo). */
+  void rejectUnknown() {
+    Set<String> unknown = new HashSet<>(_values.keySet());
+    unknown.removeAll(_used);
+    if (!unknown.isEmpty()) {
+      throw new IllegalArgumentException("Unknown options: " + unknown);
+    }
+  }
+}
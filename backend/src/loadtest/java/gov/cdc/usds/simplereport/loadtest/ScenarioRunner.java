@@ -0,0 +1,304 @@
+package gov.cdc.usds.simplereport.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends the GraphQL requests behind the busiest pages of the application to a running backend, from
+ * several threads at once, and reports the latency percentiles and the number of SQL statements per
+ * request for each of them.
+ *
+ * <p>The statement counts come from the {@code hibernate.statements} metric, which the backend only
+ * publishes when run with the {@code load-test} profile; they include whatever else the backend was
+ * doing at the time (scheduled jobs, audit log writes), so keep it otherwise idle.
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+public final class ScenarioRunner {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ScenarioRunner.class);
+
+  private static final String STATEMENTS_METRIC =
+      "/actuator/metrics/hibernate.statements?tag=status:prepared";
+
+  private final ObjectMapper _mapper = new ObjectMapper();
+  private final HttpClient _client =
+      HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+  private final String _baseUrl;
+  private final String _user;
+  private final int _concurrency;
+  private final int _requests;
+  private final int _warmup;
+  private final int _pageSize;
+  private final int _pages;
+  private final long _seed;
+  private final List<String> _scenarios;
+  private final Map<String, Function<Random, Map<String, Object>>> _variables = new HashMap<>();
+  private final Map<String, String> _documents = new HashMap<>();
+
+  private List<String> _facilityIds;
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    new ScenarioRunner(new Arguments(args)).run();
+  }
+
+  ScenarioRunner(Arguments arguments) throws IOException {
+    _baseUrl = arguments.get("base-url", "http://localhost:8080");
+    _user = arguments.get("user", null);
+    _concurrency = arguments.getInt("concurrency", 8);
+    _requests = arguments.getInt("requests", 500);
+    _warmup = arguments.getInt("warmup", 50);
+    _pageSize = arguments.getInt("page-size", 20);
+    _pages = arguments.getInt("pages", 10);
+    _seed = arguments.getLong("seed", 1);
+    _scenarios =
+        List.of(arguments.get("scenarios", "queue,testResults,patients,patientsByName").split(","));
+    arguments.rejectUnknown();
+
+    scenario("queue", "GetFacilityQueue", random -> Map.of("facilityId", pickFacility(random)));
+    scenario(
+        "testResults",
+        "GetFacilityResults",
+        random ->
+            Map.of(
+                "facilityId", pickFacility(random),
+                "pageNumber", random.nextInt(_pages),
+                "pageSize", _pageSize));
+    scenario(
+        "patients",
+        "GetPatientsByFacility",
+        random ->
+            Map.of(
+                "facilityId",
+                pickFacility(random),
+                "pageNumber",
+                random.nextInt(_pages),
+                "pageSize",
+                _pageSize,
+                "showDeleted",
+                false));
+    scenario(
+        "patientsByName",
+        "GetPatientsByFacility",
+        random -> {
+          String lastName =
+              SyntheticNames.LAST_NAMES.get(random.nextInt(SyntheticNames.LAST_NAMES.size()));
+          return Map.of(
+              "facilityId",
+              pickFacility(random),
+              "pageNumber",
+              0,
+              "pageSize",
+              _pageSize,
+              "showDeleted",
+              false,
+              "namePrefixMatch",
+              lastName.substring(0, 2 + random.nextInt(2)));
+        });
+    _documents.put("GetFacilities", loadDocument("GetFacilities"));
+    for (String name : _scenarios) {
+      if (!_variables.containsKey(name)) {
+        throw new IllegalArgumentException(
+            "Unknown scenario " + name + ", expected one of " + _variables.keySet());
+      }
+    }
+  }
+
+  private void scenario(
+      String name, String operation, Function<Random, Map<String, Object>> variables)
+      throws IOException {
+    _variables.put(name, variables);
+    _documents.put(name, loadDocument(operation));
+  }
+
+  private String pickFacility(Random random) {
+    return _facilityIds.get(random.nextInt(_facilityIds.size()));
+  }
+
+  void run() throws IOException, InterruptedException {
+    JsonNode facilities = post(_documents.get("GetFacilities"), Map.of()).body;
+    _facilityIds = new ArrayList<>();
+    facilities
+        .path("data")
+        .path("organization")
+        .path("testingFacility")
+        .forEach(f -> _facilityIds.add(f.path("id").asText()));
+    if (_facilityIds.isEmpty()) {
+      throw new IllegalStateException(
+          "The user has no facilities to test against; did the data generator run?"
+              + " Response was: "
+              + facilities);
+    }
+    LOG.info("Running against {} facilities at {}", _facilityIds.size(), _baseUrl);
+
+    List<String> report = new ArrayList<>();
+    report.add(
+        String.format(
+            "%-16s %8s %8s %8s %8s %8s %8s %10s",
+            "scenario",
+            "requests",
+            "failed",
+            "p50 ms",
+            "p95 ms",
+            "p99 ms",
+            "max ms",
+            "queries/req"));
+    for (String scenario : _scenarios) {
+      report.add(runScenario(scenario));
+    }
+    System.out.println(String.join(System.lineSeparator(), report)); // NOSONAR
+  }
+
+  private String runScenario(String scenario) throws IOException, InterruptedException {
+    LOG.info("Warming up {}", scenario);
+    execute(scenario, _warmup, new long[_warmup]);
+    LOG.info("Measuring {}", scenario);
+    long statementsBefore = statementCount();
+    long[] latencies = new long[_requests];
+    int failed = execute(scenario, _requests, latencies);
+    long statementsAfter = statementCount();
+    Arrays.sort(latencies);
+    String queries =
+        statementsBefore < 0 || statementsAfter < 0
+            ? "n/a"
+            : String.format("%.1f", (statementsAfter - statementsBefore) / (double) _requests);
+    return String.format(
+        "%-16s %8d %8d %8.1f %8.1f %8.1f %8.1f %10s",
+        scenario,
+        _requests,
+        failed,
+        percentile(latencies, 50),
+        percentile(latencies, 95),
+        percentile(latencies, 99),
+        latencies.length == 0 ? 0.0 : latencies[latencies.length - 1] / 1e6,
+        queries);
+  }
+
+  /**
+   * Send {@code count} requests for the scenario from {@link #_concurrency} threads, recording the
+   * latency of each (in nanoseconds), and return how many failed.
+   */
+  private int execute(String scenario, int count, long[] latencies) throws InterruptedException {
+    AtomicInteger next = new AtomicInteger();
+    AtomicInteger failed = new AtomicInteger();
+    ExecutorService pool = Executors.newFixedThreadPool(_concurrency);
+    try {
+      List<Future<?>> workers = new ArrayList<>();
+      for (int w = 0; w < _concurrency; w++) {
+        Random random = new Random(_seed * 31 + w);
+        workers.add(
+            pool.submit(
+                () -> {
+                  for (int i = next.getAndIncrement(); i < count; i = next.getAndIncrement()) {
+                    Map<String, Object> variables = _variables.get(scenario).apply(random);
+                    long started = System.nanoTime();
+                    boolean ok = false;
+                    try {
+                      Response response = post(_documents.get(scenario), variables);
+                      ok = response.status == 200 && !response.body.has("errors");
+                      if (!ok && failed.get() == 0) {
+                        LOG.warn("{} failed: {} {}", scenario, response.status, response.body);
+                      }
+                    } catch (IOException e) {
+                      LOG.warn("{} failed", scenario, e);
+                    } catch (InterruptedException e) {
+                      Thread.currentThread().interrupt();
+                      return;
+                    }
+                    latencies[i] = System.nanoTime() - started;
+                    if (!ok) {
+                      failed.incrementAndGet();
+                    }
+                  }
+                }));
+      }
+      for (Future<?> worker : workers) {
+        worker.get();
+      }
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+    return failed.get();
+  }
+
+  /** The nearest-rank percentile of the sorted latencies, in milliseconds. */
+  private static double percentile(long[] sorted, int percent) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+    return sorted[Math.max(rank, 1) - 1] / 1e6;
+  }
+
+  /** The number of statements the backend has prepared so far, or -1 if it isn't telling. */
+  private long statementCount() throws InterruptedException {
+    try {
+      HttpResponse<String> response =
+          _client.send(
+              HttpRequest.newBuilder(URI.create(_baseUrl + STATEMENTS_METRIC)).GET().build(),
+              HttpResponse.BodyHandlers.ofString());
+      if (response.statusCode() != 200) {
+        return -1;
+      }
+      return _mapper.readTree(response.body()).path("measurements").path(0).path("value").asLong();
+    } catch (IOException e) {
+      return -1;
+    }
+  }
+
+  private Response post(String document, Map<String, Object> variables)
+      throws IOException, InterruptedException {
+    String body = _mapper.writeValueAsString(Map.of("query", document, "variables", variables));
+    HttpRequest.Builder request =
+        HttpRequest.newBuilder(URI.create(_baseUrl + "/graphql"))
+            .timeout(Duration.ofMinutes(1))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body));
+    if (_user != null) {
+      request.header("Authorization", "Bearer SR-DEMO-LOGIN " + _user);
+    }
+    HttpResponse<String> response =
+        _client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    return new Response(response.statusCode(), _mapper.readTree(response.body()));
+  }
+
+  private static String loadDocument(String operation) throws IOException {
+    try (InputStream document =
+        ScenarioRunner.class.getResourceAsStream("/graphql/" + operation + ".graphql")) {
+      return new String(document.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  private static final class Response {
+    private final int status;
+    private final JsonNode body;
+
+    Response(int status, JsonNode body) {
+      this.status = status;
+      this.body = body;
+    }
+  }
+}
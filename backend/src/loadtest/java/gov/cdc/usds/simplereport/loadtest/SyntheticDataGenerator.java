@@ -0,0 +1,630 @@
+package gov.cdc.usds.simplereport.loadtest;
+
+import com.vladmihalcea.hibernate.type.util.ObjectMapperWrapper;
+import gov.cdc.usds.simplereport.db.model.AuditedEntity;
+import gov.cdc.usds.simplereport.db.model.Person;
+import gov.cdc.usds.simplereport.db.model.Provider;
+import gov.cdc.usds.simplereport.db.model.auxiliary.AskOnEntrySurvey;
+import gov.cdc.usds.simplereport.db.model.auxiliary.OrderStatus;
+import gov.cdc.usds.simplereport.db.model.auxiliary.PersonRole;
+import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
+import gov.cdc.usds.simplereport.db.model.auxiliary.TestResult;
+import gov.cdc.usds.simplereport.db.model.auxiliary.TestResultDeliveryPreference;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fills a (local!) database with synthetic organizations, facilities, patients, test orders and
+ * test events, in the volumes needed to see how the application behaves at scale. Rows are loaded
+ * with {@code COPY}, so millions of test events take minutes rather than hours.
+ *
+ * <p>The application must have been started against the database at least once, so that the schema
+ * and the device types exist. Each run adds new organizations ({@code LOADTEST_ORG_<n>}) rather
+ * than touching existing ones; log in as a member of one of them (for instance by starting the
+ * application with {@code SR_DEMO_USER_ORG=LOADTEST_ORG_0}) to see the data. The same options and
+ * seed always generate the same data.
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+public final class SyntheticDataGenerator {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+  private static final String ORG_PREFIX = "LOADTEST_ORG_";
+  private static final String GENERATOR_USER = "loadtest-generator@example.com";
+  private static final int PATIENTS_PER_CHUNK = 1000;
+  private static final List<String> SYMPTOMS =
+      List.of(
+          "64531003",
+          "103001002",
+          "84229001",
+          "68235000",
+          "426000000",
+          "49727002",
+          "68962001",
+          "422587007",
+          "267036007",
+          "62315008",
+          "43724002",
+          "36955009",
+          "44169009",
+          "422400008",
+          "230145002",
+          "25064002",
+          "162397003");
+  private static final List<String> PREGNANCY = List.of("77386006", "60001007", "261665006");
+  private static final List<String> RACES =
+      List.of("native", "asian", "black", "pacific", "white", "unknown", "refused");
+  private static final List<String> ETHNICITIES = List.of("hispanic", "not_hispanic");
+  private static final List<String> GENDERS = List.of("male", "female", "other");
+
+  private final Connection _connection;
+  private final CopyManager _copyManager;
+  private final String _schema;
+  private final Random _random;
+  private final Instant _now = Instant.now();
+  private final Field _internalId;
+
+  private final int _organizations;
+  private final int _facilitiesPerOrganization;
+  private final int _patientsPerFacility;
+  private final int _testsPerPatient;
+  private final int _queueSize;
+  private final int _days;
+
+  private UUID _userId;
+  private List<UUID[]> _deviceSpecimenTypes; // {device_specimen_type id, device_type id}
+
+  public static void main(String[] args) throws SQLException, IOException {
+    Arguments arguments = new Arguments(args);
+    String url =
+        arguments.get(
+            "db-url",
+            "jdbc:postgresql://localhost:"
+                + System.getenv().getOrDefault("SR_DB_PORT", "5432")
+                + "/simple_report");
+    String user = arguments.get("db-user", "simple_report_migrations");
+    String password = arguments.get("db-password", "migrations456");
+    try (Connection connection = DriverManager.getConnection(url, user, password)) {
+      new SyntheticDataGenerator(connection, arguments).generate();
+    }
+  }
+
+  SyntheticDataGenerator(Connection connection, Arguments arguments) throws SQLException {
+    _connection = connection;
+    _copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+    _schema = arguments.get("db-schema", "simple_report");
+    _organizations = arguments.getInt("organizations", 1);
+    _facilitiesPerOrganization = arguments.getInt("facilities-per-organization", 3);
+    _patientsPerFacility = arguments.getInt("patients-per-facility", 10000);
+    _testsPerPatient = arguments.getInt("tests-per-patient", 5);
+    _queueSize = arguments.getInt("queue-size", 20);
+    _days = arguments.getInt("days", 90);
+    _random = new Random(arguments.getLong("seed", 1));
+    arguments.rejectUnknown();
+    try {
+      _internalId = AuditedEntity.class.getDeclaredField("internalId");
+    } catch (NoSuchFieldException e) {
+      throw new IllegalStateException(e);
+    }
+    _internalId.setAccessible(true);
+  }
+
+  void generate() throws SQLException, IOException {
+    _connection.setAutoCommit(false);
+    _userId = findOrCreateUser();
+    _deviceSpecimenTypes = findDeviceSpecimenTypes();
+    int firstOrganization = countExistingOrganizations();
+    _connection.commit();
+
+    for (int o = 0; o < _organizations; o++) {
+      // an organization at a time, so that an interrupted run leaves only complete organizations
+      long started = System.nanoTime();
+      long events = generateOrganization(firstOrganization + o);
+      _connection.commit();
+      double seconds = Duration.ofNanos(System.nanoTime() - started).toMillis() / 1000.0;
+      LOG.info(
+          "Organization {} ({} of {}): {} test events in {}s ({} events/s)",
+          ORG_PREFIX + (firstOrganization + o),
+          o + 1,
+          _organizations,
+          events,
+          String.format("%.1f", seconds),
+          Math.round(events / seconds));
+    }
+
+    LOG.info("Updating planner statistics");
+    _connection.setAutoCommit(true);
+    try (var statement = _connection.createStatement()) {
+      for (String table :
+          List.of(
+              "organization",
+              "provider",
+              "facility",
+              "person",
+              "patient_answers",
+              "test_order",
+              "test_event",
+              "current_test_result")) {
+        statement.execute("ANALYZE " + _schema + "." + table);
+      }
+    }
+  }
+
+  private UUID findOrCreateUser() throws SQLException {
+    try (PreparedStatement insert =
+        _connection.prepareStatement(
+            "INSERT INTO "
+                + _schema
+                + ".api_user (internal_id, created_at, updated_at, login_email, first_name,"
+                + " last_name, is_deleted) VALUES (?, now(), now(), ?, 'Load Test', 'Generator',"
+                + " false) ON CONFLICT (login_email) DO NOTHING")) {
+      insert.setObject(1, UUID.randomUUID());
+      insert.setString(2, GENERATOR_USER);
+      insert.executeUpdate();
+    }
+    try (PreparedStatement select =
+        _connection.prepareStatement(
+            "SELECT internal_id FROM " + _schema + ".api_user WHERE login_email = ?")) {
+      select.setString(1, GENERATOR_USER);
+      try (ResultSet rs = select.executeQuery()) {
+        rs.next();
+        return rs.getObject(1, UUID.class);
+      }
+    }
+  }
+
+  private List<UUID[]> findDeviceSpecimenTypes() throws SQLException {
+    List<UUID[]> found = new ArrayList<>();
+    try (var statement = _connection.createStatement();
+        ResultSet rs =
+            statement.executeQuery(
+                "SELECT internal_id, device_type_id FROM "
+                    + _schema
+                    + ".device_specimen_type WHERE NOT is_deleted ORDER BY created_at")) {
+      while (rs.next()) {
+        found.add(new UUID[] {rs.getObject(1, UUID.class), rs.getObject(2, UUID.class)});
+      }
+    }
+    if (found.isEmpty()) {
+      throw new IllegalStateException(
+          "No device types found: start the application against this database (with the"
+              + " create-sample-data profile) first");
+    }
+    return found;
+  }
+
+  private int countExistingOrganizations() throws SQLException {
+    try (var statement = _connection.createStatement();
+        ResultSet rs =
+            statement.executeQuery(
+                "SELECT count(*) FROM "
+                    + _schema
+                    + ".organization WHERE organization_external_id LIKE '"
+                    + ORG_PREFIX
+                    + "%'")) {
+      rs.next();
+      return rs.getInt(1);
+    }
+  }
+
+  private long generateOrganization(int number) throws SQLException, IOException {
+    UUID orgId = UUID.randomUUID();
+    Date created = ago(Duration.ofDays(_days + 30L));
+    CopyBuffer organizations =
+        auditedBuffer(
+            "organization", "is_deleted", "organization_name", "organization_external_id");
+    organizations.row(
+        audited(orgId, created, false, "Load Test Organization " + number, ORG_PREFIX + number));
+    organizations.copyTo(_copyManager);
+
+    long events = 0;
+    for (int f = 0; f < _facilitiesPerOrganization; f++) {
+      events += generateFacility(orgId, number, f, created);
+    }
+    return events;
+  }
+
+  private long generateFacility(UUID orgId, int orgNumber, int facilityNumber, Date created)
+      throws SQLException, IOException {
+    StreetAddress address = randomAddress();
+    Provider provider =
+        new Provider(
+            pick(SyntheticNames.FIRST_NAMES),
+            null,
+            pick(SyntheticNames.LAST_NAMES),
+            null,
+            String.format("%010d", _random.nextInt(1_000_000_000)),
+            address,
+            randomPhone());
+    UUID providerId = UUID.randomUUID();
+    CopyBuffer providers =
+        auditedBuffer(
+            "provider",
+            "is_deleted",
+            "first_name",
+            "last_name",
+            "provider_id",
+            "street",
+            "city",
+            "county",
+            "state",
+            "postal_code",
+            "telephone");
+    providers.row(
+        audited(
+            providerId,
+            created,
+            false,
+            provider.getNameInfo().getFirstName(),
+            provider.getNameInfo().getLastName(),
+            provider.getProviderId(),
+            address.getStreet(),
+            address.getCity(),
+            address.getCounty(),
+            address.getState(),
+            address.getPostalCode(),
+            provider.getTelephone()));
+    providers.copyTo(_copyManager);
+
+    UUID facilityId = UUID.randomUUID();
+    CopyBuffer facilities =
+        auditedBuffer(
+            "facility",
+            "is_deleted",
+            "organization_id",
+            "facility_name",
+            "clia_number",
+            "ordering_provider_id",
+            "default_device_specimen_type_id",
+            "street",
+            "city",
+            "county",
+            "state",
+            "postal_code",
+            "telephone",
+            "email");
+    facilities.row(
+        audited(
+            facilityId,
+            created,
+            false,
+            orgId,
+            "Testing Site " + orgNumber + "-" + facilityNumber,
+            String.format("%02dD%07d", _random.nextInt(100), _random.nextInt(10_000_000)),
+            providerId,
+            _deviceSpecimenTypes.get(0)[0],
+            address.getStreet(),
+            address.getCity(),
+            address.getCounty(),
+            address.getState(),
+            address.getPostalCode(),
+            randomPhone(),
+            "site" + orgNumber + "-" + facilityNumber + "@example.com"));
+    facilities.copyTo(_copyManager);
+    CopyBuffer facilityDevices =
+        new CopyBuffer(
+            _schema, "facility_device_specimen_type", "facility_id", "device_specimen_type_id");
+    _deviceSpecimenTypes.forEach(dst -> facilityDevices.row(facilityId, dst[0]));
+    facilityDevices.copyTo(_copyManager);
+
+    String providerJson = ObjectMapperWrapper.INSTANCE.toString(provider);
+    FacilityContext facility = new FacilityContext(orgId, facilityId, providerJson);
+    long events = 0;
+    for (int p = 0; p < _patientsPerFacility; p += PATIENTS_PER_CHUNK) {
+      events +=
+          generatePatients(facility, p, Math.min(p + PATIENTS_PER_CHUNK, _patientsPerFacility));
+    }
+
+    try (PreparedStatement link =
+        _connection.prepareStatement(
+            "UPDATE "
+                + _schema
+                + ".test_order o SET test_event_id = e.internal_id FROM "
+                + _schema
+                + ".test_event e WHERE e.test_order_id = o.internal_id AND o.facility_id = ?")) {
+      link.setObject(1, facilityId);
+      link.executeUpdate();
+    }
+    return events;
+  }
+
+  /** Generate patients [from, to) of a facility, with their test orders and events. */
+  private long generatePatients(FacilityContext facility, int from, int to)
+      throws SQLException, IOException {
+    CopyBuffer people =
+        auditedBuffer(
+            "person",
+            "is_deleted",
+            "organization_id",
+            "facility_id",
+            "lookup_id",
+            "first_name",
+            "middle_name",
+            "last_name",
+            "birth_date",
+            "street",
+            "city",
+            "county",
+            "state",
+            "postal_code",
+            "telephone",
+            "email",
+            "race",
+            "ethnicity",
+            "gender",
+            "role",
+            "employed_in_healthcare",
+            "resident_congregate_setting",
+            "test_result_delivery");
+    CopyBuffer answers = auditedBuffer("patient_answers", "ask_on_entry");
+    CopyBuffer orders =
+        auditedBuffer(
+            "test_order",
+            "patient_id",
+            "organization_id",
+            "facility_id",
+            "patient_answers_id",
+            "device_type_id",
+            "device_specimen_type_id",
+            "order_status",
+            "result");
+    CopyBuffer events =
+        auditedBuffer(
+            "test_event",
+            "patient_id",
+            "organization_id",
+            "facility_id",
+            "device_type_id",
+            "device_specimen_type_id",
+            "patient_data",
+            "provider_data",
+            "survey_data",
+            "result",
+            "test_order_id");
+    CopyBuffer currentResults =
+        new CopyBuffer(
+            _schema,
+            "current_test_result",
+            "test_order_id",
+            "facility_id",
+            "test_event_id",
+            "test_event_created_at");
+
+    for (int p = from; p < to; p++) {
+      UUID patientId = UUID.randomUUID();
+      Person patient = randomPatient(patientId, p);
+      Date patientCreated = ago(Duration.ofDays(_days).plusMinutes(_random.nextInt(60 * 24 * 30)));
+      StreetAddress address = patient.getAddress();
+      people.row(
+          audited(
+              patientId,
+              patientCreated,
+              false,
+              facility.orgId,
+              // most patients are registered for the whole organization
+              _random.nextInt(4) == 0 ? facility.facilityId : null,
+              patient.getLookupId(),
+              patient.getFirstName(),
+              patient.getMiddleName(),
+              patient.getLastName(),
+              patient.getBirthDate(),
+              address.getStreet(),
+              address.getCity(),
+              address.getCounty(),
+              address.getState(),
+              address.getPostalCode(),
+              patient.getTelephone(),
+              patient.getEmail(),
+              patient.getRace(),
+              patient.getEthnicity(),
+              patient.getGender(),
+              patient.getRole(),
+              patient.getEmployedInHealthcare(),
+              patient.getResidentCongregateSetting(),
+              patient.getTestResultDelivery()));
+      String patientJson = ObjectMapperWrapper.INSTANCE.toString(patient);
+
+      // on average _testsPerPatient completed tests, spread over the last _days days
+      int testCount = _random.nextInt(2 * _testsPerPatient + 1);
+      for (int t = 0; t < testCount; t++) {
+        Date ordered = ago(Duration.ofMinutes(_random.nextInt(60 * 24 * _days) + 60L));
+        Date tested = new Date(ordered.getTime() + Duration.ofMinutes(15).toMillis());
+        UUID[] device = pick(_deviceSpecimenTypes);
+        AskOnEntrySurvey survey = randomSurvey();
+        String surveyJson = ObjectMapperWrapper.INSTANCE.toString(survey);
+        TestResult result = randomResult();
+        UUID answersId = UUID.randomUUID();
+        UUID orderId = UUID.randomUUID();
+        UUID eventId = UUID.randomUUID();
+        answers.row(audited(answersId, ordered, surveyJson));
+        orders.row(
+            audited(
+                orderId,
+                ordered,
+                patientId,
+                facility.orgId,
+                facility.facilityId,
+                answersId,
+                device[1],
+                device[0],
+                OrderStatus.COMPLETED,
+                result));
+        events.row(
+            audited(
+                eventId,
+                tested,
+                patientId,
+                facility.orgId,
+                facility.facilityId,
+                device[1],
+                device[0],
+                patientJson,
+                facility.providerJson,
+                surveyJson,
+                result,
+                orderId));
+        currentResults.row(orderId, facility.facilityId, eventId, tested);
+      }
+
+      if (p < _queueSize) {
+        UUID[] device = pick(_deviceSpecimenTypes);
+        Date queued = ago(Duration.ofMinutes(_random.nextInt(120)));
+        UUID answersId = UUID.randomUUID();
+        answers.row(
+            audited(answersId, queued, ObjectMapperWrapper.INSTANCE.toString(randomSurvey())));
+        orders.row(
+            audited(
+                UUID.randomUUID(),
+                queued,
+                patientId,
+                facility.orgId,
+                facility.facilityId,
+                answersId,
+                device[1],
+                device[0],
+                OrderStatus.PENDING,
+                null));
+      }
+    }
+
+    long eventCount = events.getRowCount();
+    // in foreign-key order
+    people.copyTo(_copyManager);
+    answers.copyTo(_copyManager);
+    orders.copyTo(_copyManager);
+    events.copyTo(_copyManager);
+    currentResults.copyTo(_copyManager);
+    return eventCount;
+  }
+
+  private Person randomPatient(UUID patientId, int number) {
+    Person patient =
+        new Person(
+            null,
+            "LT" + number,
+            pick(SyntheticNames.FIRST_NAMES),
+            _random.nextInt(3) == 0 ? pick(SyntheticNames.FIRST_NAMES) : null,
+            pick(SyntheticNames.LAST_NAMES),
+            null,
+            LocalDate.of(1930, 1, 1).plusDays(_random.nextInt(365 * 85)),
+            randomAddress(),
+            randomPhone(),
+            pick(List.of(PersonRole.values())),
+            _random.nextInt(3) == 0 ? null : "patient" + number + "@example.com",
+            pick(RACES),
+            pick(ETHNICITIES),
+            pick(GENDERS),
+            _random.nextInt(10) == 0,
+            _random.nextInt(5) == 0);
+    patient.setTestResultDelivery(
+        _random.nextBoolean()
+            ? TestResultDeliveryPreference.SMS
+            : TestResultDeliveryPreference.NONE);
+    try {
+      _internalId.set(patient, patientId); // it is part of the copy saved with each test event
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+    return patient;
+  }
+
+  private AskOnEntrySurvey randomSurvey() {
+    boolean symptomatic = _random.nextInt(5) == 0;
+    Map<String, Boolean> symptoms = new HashMap<>();
+    SYMPTOMS.forEach(s -> symptoms.put(s, symptomatic && _random.nextInt(3) == 0));
+    return new AskOnEntrySurvey(
+        pick(PREGNANCY),
+        symptoms,
+        !symptomatic,
+        symptomatic ? LocalDate.now().minusDays(2) : null,
+        _random.nextBoolean(),
+        null,
+        null,
+        null);
+  }
+
+  private TestResult randomResult() {
+    int roll = _random.nextInt(100);
+    if (roll < 90) {
+      return TestResult.NEGATIVE;
+    }
+    return roll < 98 ? TestResult.POSITIVE : TestResult.UNDETERMINED;
+  }
+
+  private StreetAddress randomAddress() {
+    return new StreetAddress(
+        (1 + _random.nextInt(9999)) + " " + pick(SyntheticNames.LAST_NAMES) + " St",
+        _random.nextInt(4) == 0 ? "Apt " + (1 + _random.nextInt(40)) : null,
+        "Springfield",
+        "MD",
+        String.format("2%04d", _random.nextInt(10000)),
+        "Montgomery");
+  }
+
+  private String randomPhone() {
+    return String.format("(%03d) 555-%04d", 200 + _random.nextInt(800), _random.nextInt(10000));
+  }
+
+  private <T> T pick(List<T> choices) {
+    return choices.get(_random.nextInt(choices.size()));
+  }
+
+  private Date ago(Duration duration) {
+    return Date.from(_now.minus(duration));
+  }
+
+  /** A buffer for a table with the standard audit columns, followed by the given ones. */
+  private CopyBuffer auditedBuffer(String table, String... columns) {
+    String[] all = new String[columns.length + 5];
+    all[0] = "internal_id";
+    all[1] = "created_at";
+    all[2] = "created_by";
+    all[3] = "updated_at";
+    all[4] = "updated_by";
+    System.arraycopy(columns, 0, all, 5, columns.length);
+    return new CopyBuffer(_schema, table, all);
+  }
+
+  /** The values for a row of an {@link #auditedBuffer}. */
+  private Object[] audited(UUID id, Date created, Object... values) {
+    Object[] all = new Object[values.length + 5];
+    all[0] = id;
+    all[1] = created;
+    all[2] = _userId;
+    all[3] = created;
+    all[4] = _userId;
+    System.arraycopy(values, 0, all, 5, values.length);
+    return all;
+  }
+
+  private static final class FacilityContext {
+    private final UUID orgId;
+    private final UUID facilityId;
+    private final String providerJson;
+
+    FacilityContext(UUID orgId, UUID facilityId, String providerJson) {
+      this.orgId = orgId;
+      this.facilityId = facilityId;
+      this.providerJson = providerJson;
+    }
+  }
+}
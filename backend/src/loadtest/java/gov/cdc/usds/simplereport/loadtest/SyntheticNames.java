@@ -0,0 +1,102 @@
+package gov.cdc.usds.simplereport.loadtest;
+
+import java.util.List;
+
+/**
+ * The names given to generated patients, shared with the scenario runner so that its name searches
+ * match about as many patients as a real search would.
+ */
+final class SyntheticNames {
+
+  static final List<String> FIRST_NAMES =
+      List.of(
+          "James",
+          "Mary",
+          "Robert",
+          "Patricia",
+          "John",
+          "Jennifer",
+          "Michael",
+          "Linda",
+          "David",
+          "Elizabeth",
+          "William",
+          "Barbara",
+          "Richard",
+          "Susan",
+          "Joseph",
+          "Jessica",
+          "Thomas",
+          "Sarah",
+          "Carlos",
+          "Maria",
+          "Luis",
+          "Ana",
+          "Wei",
+          "Mei",
+          "Nguyen",
+          "Aisha",
+          "Mohammed",
+          "Fatima",
+          "Kwame",
+          "Ama",
+          "Dmitri",
+          "Olga");
+
+  static final List<String> LAST_NAMES =
+      List.of(
+          "Smith",
+          "Johnson",
+          "Williams",
+          "Brown",
+          "Jones",
+          "Garcia",
+          "Miller",
+          "Davis",
+          "Rodriguez",
+          "Martinez",
+          "Hernandez",
+          "Lopez",
+          "Gonzalez",
+          "Wilson",
+          "Anderson",
+          "Thomas",
+          "Taylor",
+          "Moore",
+          "Jackson",
+          "Martin",
+          "Lee",
+          "Perez",
+          "Thompson",
+          "White",
+          "Harris",
+          "Sanchez",
+          "Clark",
+          "Ramirez",
+          "Lewis",
+          "Robinson",
+          "Walker",
+          "Young",
+          "Allen",
+          "King",
+          "Wright",
+          "Scott",
+          "Torres",
+          "Nguyen",
+          "Hill",
+          "Flores",
+          "Green",
+          "Adams",
+          "Nelson",
+          "Baker",
+          "Hall",
+          "Rivera",
+          "Campbell",
+          "Mitchell",
+          "Carter",
+          "Roberts");
+
+  private SyntheticNames() {
+    /* no instances! */
+  }
+}
@@ -0,0 +1,156 @@
+package gov.cdc.usds.simplereport.loadtest;
+
+import gov.cdc.usds.simplereport.db.model.TimeOrderedUuidGenerator;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares random (version 4) and time-ordered (version 7) UUID primary keys, by inserting the same
+ * number of rows into a table keyed by each the way Hibernate does (batches of single-row inserts,
+ * a transaction per batch) and reporting the insert rate, the size of the primary key index, and
+ * how much WAL the inserts wrote.
+ *
+ * <p>The tables are created in (and dropped from) the given schema; use a local database, since WAL
+ * written by anything else at the same time is counted too. The index only stops fitting in memory,
+ * which is when random keys really hurt, once there are tens of millions of rows.
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+public final class UuidKeyBenchmark {
+
+  private static final Logger LOG = LoggerFactory.getLogger(UuidKeyBenchmark.class);
+
+  private final Connection _connection;
+  private final String _schema;
+  private final int _rows;
+  private final int _batchSize;
+  private final int _rounds;
+
+  public static void main(String[] args) throws SQLException {
+    Arguments arguments = new Arguments(args);
+    String url =
+        arguments.get(
+            "db-url",
+            "jdbc:postgresql://localhost:"
+                + System.getenv().getOrDefault("SR_DB_PORT", "5432")
+                + "/simple_report");
+    String user = arguments.get("db-user", "simple_report_migrations");
+    String password = arguments.get("db-password", "migrations456");
+    try (Connection connection = DriverManager.getConnection(url, user, password)) {
+      new UuidKeyBenchmark(connection, arguments).run();
+    }
+  }
+
+  UuidKeyBenchmark(Connection connection, Arguments arguments) {
+    _connection = connection;
+    _schema = arguments.get("db-schema", "simple_report");
+    _rows = arguments.getInt("rows", 1_000_000);
+    _batchSize = arguments.getInt("batch-size", 100);
+    _rounds = arguments.getInt("rounds", 2);
+    arguments.rejectUnknown();
+  }
+
+  void run() throws SQLException {
+    TimeOrderedUuidGenerator timeOrdered = new TimeOrderedUuidGenerator();
+    List<String> report = new ArrayList<>();
+    report.add(
+        String.format(
+            "%-6s %5s %10s %10s %12s %12s %10s",
+            "key", "round", "rows", "rows/s", "index MB", "table MB", "WAL MB"));
+    // alternate the two, so that neither always runs on a colder (or warmer) database
+    for (int round = 1; round <= _rounds; round++) {
+      report.add(measure("UUID4", round, UUID::randomUUID));
+      report.add(measure("UUID7", round, timeOrdered::next));
+    }
+    System.out.println(String.join(System.lineSeparator(), report)); // NOSONAR
+  }
+
+  private String measure(String name, int round, Supplier<UUID> ids) throws SQLException {
+    String table = _schema + ".uuid_key_benchmark_" + name.toLowerCase();
+    _connection.setAutoCommit(true);
+    try (Statement statement = _connection.createStatement()) {
+      statement.execute("DROP TABLE IF EXISTS " + table);
+      // about the width of a test_order row
+      statement.execute(
+          "CREATE TABLE "
+              + table
+              + " (internal_id uuid PRIMARY KEY, created_at timestamptz NOT NULL,"
+              + " created_by uuid NOT NULL, payload text NOT NULL)");
+    }
+    LOG.info("Inserting {} rows with {} keys (round {})", _rows, name, round);
+    long walBefore = walPosition();
+    long started = System.nanoTime();
+    insert(table, ids);
+    double seconds = (System.nanoTime() - started) / 1e9;
+    long walBytes = walPosition() - walBefore;
+
+    String result;
+    try (Statement statement = _connection.createStatement();
+        ResultSet rs =
+            statement.executeQuery(
+                "SELECT pg_relation_size('"
+                    + table
+                    + "_pkey'), pg_relation_size('"
+                    + table
+                    + "')")) {
+      rs.next();
+      result =
+          String.format(
+              "%-6s %5d %10d %10d %12.1f %12.1f %10.1f",
+              name,
+              round,
+              _rows,
+              Math.round(_rows / seconds),
+              rs.getLong(1) / 1048576.0,
+              rs.getLong(2) / 1048576.0,
+              walBytes / 1048576.0);
+      statement.execute("DROP TABLE " + table);
+    }
+    return result;
+  }
+
+  private void insert(String table, Supplier<UUID> ids) throws SQLException {
+    UUID user = UUID.randomUUID();
+    String payload = "x".repeat(200);
+    _connection.setAutoCommit(false);
+    try (PreparedStatement insert =
+        _connection.prepareStatement(
+            "INSERT INTO "
+                + table
+                + " (internal_id, created_at, created_by, payload) VALUES (?, ?, ?, ?)")) {
+      for (int i = 1; i <= _rows; i++) {
+        insert.setObject(1, ids.get());
+        insert.setTimestamp(2, Timestamp.from(Instant.now()));
+        insert.setObject(3, user);
+        insert.setString(4, payload);
+        insert.addBatch();
+        if (i % _batchSize == 0 || i == _rows) {
+          insert.executeBatch();
+          _connection.commit();
+        }
+      }
+    }
+    _connection.setAutoCommit(true);
+  }
+
+  /** The current WAL insert position, in bytes. */
+  private long walPosition() throws SQLException {
+    try (Statement statement = _connection.createStatement();
+        ResultSet rs =
+            statement.executeQuery("SELECT pg_wal_lsn_diff(pg_current_wal_lsn(), '0/0')::bigint")) {
+      rs.next();
+      return rs.getLong(1);
+    }
+  }
+}
@@ -7,8 +7,13 @@ import gov.cdc.usds.simplereport.config.simplereport.DataHubConfig;
 import gov.cdc.usds.simplereport.config.simplereport.DemoUserConfiguration;
 import gov.cdc.usds.simplereport.config.simplereport.SiteAdminEmailList;
 import gov.cdc.usds.simplereport.idp.repository.LiveOktaRepository;
+import gov.cdc.usds.simplereport.properties.AuditLoggingProperties;
+import gov.cdc.usds.simplereport.properties.AuditRetentionProperties;
+import gov.cdc.usds.simplereport.properties.GraphQlMetricsProperties;
+import gov.cdc.usds.simplereport.properties.OktaGroupFetchProperties;
 import gov.cdc.usds.simplereport.properties.SendGridProperties;
 import gov.cdc.usds.simplereport.properties.SmartyStreetsProperties;
+import gov.cdc.usds.simplereport.properties.SmsOutboxProperties;
 import gov.cdc.usds.simplereport.service.OrganizationInitializingService;
 import gov.cdc.usds.simplereport.service.OrganizationService;
 import gov.cdc.usds.simplereport.service.ScheduledTasksService;
@@ -31,7 +36,12 @@ import org.springframework.scheduling.annotation.EnableScheduling;
   DataHubConfig.class,
   DemoUserConfiguration.class,
   SmartyStreetsProperties.class,
-  SendGridProperties.class
+  SendGridProperties.class,
+  AuditLoggingProperties.class,
+  OktaGroupFetchProperties.class,
+  SmsOutboxProperties.class,
+  GraphQlMetricsProperties.class,
+  AuditRetentionProperties.class
 })
 @EnableScheduling
 public class SimpleReportApplication {
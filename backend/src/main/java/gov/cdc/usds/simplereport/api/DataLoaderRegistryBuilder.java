@@ -0,0 +1,81 @@
+package gov.cdc.usds.simplereport.api;
+
+import gov.cdc.usds.simplereport.db.model.Person;
+import gov.cdc.usds.simplereport.db.model.TestEvent;
+import gov.cdc.usds.simplereport.db.model.TestOrder;
+import gov.cdc.usds.simplereport.service.PersonService;
+import gov.cdc.usds.simplereport.service.TestEventService;
+import gov.cdc.usds.simplereport.service.TestOrderService;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import org.dataloader.BatchLoaderEnvironment;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderOptions;
+import org.dataloader.DataLoaderRegistry;
+import org.dataloader.MappedBatchLoaderWithContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the registry of {@link DataLoader}s for a single GraphQL request. Each loader collects the
+ * keys requested by a field resolver across every object in the result (e.g. every patient on a
+ * page) and fetches them all at once, instead of issuing one query per object.
+ *
+ * <p>Loaders cache their results, so a new registry must be built for every request.
+ */
+@Component
+public class DataLoaderRegistryBuilder {
+
+  /**
+   * Patient ID to that patient's most recent {@link TestEvent}; requires the patient as context.
+   */
+  public static final String PATIENT_LAST_TEST = "patientLastTest";
+  /** Patient ID to that patient's visible {@link TestEvent}s; requires the patient as context. */
+  public static final String PATIENT_TEST_RESULTS = "patientTestResults";
+  /** Test order ID to the {@link TestOrder}, with its current patient link. */
+  public static final String TEST_ORDER = "testOrder";
+
+  private final TestEventService _tes;
+  private final TestOrderService _tos;
+
+  public DataLoaderRegistryBuilder(TestEventService tes, TestOrderService tos) {
+    _tes = tes;
+    _tos = tos;
+  }
+
+  public DataLoaderRegistry build() {
+    DataLoaderRegistry registry = new DataLoaderRegistry();
+    registry.register(
+        PATIENT_LAST_TEST,
+        mappedLoader(
+            (ids, env) -> _tes.getLastTestResultsForPatientsPermRestricted(patients(ids, env))));
+    registry.register(
+        PATIENT_TEST_RESULTS,
+        mappedLoader((ids, env) -> _tos.getTestResultsForPatients(patients(ids, env))));
+    registry.register(TEST_ORDER, mappedLoader((ids, env) -> _tos.getTestOrders(ids)));
+    return registry;
+  }
+
+  private static <V> DataLoader<UUID, V> mappedLoader(BatchFunction<V> batchFunction) {
+    // page sizes top out at the default pagination size, so in practice one batch per field
+    DataLoaderOptions options =
+        DataLoaderOptions.newOptions().setMaxBatchSize(PersonService.DEFAULT_PAGINATION_PAGESIZE);
+    MappedBatchLoaderWithContext<UUID, V> loader =
+        (ids, env) -> CompletableFuture.completedFuture(batchFunction.apply(ids, env));
+    return DataLoader.newMappedDataLoader(loader, options);
+  }
+
+  /** Recover the patients that were passed as key contexts when their IDs were loaded. */
+  private static List<Person> patients(Set<UUID> ids, BatchLoaderEnvironment env) {
+    Map<Object, Object> contexts = env.getKeyContexts();
+    return ids.stream().map(id -> (Person) contexts.get(id)).collect(Collectors.toList());
+  }
+
+  @FunctionalInterface
+  private interface BatchFunction<V> {
+    Map<UUID, V> apply(Set<UUID> ids, BatchLoaderEnvironment env);
+  }
+}
@@ -0,0 +1,48 @@
+package gov.cdc.usds.simplereport.api.model;
+
+import gov.cdc.usds.simplereport.service.model.TestResultEntry;
+import java.util.Date;
+import java.util.UUID;
+
+public class AddTestResultInput {
+  UUID patientId;
+  UUID deviceSpecimenType;
+  String result;
+  Date dateTested;
+
+  public UUID getPatientId() {
+    return patientId;
+  }
+
+  public void setPatientId(UUID patientId) {
+    this.patientId = patientId;
+  }
+
+  public UUID getDeviceSpecimenType() {
+    return deviceSpecimenType;
+  }
+
+  public void setDeviceSpecimenType(UUID deviceSpecimenType) {
+    this.deviceSpecimenType = deviceSpecimenType;
+  }
+
+  public String getResult() {
+    return result;
+  }
+
+  public void setResult(String result) {
+    this.result = result;
+  }
+
+  public Date getDateTested() {
+    return dateTested;
+  }
+
+  public void setDateTested(Date dateTested) {
+    this.dateTested = dateTested;
+  }
+
+  public TestResultEntry toEntry() {
+    return new TestResultEntry(patientId, deviceSpecimenType, result, dateTested);
+  }
+}
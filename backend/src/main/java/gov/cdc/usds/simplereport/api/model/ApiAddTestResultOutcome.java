@@ -0,0 +1,25 @@
+package gov.cdc.usds.simplereport.api.model;
+
+import gov.cdc.usds.simplereport.service.model.AddTestResultOutcome;
+import java.util.UUID;
+
+public class ApiAddTestResultOutcome {
+
+  private final AddTestResultOutcome outcome;
+
+  public ApiAddTestResultOutcome(AddTestResultOutcome outcome) {
+    this.outcome = outcome;
+  }
+
+  public UUID getPatientId() {
+    return outcome.getPatientId();
+  }
+
+  public ApiTestOrder getTestOrder() {
+    return outcome.isSuccess() ? new ApiTestOrder(outcome.getTestOrder()) : null;
+  }
+
+  public String getError() {
+    return outcome.getError();
+  }
+}
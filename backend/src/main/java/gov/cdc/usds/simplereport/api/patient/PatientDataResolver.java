@@ -1,28 +1,35 @@
 package gov.cdc.usds.simplereport.api.patient;
 
+import gov.cdc.usds.simplereport.api.DataLoaderRegistryBuilder;
 import gov.cdc.usds.simplereport.api.model.ApiFacility;
 import gov.cdc.usds.simplereport.db.model.Facility;
 import gov.cdc.usds.simplereport.db.model.Person;
 import gov.cdc.usds.simplereport.db.model.TestEvent;
-import gov.cdc.usds.simplereport.service.TestEventService;
-import gov.cdc.usds.simplereport.service.TestOrderService;
 import graphql.kickstart.tools.GraphQLResolver;
+import graphql.schema.DataFetchingEnvironment;
 import java.util.List;
-import org.springframework.beans.factory.annotation.Autowired;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.dataloader.DataLoader;
 import org.springframework.stereotype.Component;
 
+/**
+ * Resolver for the fields of a patient. Test results are fetched through request-scoped data
+ * loaders, so that a page of patients costs one query per field rather than one per patient.
+ */
 @Component
 public class PatientDataResolver implements GraphQLResolver<Person> {
 
-  @Autowired private TestEventService _testEventService;
-  @Autowired public TestOrderService _svc;
-
-  public List<TestEvent> getTestResults(Person p) {
-    return _svc.getTestResults(p);
+  public CompletableFuture<List<TestEvent>> getTestResults(Person p, DataFetchingEnvironment dfe) {
+    DataLoader<UUID, List<TestEvent>> loader =
+        dfe.getDataLoader(DataLoaderRegistryBuilder.PATIENT_TEST_RESULTS);
+    return loader.load(p.getInternalId(), p);
   }
 
-  public TestEvent getLastTest(Person p) {
-    return _testEventService.getLastTestResultsForPatientPermRestricted(p);
+  public CompletableFuture<TestEvent> getLastTest(Person p, DataFetchingEnvironment dfe) {
+    DataLoader<UUID, TestEvent> loader =
+        dfe.getDataLoader(DataLoaderRegistryBuilder.PATIENT_LAST_TEST);
+    return loader.load(p.getInternalId(), p);
   }
 
   public ApiFacility getFacility(Person p) {
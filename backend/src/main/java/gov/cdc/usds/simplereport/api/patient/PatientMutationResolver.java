@@ -15,6 +15,7 @@ import gov.cdc.usds.simplereport.db.model.Person;
 import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
 import gov.cdc.usds.simplereport.service.PersonService;
 import gov.cdc.usds.simplereport.service.UploadService;
+import gov.cdc.usds.simplereport.service.model.PatientImportResult;
 import graphql.kickstart.tools.GraphQLMutationResolver;
 import java.io.IOException;
 import java.io.InputStream;
@@ -50,6 +51,17 @@ public class PatientMutationResolver implements GraphQLMutationResolver {
     }
   }
 
+  public PatientImportResult importPatients(Part part) {
+    try (InputStream people = part.getInputStream()) {
+      return _us.importPersonCSV(people);
+    } catch (IllegalGraphqlArgumentException e) {
+      throw e;
+    } catch (IOException e) {
+      LOG.error("Patient CSV import failed", e);
+      throw new CsvProcessingException("Unable to complete patient CSV import");
+    }
+  }
+
   public Person addPatient(
       UUID facilityId,
       String lookupId,
@@ -2,7 +2,9 @@ package gov.cdc.usds.simplereport.api.patient;
 
 import gov.cdc.usds.simplereport.config.AuthorizationConfiguration;
 import gov.cdc.usds.simplereport.db.model.Person;
+import gov.cdc.usds.simplereport.db.repository.PersonSearchResults;
 import gov.cdc.usds.simplereport.service.PersonService;
+import gov.cdc.usds.simplereport.service.model.PatientPage;
 import graphql.kickstart.tools.GraphQLQueryResolver;
 import java.util.List;
 import java.util.UUID;
@@ -21,11 +23,23 @@ public class PatientResolver implements GraphQLQueryResolver {
     return ps.getPatients(facilityId, pageNumber, pageSize, showDeleted, namePrefixMatch);
   }
 
+  // authorization happens in calls to PersonService
+  public PatientPage getPatientsPage(
+      UUID facilityId, UUID after, int pageSize, boolean showDeleted, String namePrefixMatch) {
+    return ps.getPatientsPage(facilityId, after, pageSize, showDeleted, namePrefixMatch);
+  }
+
   // authorization happens in calls to PersonService
   public long patientsCount(UUID facilityId, boolean showDeleted, String namePrefixMatch) {
     return ps.getPatientsCount(facilityId, showDeleted, namePrefixMatch);
   }
 
+  // authorization happens in calls to PersonService
+  public PersonSearchResults patientSearch(
+      UUID facilityId, String query, boolean showDeleted, UUID after, int pageSize) {
+    return ps.searchPatients(facilityId, showDeleted, query, after, pageSize);
+  }
+
   @AuthorizationConfiguration.RequirePermissionSearchTargetPatient
   public Person getPatient(UUID patientId) {
     return ps.getPatientNoPermissionsCheck(patientId);
@@ -2,7 +2,8 @@ package gov.cdc.usds.simplereport.api.queue;
 
 import static gov.cdc.usds.simplereport.api.Translators.parseSymptoms;
 
-import com.google.i18n.phonenumbers.NumberParseException;
+import gov.cdc.usds.simplereport.api.model.AddTestResultInput;
+import gov.cdc.usds.simplereport.api.model.ApiAddTestResultOutcome;
 import gov.cdc.usds.simplereport.api.model.ApiTestOrder;
 import gov.cdc.usds.simplereport.db.model.TestOrder;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestResult;
@@ -12,8 +13,10 @@ import gov.cdc.usds.simplereport.service.TestOrderService;
 import graphql.kickstart.tools.GraphQLMutationResolver;
 import java.time.LocalDate;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import org.json.JSONException;
 import org.springframework.stereotype.Component;
 
@@ -29,12 +32,21 @@ public class QueueMutationResolver implements GraphQLMutationResolver {
     _ps = ps;
   }
 
-  public ApiTestOrder addTestResult(String deviceID, String result, UUID patientID, Date dateTested)
-      throws NumberParseException {
+  public ApiTestOrder addTestResult(
+      String deviceID, String result, UUID patientID, Date dateTested) {
     return new ApiTestOrder(
         _tos.addTestResult(deviceID, TestResult.valueOf(result), patientID, dateTested));
   }
 
+  public List<ApiAddTestResultOutcome> addTestResults(List<AddTestResultInput> results) {
+    return _tos
+        .addTestResults(
+            results.stream().map(AddTestResultInput::toEntry).collect(Collectors.toList()))
+        .stream()
+        .map(ApiAddTestResultOutcome::new)
+        .collect(Collectors.toList());
+  }
+
   public ApiTestOrder editQueueItem(UUID id, String deviceId, String result, Date dateTested) {
     return new ApiTestOrder(_tos.editQueueItem(id, deviceId, result, dateTested));
   }
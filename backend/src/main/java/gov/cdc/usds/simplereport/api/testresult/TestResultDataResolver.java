@@ -1,17 +1,23 @@
 package gov.cdc.usds.simplereport.api.testresult;
 
+import gov.cdc.usds.simplereport.api.DataLoaderRegistryBuilder;
 import gov.cdc.usds.simplereport.api.model.ApiFacility;
 import gov.cdc.usds.simplereport.api.model.TestDescription;
 import gov.cdc.usds.simplereport.db.model.PatientLink;
 import gov.cdc.usds.simplereport.db.model.Person;
 import gov.cdc.usds.simplereport.db.model.TestEvent;
+import gov.cdc.usds.simplereport.db.model.TestOrder;
 import gov.cdc.usds.simplereport.db.model.auxiliary.AskOnEntrySurvey;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestResult;
 import graphql.kickstart.tools.GraphQLResolver;
+import graphql.schema.DataFetchingEnvironment;
 import java.time.LocalDate;
 import java.util.Date;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import org.dataloader.DataLoader;
 import org.json.JSONObject;
 import org.springframework.stereotype.Component;
 
@@ -30,8 +36,17 @@ public class TestResultDataResolver implements GraphQLResolver<TestEvent> {
     return testEvent.getPatientData();
   }
 
-  public Date getDateAdded(TestEvent testEvent) {
-    return testEvent.getTestOrder().getCreatedAt();
+  /** The test order's value for a field, or null if the order was not loaded (or not visible). */
+  private <T> CompletableFuture<T> loadFromTestOrder(
+      TestEvent testEvent, DataFetchingEnvironment dfe, Function<TestOrder, T> field) {
+    DataLoader<UUID, TestOrder> loader = dfe.getDataLoader(DataLoaderRegistryBuilder.TEST_ORDER);
+    return loader
+        .load(testEvent.getTestOrderId())
+        .thenApply(order -> order == null ? null : field.apply(order));
+  }
+
+  public CompletableFuture<Date> getDateAdded(TestEvent testEvent, DataFetchingEnvironment dfe) {
+    return loadFromTestOrder(testEvent, dfe, TestOrder::getCreatedAt);
   }
 
   public String getPregnancy(TestEvent testEvent) {
@@ -91,7 +106,8 @@ public class TestResultDataResolver implements GraphQLResolver<TestEvent> {
     return new ApiFacility(testEvent.getFacility());
   }
 
-  public PatientLink getPatientLink(TestEvent testEvent) {
-    return testEvent.getPatientLink();
+  public CompletableFuture<PatientLink> getPatientLink(
+      TestEvent testEvent, DataFetchingEnvironment dfe) {
+    return loadFromTestOrder(testEvent, dfe, TestOrder::getPatientLink);
   }
 }
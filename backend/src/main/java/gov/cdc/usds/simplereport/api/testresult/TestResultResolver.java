@@ -2,6 +2,7 @@ package gov.cdc.usds.simplereport.api.testresult;
 
 import gov.cdc.usds.simplereport.db.model.TestEvent;
 import gov.cdc.usds.simplereport.service.TestOrderService;
+import gov.cdc.usds.simplereport.service.model.TestResultPage;
 import graphql.kickstart.tools.GraphQLMutationResolver;
 import graphql.kickstart.tools.GraphQLQueryResolver;
 import java.util.List;
@@ -25,6 +26,10 @@ public class TestResultResolver implements GraphQLQueryResolver, GraphQLMutation
     return tos.getTestEventsResults(facilityId, pageNumber, pageSize);
   }
 
+  public TestResultPage getTestResultsPage(UUID facilityId, UUID after, int pageSize) {
+    return tos.getTestEventsResultsPage(facilityId, after, pageSize);
+  }
+
   public int testResultsCount(UUID facilityId) {
     return tos.getTestResultsCount(facilityId);
   }
@@ -1,5 +1,6 @@
 package gov.cdc.usds.simplereport.config;
 
+import gov.cdc.usds.simplereport.api.DataLoaderRegistryBuilder;
 import gov.cdc.usds.simplereport.config.authorization.SiteAdminPrincipal;
 import gov.cdc.usds.simplereport.service.ApiUserService;
 import graphql.kickstart.execution.context.DefaultGraphQLContext;
@@ -15,20 +16,23 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.websocket.Session;
 import javax.websocket.server.HandshakeRequest;
-import org.dataloader.DataLoaderRegistry;
 import org.springframework.stereotype.Component;
 
 /**
  * A GraphQL context builder that injects the current API user as the context's subject. The subject
  * is populated with the user's granted permissions, whether the user is a site admin, the user's
  * granted roles, and the organization and facilities to which the user has been granted access.
+ * Each context also gets a fresh set of data loaders (see {@link DataLoaderRegistryBuilder}).
  */
 @Component
 class ApiUserAwareGraphQlContextBuilder implements GraphQLServletContextBuilder {
   private final ApiUserService apiUserService;
+  private final DataLoaderRegistryBuilder dataLoaderRegistryBuilder;
 
-  ApiUserAwareGraphQlContextBuilder(ApiUserService apiUserService) {
+  ApiUserAwareGraphQlContextBuilder(
+      ApiUserService apiUserService, DataLoaderRegistryBuilder dataLoaderRegistryBuilder) {
     this.apiUserService = apiUserService;
+    this.dataLoaderRegistryBuilder = dataLoaderRegistryBuilder;
   }
 
   @Override
@@ -37,6 +41,7 @@ class ApiUserAwareGraphQlContextBuilder implements GraphQLServletContextBuilder
     return DefaultGraphQLServletContext.createServletContext()
         .with(httpServletRequest)
         .with(httpServletResponse)
+        .with(dataLoaderRegistryBuilder.build())
         .with(subjectFromCurrentUser())
         .build();
   }
@@ -46,13 +51,14 @@ class ApiUserAwareGraphQlContextBuilder implements GraphQLServletContextBuilder
     return DefaultGraphQLWebSocketContext.createWebSocketContext()
         .with(session)
         .with(handshakeRequest)
+        .with(dataLoaderRegistryBuilder.build())
         .with(subjectFromCurrentUser())
         .build();
   }
 
   @Override
   public GraphQLContext build() {
-    return new DefaultGraphQLContext(new DataLoaderRegistry(), subjectFromCurrentUser());
+    return new DefaultGraphQLContext(dataLoaderRegistryBuilder.build(), subjectFromCurrentUser());
   }
 
   private Subject subjectFromCurrentUser() {
@@ -2,6 +2,7 @@ package gov.cdc.usds.simplereport.config;
 
 import gov.cdc.usds.simplereport.db.model.ApiUser;
 import gov.cdc.usds.simplereport.service.ApiUserService;
+import gov.cdc.usds.simplereport.service.CurrentApiUserContextHolder;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,6 +11,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.web.context.request.RequestContextHolder;
 
 @Configuration
 @EnableJpaAuditing
@@ -18,10 +20,18 @@ public class AuditingConfig {
   private static final Logger LOG = LoggerFactory.getLogger(AuditingConfig.class);
 
   @Autowired private ApiUserService _userService;
+  @Autowired private CurrentApiUserContextHolder _currentUserHolder;
 
   @Bean
   public AuditorAware<ApiUser> getCurrentApiUserProvider() {
     return () -> {
+      // Nearly every request has looked up its user long before saving anything: reuse that,
+      // rather than opening a new transaction (and connection) for every entity saved.
+      if (RequestContextHolder.getRequestAttributes() != null
+          && _currentUserHolder.hasBeenPopulated()) {
+        LOG.trace("Using current user already resolved for this request");
+        return Optional.of(_currentUserHolder.getCurrentApiUser());
+      }
       LOG.debug("Fetching current user for audit");
       Optional<ApiUser> user = Optional.of(_userService.getCurrentApiUserInContainedTransaction());
       return user;
@@ -7,6 +7,7 @@ import gov.cdc.usds.simplereport.config.authorization.UserPermission;
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.prepost.PostFilter;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 
@@ -89,6 +90,9 @@ public class AuthorizationConfiguration {
   private static final String SPEL_CAN_VIEW_PATIENT =
       "@" + AUTHORIZER_BEAN + ".userCanViewPatient(#patient)";
 
+  private static final String SPEL_CAN_VIEW_PATIENTS =
+      "@" + AUTHORIZER_BEAN + ".userCanViewPatients(#patients)";
+
   private static final String SPEL_CAN_VIEW_PATIENT_BY_ID =
       "@" + AUTHORIZER_BEAN + ".userCanViewPatient(#patientId)";
 
@@ -98,6 +102,9 @@ public class AuthorizationConfiguration {
   private static final String SPEL_CAN_VIEW_TEST_ORDER =
       "@" + AUTHORIZER_BEAN + ".userCanViewTestOrder(#testOrderId)";
 
+  private static final String SPEL_CAN_VIEW_TEST_ORDER_MAP_ENTRY =
+      "@" + AUTHORIZER_BEAN + ".userCanViewTestOrder(filterObject.value)";
+
   private static final String SPEL_CAN_VIEW_TEST_ORDER_OF_PATIENT =
       "@" + AUTHORIZER_BEAN + ".userCanViewTestOrderOfPatient(#patientId)";
 
@@ -207,6 +214,35 @@ public class AuthorizationConfiguration {
           + SPEL_CAN_VIEW_PATIENT)
   public @interface RequirePermissionReadResultListForPatient {}
 
+  /**
+   * Require the current user to have the {@link UserPermission#READ_RESULT_LIST} permission for
+   * every patient in the collection {@code patients}.
+   *
+   * <p>NOTE: any method with this annotation must have a parameter {@code patients}.
+   */
+  @Retention(RUNTIME)
+  @Target(METHOD)
+  @PreAuthorize(
+      SPEL_IS_VALID
+          + " && "
+          + SPEL_HAS_PERMISSION_READ_RESULT_LIST
+          + " && "
+          + SPEL_CAN_VIEW_PATIENTS)
+  public @interface RequirePermissionReadResultListForPatients {}
+
+  /**
+   * Require the current user to have the {@link UserPermission#READ_RESULT_LIST} permission, and
+   * remove from the result any test order they cannot view.
+   *
+   * <p>NOTE: any method with this annotation must return a (mutable) {@link java.util.Map} whose
+   * values are test orders.
+   */
+  @Retention(RUNTIME)
+  @Target(METHOD)
+  @PreAuthorize(SPEL_IS_VALID + " && " + SPEL_HAS_PERMISSION_READ_RESULT_LIST)
+  @PostFilter(SPEL_CAN_VIEW_TEST_ORDER_MAP_ENTRY)
+  public @interface RequirePermissionReadResultListForTestOrders {}
+
   /**
    * Require the current user to have the {@link UserPermission#EDIT_PATIENT} permission at the
    * facility with UUID {@code facilityId}.
@@ -332,6 +368,18 @@ public class AuthorizationConfiguration {
       SPEL_IS_VALID + " && " + SPEL_HAS_PERMISSION_START_TEST + " && " + SPEL_CAN_VIEW_PATIENT)
   public @interface RequirePermissionStartTestForPatient {}
 
+  /**
+   * Require the current user to have the {@link UserPermission#START_TEST} permission for every
+   * patient in the collection {@code patients}.
+   *
+   * <p>NOTE: any method with this annotation must have a parameter {@code patients}.
+   */
+  @Retention(RUNTIME)
+  @Target(METHOD)
+  @PreAuthorize(
+      SPEL_IS_VALID + " && " + SPEL_HAS_PERMISSION_START_TEST + " && " + SPEL_CAN_VIEW_PATIENTS)
+  public @interface RequirePermissionStartTestForPatients {}
+
   /**
    * Require the current user to have the {@link UserPermission#START_TEST} permission with access
    * to the patient link with UUID {@code patientLinkId}.
@@ -388,6 +436,17 @@ public class AuthorizationConfiguration {
       SPEL_IS_VALID + " && " + SPEL_HAS_PERMISSION_UPDATE_TEST + " && " + SPEL_CAN_VIEW_TEST_ORDER)
   public @interface RequirePermissionUpdateTestForTestOrder {}
 
+  /**
+   * Require the current user to have the {@link UserPermission#SUBMIT_TEST} permission.
+   *
+   * <p>NOTE: this checks no particular patient or facility: a method with this annotation must do
+   * that itself.
+   */
+  @Retention(RUNTIME)
+  @Target(METHOD)
+  @PreAuthorize(SPEL_IS_VALID + " && " + SPEL_HAS_PERMISSION_SUBMIT_TEST)
+  public @interface RequirePermissionSubmitTest {}
+
   /**
    * Require the current user to have the {@link UserPermission#SUBMIT_TEST} permission for the test
    * order of patient with UUID {@code patientId}.
@@ -0,0 +1,83 @@
+package gov.cdc.usds.simplereport.config;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.std.DelegatingDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import gov.cdc.usds.simplereport.service.GraphQlDocumentCache;
+import graphql.kickstart.execution.GraphQLRequest;
+import java.io.IOException;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Persisted query support for the GraphQL servlet, following the protocol of Apollo's automatic
+ * persisted queries: a client may send {@code extensions.persistedQuery.sha256Hash} in place of the
+ * query text, and if the server does not know that hash, the client sends the request again with
+ * both the hash and the text.
+ *
+ * <p>The servlet reads requests with the application's {@link
+ * com.fasterxml.jackson.databind.ObjectMapper}, but its {@link GraphQLRequest} has no place for the
+ * extensions, so they are dealt with as the request is read: the query text is filled in from (or
+ * remembered by) the {@link GraphQlDocumentCache}. Only JSON (POST) requests are supported.
+ */
+@Configuration
+public class GraphQlPersistedQueryConfig {
+
+  @Bean
+  public Module persistedQueryModule(GraphQlDocumentCache documentCache) {
+    SimpleModule module = new SimpleModule("GraphQlPersistedQueries");
+    module.setDeserializerModifier(
+        new BeanDeserializerModifier() {
+          @Override
+          public JsonDeserializer<?> modifyDeserializer(
+              DeserializationConfig config,
+              BeanDescription beanDesc,
+              JsonDeserializer<?> deserializer) {
+            if (GraphQLRequest.class.equals(beanDesc.getBeanClass())) {
+              return new PersistedQueryRequestDeserializer(deserializer, documentCache);
+            }
+            return deserializer;
+          }
+        });
+    return module;
+  }
+
+  private static class PersistedQueryRequestDeserializer extends DelegatingDeserializer {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient GraphQlDocumentCache _documentCache;
+
+    PersistedQueryRequestDeserializer(
+        JsonDeserializer<?> delegate, GraphQlDocumentCache documentCache) {
+      super(delegate);
+      _documentCache = documentCache;
+    }
+
+    @Override
+    protected JsonDeserializer<?> newDelegatingInstance(JsonDeserializer<?> newDelegatee) {
+      return new PersistedQueryRequestDeserializer(newDelegatee, _documentCache);
+    }
+
+    @Override
+    public Object deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+      JsonNode body = p.readValueAsTree();
+      try (JsonParser bodyParser = body.traverse(p.getCodec())) {
+        bodyParser.nextToken();
+        GraphQLRequest request = (GraphQLRequest) _delegatee.deserialize(bodyParser, ctxt);
+        String hash = body.path("extensions").path("persistedQuery").path("sha256Hash").textValue();
+        if (hash != null) {
+          request.setQuery(_documentCache.resolvePersistedQuery(hash, request.getQuery()));
+        }
+        return request;
+      }
+    }
+  }
+}
@@ -22,6 +22,7 @@ import gov.cdc.usds.simplereport.service.OrganizationService;
 import gov.cdc.usds.simplereport.service.model.IdentityAttributes;
 import gov.cdc.usds.simplereport.service.model.IdentitySupplier;
 import gov.cdc.usds.simplereport.service.model.OrganizationRoles;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
@@ -159,8 +160,11 @@ public class UserAuthorizationVerifier {
       return true;
     }
     Optional<OrganizationRoles> currentOrgRoles = _orgService.getCurrentOrganizationRoles();
-    return currentOrgRoles.isPresent()
-        && currentOrgRoles.get().containsFacility(testOrder.getFacility());
+    return currentOrgRoles.isPresent() && canViewTestOrder(currentOrgRoles.get(), testOrder);
+  }
+
+  private static boolean canViewTestOrder(OrganizationRoles orgRoles, TestOrder testOrder) {
+    return orgRoles.containsFacility(testOrder.getFacility());
   }
 
   public boolean userCanViewTestOrderOfPatient(UUID patientId) {
@@ -178,6 +182,24 @@ public class UserAuthorizationVerifier {
     return (order.isPresent() && userCanViewTestOrder(order.get()));
   }
 
+  /**
+   * The queue items (pending test orders) that the current user can see by the rules of {@link
+   * #userCanViewTestOrderOfPatient(UUID)}, checked against the given orders (and their patients) as
+   * already loaded.
+   */
+  public Set<TestOrder> queueItemsUserCanView(Collection<TestOrder> queueItems) {
+    Optional<OrganizationRoles> currentOrgRoles = _orgService.getCurrentOrganizationRoles();
+    if (currentOrgRoles.isEmpty()) {
+      return Set.of();
+    }
+    return queueItems.stream()
+        .filter(
+            o ->
+                canViewPatient(currentOrgRoles.get(), o.getPatient())
+                    && canViewTestOrder(currentOrgRoles.get(), o))
+        .collect(Collectors.toSet());
+  }
+
   public boolean userCanAccessFacility(UUID facilityId) {
     if (facilityId == null) {
       return true;
@@ -196,20 +218,26 @@ public class UserAuthorizationVerifier {
       return true;
     }
     Optional<OrganizationRoles> currentOrgRoles = _orgService.getCurrentOrganizationRoles();
-    if (currentOrgRoles.isEmpty()) {
-      return false;
-    } else if (!currentOrgRoles
-        .get()
+    return currentOrgRoles.isPresent() && canViewPatient(currentOrgRoles.get(), patient);
+  }
+
+  public boolean userCanViewPatients(Collection<Person> patients) {
+    if (patients == null || patients.isEmpty()) {
+      return true;
+    }
+    Optional<OrganizationRoles> currentOrgRoles = _orgService.getCurrentOrganizationRoles();
+    return currentOrgRoles.isPresent()
+        && patients.stream().allMatch(p -> canViewPatient(currentOrgRoles.get(), p));
+  }
+
+  private static boolean canViewPatient(OrganizationRoles orgRoles, Person patient) {
+    if (!orgRoles
         .getOrganization()
         .getInternalId()
         .equals(patient.getOrganization().getInternalId())) {
       return false;
-    } else if (patient.getFacility() == null) {
-      return true;
-    } else {
-      return currentOrgRoles.isPresent()
-          && currentOrgRoles.get().containsFacility(patient.getFacility());
     }
+    return patient.getFacility() == null || orgRoles.containsFacility(patient.getFacility());
   }
 
   public boolean userCanViewPatient(UUID patientId) {
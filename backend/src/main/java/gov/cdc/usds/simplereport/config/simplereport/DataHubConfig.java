@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.TimeZone;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
 @ConfigurationProperties(prefix = "simple-report.data-hub")
 public final class DataHubConfig {
@@ -14,6 +15,8 @@ public final class DataHubConfig {
   private final String uploadUrl;
   /** the maximum number of records to upload at once */
   private final int maxCsvRows;
+  /** the maximum number of batches to upload in one run of the uploader, when catching up */
+  private final int maxUploadsPerRun;
   /** the data hub API key */
   private final String apiKey;
   /** the slack webhook URL for sending notifications about the upload */
@@ -33,6 +36,7 @@ public final class DataHubConfig {
       boolean uploadEnabled,
       String uploadUrl,
       int maxCsvRows,
+      @DefaultValue("10") int maxUploadsPerRun,
       String apiKey,
       String secretSlackNotifyWebhookUrl,
       List<String> uploadSchedule,
@@ -40,6 +44,7 @@ public final class DataHubConfig {
     this.uploadEnabled = uploadEnabled;
     this.uploadUrl = uploadUrl;
     this.maxCsvRows = maxCsvRows;
+    this.maxUploadsPerRun = maxUploadsPerRun;
     this.apiKey = apiKey;
     this.secretSlackNotifyWebhookUrl = secretSlackNotifyWebhookUrl;
     this.uploadSchedule = uploadSchedule;
@@ -59,6 +64,10 @@ public final class DataHubConfig {
     return maxCsvRows;
   }
 
+  public int getMaxUploadsPerRun() {
+    return maxUploadsPerRun;
+  }
+
   public String getApiKey() {
     return apiKey;
   }
@@ -16,7 +16,6 @@ import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
-import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.Immutable;
 import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.Type;
@@ -40,8 +39,10 @@ import org.hibernate.annotations.Type;
  * </ol>
  *
  * This class exists outside of the normal entity structure of the application, so it does not
- * extend any base classes, but it does still use Hibernate interceptors to set the primary key ID
- * and the creation timestamp, so that we don't have <i>three</i> ways of doing that in one package.
+ * extend any base classes, but it does still use Hibernate interceptors to set the primary key ID,
+ * so that we don't have <i>three</i> ways of doing that in one package. The event timestamp, on the
+ * other hand, is set when the object is created, since it may be written to the database some time
+ * after the request completes.
  */
 @Entity
 @Immutable
@@ -50,10 +51,13 @@ public class ApiAuditEvent {
   // NOTE: you may wonder why fields are not marked "final" on an immutable object. This is because
   // of the way Hibernate fills in objects when they are loaded from the database: we need a no-arg
   // default constructor, and hence cannot have final fields.
-  /** The primary key for the log entry, which can certainly be a random UUID */
+  /**
+   * The primary key for the log entry, which is time-ordered so that the (many) inserts all go to
+   * the end of the index.
+   */
   @Id
   @Column
-  @GeneratedValue(generator = "UUID4")
+  @GeneratedValue(generator = "UUID7")
   private UUID id;
 
   /**
@@ -62,8 +66,7 @@ public class ApiAuditEvent {
    */
   @Column(updatable = false)
   @Temporal(TemporalType.TIMESTAMP)
-  @CreationTimestamp
-  private Date eventTimestamp;
+  private Date eventTimestamp = new Date();
 
   /** The correlation ID from server logs */
   @Column private String requestId;
@@ -20,7 +20,8 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 /**
  * A base entity class for things that have UUID primary key and auto-populated
- * creation/modification timestamps.
+ * creation/modification timestamps. The key is random, unless the entity is marked {@link
+ * TimeOrderedId}.
  */
 @MappedSuperclass
 @EntityListeners(AuditingEntityListener.class)
@@ -29,7 +30,7 @@ public abstract class AuditedEntity {
 
   @Column(updatable = false, nullable = false)
   @Id
-  @GeneratedValue(generator = "UUID4")
+  @GeneratedValue(generator = "AuditedEntityId")
   private UUID internalId;
 
   @Column(updatable = false)
@@ -0,0 +1,37 @@
+package gov.cdc.usds.simplereport.db.model;
+
+import java.io.Serializable;
+import java.util.Properties;
+import java.util.UUID;
+import org.hibernate.boot.registry.classloading.spi.ClassLoaderService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.Configurable;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * The id generator for {@link AuditedEntity}: random (version 4) UUIDs, unless the entity class is
+ * annotated {@link TimeOrderedId}. Hibernate makes one of these for each entity, so the choice is
+ * only made once.
+ */
+public class AuditedEntityIdGenerator implements IdentifierGenerator, Configurable {
+
+  private IdentifierGenerator _timeOrdered;
+
+  @Override
+  public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+    Class<?> entity =
+        serviceRegistry
+            .getService(ClassLoaderService.class)
+            .classForName(params.getProperty(ENTITY_NAME));
+    if (entity.isAnnotationPresent(TimeOrderedId.class)) {
+      _timeOrdered = new TimeOrderedUuidGenerator();
+    }
+  }
+
+  @Override
+  public Serializable generate(SharedSessionContractImplementor session, Object object) {
+    return _timeOrdered == null ? UUID.randomUUID() : _timeOrdered.generate(session, object);
+  }
+}
@@ -0,0 +1,47 @@
+package gov.cdc.usds.simplereport.db.model;
+
+import java.util.Date;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * A GraphQL query document, stored once (however many requests send it) under the hash of its
+ * normalized text, so that {@link ApiAuditEvent}s can refer to it by that hash.
+ *
+ * <p>Like {@link ApiAuditEvent}, this lives outside the normal entity structure: the primary key is
+ * the content hash rather than a generated id, and rows are only ever inserted (see {@link
+ * gov.cdc.usds.simplereport.db.repository.GraphQlQueryDocumentRepository#insertIfAbsent}).
+ */
+@Entity
+@Immutable
+public class GraphQlQueryDocument {
+
+  @Id @Column private String hash;
+
+  @Column(nullable = false)
+  private String document;
+
+  @Column(nullable = false)
+  @Temporal(TemporalType.TIMESTAMP)
+  private Date createdAt;
+
+  protected GraphQlQueryDocument() {
+    // hibernate
+  }
+
+  public String getHash() {
+    return hash;
+  }
+
+  public String getDocument() {
+    return document;
+  }
+
+  public Date getCreatedAt() {
+    return createdAt;
+  }
+}
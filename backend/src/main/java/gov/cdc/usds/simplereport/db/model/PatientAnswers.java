@@ -6,6 +6,7 @@ import javax.persistence.Entity;
 import org.hibernate.annotations.Type;
 
 @Entity
+@TimeOrderedId
 public class PatientAnswers extends AuditedEntity {
 
   @Column
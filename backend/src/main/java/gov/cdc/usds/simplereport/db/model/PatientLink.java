@@ -7,9 +7,18 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.JoinColumn;
 import javax.persistence.OneToOne;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
+@BatchSize(size = PatientLink.BATCH_FETCH_SIZE)
 public class PatientLink extends EternalAuditedEntity {
+
+  /**
+   * How many uninitialized patient links (e.g. the {@link TestOrder#getPatientLink()} of each order
+   * in a list) Hibernate loads in one query when any one of them is accessed.
+   */
+  public static final int BATCH_FETCH_SIZE = 100;
+
   @OneToOne(optional = false)
   @JoinColumn(name = "test_order_id", nullable = false)
   private TestOrder testOrder;
@@ -278,6 +278,7 @@ public class Person extends OrganizationScopedEternalEntity {
     public static final String FIRST_NAME = "firstName";
     public static final String MIDDLE_NAME = "middleName";
     public static final String LAST_NAME = "lastName";
+    public static final String SUFFIX = "suffix";
 
     private SpecField() {} // sonarcloud codesmell
   }
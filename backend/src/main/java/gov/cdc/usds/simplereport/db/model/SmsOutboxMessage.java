@@ -0,0 +1,109 @@
+package gov.cdc.usds.simplereport.db.model;
+
+import gov.cdc.usds.simplereport.db.model.auxiliary.SmsDeliveryStatus;
+import java.util.Date;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Type;
+
+/**
+ * A text message to a patient, recorded in the same transaction as whatever caused it and sent
+ * afterwards by a background worker, along with the progress of its delivery.
+ */
+@Entity
+@DynamicUpdate
+public class SmsOutboxMessage extends SystemManagedEntity {
+
+  @ManyToOne(optional = false, fetch = FetchType.LAZY)
+  @JoinColumn(name = "patient_link_id", nullable = false, updatable = false)
+  private PatientLink patientLink;
+
+  @Column(nullable = false, updatable = false)
+  private String message;
+
+  @Column(nullable = false)
+  @Type(type = "pg_enum")
+  @Enumerated(EnumType.STRING)
+  private SmsDeliveryStatus status;
+
+  @Column(nullable = false)
+  private int attempts;
+
+  @Column(nullable = false)
+  private Date nextAttemptAt;
+
+  @Column private String providerMessageId;
+
+  @Column private String lastError;
+
+  protected SmsOutboxMessage() {
+    /* for hibernate */
+  }
+
+  public SmsOutboxMessage(PatientLink patientLink, String message) {
+    this.patientLink = patientLink;
+    this.message = message;
+    this.status = SmsDeliveryStatus.PENDING;
+    this.attempts = 0;
+    this.nextAttemptAt = new Date();
+  }
+
+  public PatientLink getPatientLink() {
+    return patientLink;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public SmsDeliveryStatus getStatus() {
+    return status;
+  }
+
+  public int getAttempts() {
+    return attempts;
+  }
+
+  public Date getNextAttemptAt() {
+    return nextAttemptAt;
+  }
+
+  public String getProviderMessageId() {
+    return providerMessageId;
+  }
+
+  public String getLastError() {
+    return lastError;
+  }
+
+  /**
+   * Record the start of a delivery attempt. The message will not be picked up again until {@code
+   * leaseExpiresAt}, unless the attempt is recorded as having failed before then.
+   */
+  public void startAttempt(Date leaseExpiresAt) {
+    attempts++;
+    nextAttemptAt = leaseExpiresAt;
+  }
+
+  public void markSent(String providerMessageId) {
+    this.status = SmsDeliveryStatus.SENT;
+    this.providerMessageId = providerMessageId;
+    this.lastError = null;
+  }
+
+  public void retryAt(Date when, String error) {
+    this.nextAttemptAt = when;
+    this.lastError = error;
+  }
+
+  public void markFailed(String error) {
+    this.status = SmsDeliveryStatus.FAILED;
+    this.lastError = error;
+  }
+}
@@ -18,6 +18,7 @@ import org.slf4j.LoggerFactory;
 
 @Entity
 @Immutable
+@TimeOrderedId
 @AttributeOverride(name = "result", column = @Column(nullable = false))
 public class TestEvent extends BaseTestInfo {
   private static final Logger LOG = LoggerFactory.getLogger(TestEvent.class);
@@ -14,11 +14,11 @@ import javax.persistence.Enumerated;
 import javax.persistence.FetchType;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
-import org.hibernate.annotations.JoinFormula;
 import org.hibernate.annotations.Type;
 import org.json.JSONObject;
 
 @Entity
+@TimeOrderedId
 public class TestOrder extends BaseTestInfo {
 
   @ManyToOne(fetch = FetchType.LAZY)
@@ -38,15 +38,10 @@ public class TestOrder extends BaseTestInfo {
   @Column(columnDefinition = "uuid")
   private UUID testEventId; // id used directly without needing to load
 
-  @ManyToOne
-  @JoinFormula(
-      "("
-          + "SELECT pl.internal_id "
-          + "FROM {h-schema}patient_link pl "
-          + "WHERE pl.test_order_id = internal_id "
-          + "ORDER BY pl.created_at DESC "
-          + "LIMIT 1"
-          + ")")
+  // the most recently created patient link for this order: kept up to date by
+  // PatientLinkService.createPatientLink
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "current_patient_link_id")
   private PatientLink patientLink;
 
   protected TestOrder() {
@@ -0,0 +1,17 @@
+package gov.cdc.usds.simplereport.db.model;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an {@link AuditedEntity} whose rows are mostly appended (and in large numbers), so that its
+ * ids should be time-ordered rather than random: see {@link TimeOrderedUuidGenerator} for the
+ * trade-offs.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface TimeOrderedId {}
@@ -1,6 +1,7 @@
 package gov.cdc.usds.simplereport.db.model.auxiliary;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import java.util.Map;
@@ -9,33 +10,57 @@ import java.util.Map;
  * The information that we capture about the graphQL API request for an audit event. Must be stable
  * (no type changes or field deletions) once released, since we will be using it to serialize
  * records.
+ *
+ * <p>Older records hold the query text itself; newer ones hold only the hash of the stored {@link
+ * gov.cdc.usds.simplereport.db.model.GraphQlQueryDocument}, and leave the query out.
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class GraphQlInputs {
 
   private final String operationName;
   private final String query;
+  private final String queryHash;
 
   @JsonSerialize(using = RequestVariablesSerializer.class)
   private final Map<String, Object> variables;
 
+  /** Inputs with the query text inline. */
+  public GraphQlInputs(String operationName, String query, Map<String, Object> variables) {
+    this(operationName, query, null, variables);
+  }
+
   @JsonCreator
   public GraphQlInputs(
       @JsonProperty("operationName") String operationName,
       @JsonProperty("query") String query,
+      @JsonProperty("queryHash") String queryHash,
       @JsonProperty("variables") Map<String, Object> variables) {
     this.operationName = operationName;
     this.query = query;
+    this.queryHash = queryHash;
     this.variables = variables;
   }
 
+  /** Inputs that refer to a stored query document, rather than holding the query text. */
+  public static GraphQlInputs withQueryHash(
+      String operationName, String queryHash, Map<String, Object> variables) {
+    return new GraphQlInputs(operationName, null, queryHash, variables);
+  }
+
   public String getOperationName() {
     return operationName;
   }
 
+  /** The query text, for records written before query documents were stored separately. */
   public String getQuery() {
     return query;
   }
 
+  /** The hash of the stored query document, for records written since. */
+  public String getQueryHash() {
+    return queryHash;
+  }
+
   public Map<String, Object> getVariables() {
     return variables;
   }
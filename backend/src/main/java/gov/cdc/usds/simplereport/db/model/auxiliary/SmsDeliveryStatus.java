@@ -0,0 +1,10 @@
+package gov.cdc.usds.simplereport.db.model.auxiliary;
+
+public enum SmsDeliveryStatus {
+  /** Waiting to be sent, or to be retried. */
+  PENDING,
+  /** Accepted by the SMS provider. */
+  SENT,
+  /** Given up on, either after too many attempts or because it can never be sent. */
+  FAILED;
+}
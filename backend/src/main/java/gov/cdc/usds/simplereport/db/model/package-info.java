@@ -1,5 +1,11 @@
 @GenericGenerators({
   @GenericGenerator(name = "UUID4", strategy = "org.hibernate.id.UUIDGenerator"),
+  @GenericGenerator(
+      name = "UUID7",
+      strategy = "gov.cdc.usds.simplereport.db.model.TimeOrderedUuidGenerator"),
+  @GenericGenerator(
+      name = "AuditedEntityId",
+      strategy = "gov.cdc.usds.simplereport.db.model.AuditedEntityIdGenerator"),
   @GenericGenerator(
       name = "UUID1",
       strategy = "org.hibernate.id.UUIDGenerator",
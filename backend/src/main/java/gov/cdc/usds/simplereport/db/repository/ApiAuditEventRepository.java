@@ -4,6 +4,7 @@ import gov.cdc.usds.simplereport.db.model.ApiAuditEvent;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
 
 /**
@@ -11,14 +12,68 @@ import org.springframework.data.repository.Repository;
  * method-generating super-interface: all desired methods must be explicitly declared (and there
  * should be very few).
  */
-public interface ApiAuditEventRepository extends Repository<ApiAuditEvent, UUID> {
+public interface ApiAuditEventRepository
+    extends Repository<ApiAuditEvent, UUID>, AdvisoryLockManager {
+
+  /**
+   * The lock identifier for the advisory lock for audit event partition maintenance. (Use as the
+   * second argument to the postgresql two-argument locking functions.)
+   */
+  int PARTITION_MAINTENANCE_LOCK = 48151623; // arbitrary 32-bit integer for our lock
 
   ApiAuditEvent save(ApiAuditEvent apiAuditEvent);
 
+  <S extends ApiAuditEvent> List<S> saveAll(Iterable<S> apiAuditEvents);
+
   // Fetch greedily, because this method is largely used in non-transactional test code and we care
   // more about convenience than efficiency
   @EntityGraph(attributePaths = {"patientLink.testOrder.patient", "organization", "user"})
   List<ApiAuditEvent> findFirst10ByOrderByEventTimestampDesc();
 
   long count();
+
+  /**
+   * Create the monthly partitions that are missing, up to {@code monthsAhead} months from now.
+   *
+   * @return the number of partitions created.
+   */
+  @Query(
+      value = "SELECT {h-schema}create_api_audit_event_partitions(:monthsAhead)",
+      nativeQuery = true)
+  int createPartitions(int monthsAhead);
+
+  /**
+   * Detach the partitions that ended more than {@code monthsOnline} months before the current one,
+   * leaving them as standalone tables.
+   *
+   * @return the names of the detached tables.
+   */
+  @Query(
+      value = "SELECT {h-schema}detach_api_audit_event_partitions(:monthsOnline)",
+      nativeQuery = true)
+  List<String> detachPartitions(int monthsOnline);
+
+  /** The names of the partitions that have been detached, but not yet dropped. */
+  @Query(value = "SELECT {h-schema}detached_api_audit_event_partitions()", nativeQuery = true)
+  List<String> findDetachedPartitions();
+
+  /**
+   * Drop a partition that has been detached (and is now safely archived).
+   *
+   * @return false if there was no such detached partition.
+   */
+  @Query(
+      value = "SELECT {h-schema}drop_detached_api_audit_event_partition(:name)",
+      nativeQuery = true)
+  boolean dropDetachedPartition(String name);
+
+  /**
+   * Try to obtain the lock for partition maintenance. (It will be released automatically when the
+   * current transaction closes.)
+   *
+   * @return true if the lock was obtained, false otherwise.
+   */
+  default boolean tryPartitionMaintenanceLock() {
+    return tryLock(CORE_API_LOCK_SCOPE, PARTITION_MAINTENANCE_LOCK);
+  }
 }
@@ -2,9 +2,11 @@ package gov.cdc.usds.simplereport.db.repository;
 
 import gov.cdc.usds.simplereport.db.model.ApiUser;
 import java.util.Collection;
+import java.util.Date;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 /** Interface specification for fetching and manipulating {@link ApiUser} entities */
@@ -21,4 +23,12 @@ public interface ApiUserRepository extends EternalSystemManagedEntityRepository<
 
   @Query(BASE_QUERY + " and loginEmail IN :emails")
   public Set<ApiUser> findAllByLoginEmailIn(Collection<String> emails);
+
+  // Bulk update, so this does not load the users or go through the auditing listeners. Never moves
+  // lastSeen backward.
+  @Modifying
+  @Query(
+      "update #{#entityName} e set e.lastSeen = :lastSeen where e.internalId in :ids"
+          + " and (e.lastSeen is null or e.lastSeen < :lastSeen)")
+  public int updateLastSeen(Collection<UUID> ids, Date lastSeen);
 }
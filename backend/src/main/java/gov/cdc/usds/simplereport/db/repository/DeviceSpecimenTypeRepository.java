@@ -3,6 +3,7 @@ package gov.cdc.usds.simplereport.db.repository;
 import gov.cdc.usds.simplereport.db.model.DeviceSpecimenType;
 import gov.cdc.usds.simplereport.db.model.DeviceType;
 import gov.cdc.usds.simplereport.db.model.SpecimenType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -21,12 +22,14 @@ public interface DeviceSpecimenTypeRepository
   @Query(BASE_QUERY + " and e.deviceType = :deviceType and e.specimenType = :specimenType")
   public Optional<DeviceSpecimenType> find(DeviceType deviceType, SpecimenType specimenType);
 
-  // INSTA-DEPRECATION: this should only be used until we fix the API to not need
-  // it
-  @Deprecated
   @EntityGraph(attributePaths = {"deviceType", "specimenType"})
-  public Optional<DeviceSpecimenType> findFirstByDeviceTypeInternalIdOrderByCreatedAt(
-      UUID deviceTypeId); // IGNORES
-  // DELETION
+  @Query(
+      BASE_QUERY
+          + " and e.deviceType.isDeleted = false and e.specimenType.isDeleted = false"
+          + " and e.internalId in :ids")
+  public List<DeviceSpecimenType> findAllByInternalIdIn(Collection<UUID> ids);
 
+  /** Every device/specimen type combination, deleted or not, oldest first. */
+  @EntityGraph(attributePaths = {"deviceType"})
+  public List<DeviceSpecimenType> findAllByOrderByCreatedAt();
 }
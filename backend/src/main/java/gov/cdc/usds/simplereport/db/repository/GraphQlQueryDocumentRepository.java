@@ -0,0 +1,32 @@
+package gov.cdc.usds.simplereport.db.repository;
+
+import gov.cdc.usds.simplereport.db.model.GraphQlQueryDocument;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+/**
+ * Repository for {@link GraphQlQueryDocument} objects. Like {@link ApiAuditEventRepository}, this
+ * intentionally does not extend a method-generating super-interface: documents are never updated or
+ * deleted.
+ */
+public interface GraphQlQueryDocumentRepository extends Repository<GraphQlQueryDocument, String> {
+
+  Optional<GraphQlQueryDocument> findById(String hash);
+
+  /**
+   * Store a document, unless one with the same hash is already stored (possibly by another server,
+   * at the same moment).
+   *
+   * @return the number of rows inserted: 0 if the document was already there.
+   */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO {h-schema}graphql_query_document (hash, document, created_at)"
+              + " VALUES (:hash, :document, now())"
+              + " ON CONFLICT (hash) DO NOTHING",
+      nativeQuery = true)
+  int insertIfAbsent(String hash, String document);
+}
@@ -10,12 +10,15 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.Query;
 
 /** Interface specification for fetching and manipulating {@link Person} entities */
-public interface PersonRepository extends EternalAuditedEntityRepository<Person> {
+public interface PersonRepository
+    extends EternalAuditedEntityRepository<Person>, PersonSearchRepository {
 
   public List<Person> findAll(Specification<Person> searchSpec, Pageable p);
 
   public int count(Specification<Person> searchSpec);
 
+  public Optional<Person> findOne(Specification<Person> searchSpec);
+
   @Query(
       BASE_ALLOW_DELETED_QUERY
           + " e.isDeleted = :isDeleted AND e.internalId = :id and e.organization = :org")
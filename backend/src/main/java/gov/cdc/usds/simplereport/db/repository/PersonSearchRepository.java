@@ -0,0 +1,38 @@
+package gov.cdc.usds.simplereport.db.repository;
+
+import gov.cdc.usds.simplereport.db.model.Organization;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A mix-in repository for ranked name search over {@link gov.cdc.usds.simplereport.db.model.Person}
+ * records, backed by the generated (and GIN-indexed) {@code person.name_search} column.
+ */
+public interface PersonSearchRepository {
+
+  /**
+   * Find the people in an organization whose names match every one of the given terms, where a term
+   * matches any name part (first, middle, last or suffix) that starts with it. Results are ranked
+   * (last-name matches first), then sorted by last and first name, and paginated by keyset: the
+   * next page starts after the last person on the previous one, so a later page costs the same as
+   * the first.
+   *
+   * @param org the organization to search.
+   * @param facilityIds people must either be assigned to one of these facilities or to no facility
+   *     at all (if empty, only people with no facility are found).
+   * @param isDeleted search deleted people rather than active ones.
+   * @param terms the lower-cased search terms: each must consist only of letters and digits.
+   * @param afterId the internal ID of the last person on the previous page, or null for the first
+   *     page. That person must be in the same organization and facilities, or nothing is found.
+   * @param limit the maximum number of people to return.
+   * @return the matching page, along with the total number of matches across all pages.
+   */
+  PersonSearchResults searchByName(
+      Organization org,
+      Collection<UUID> facilityIds,
+      boolean isDeleted,
+      List<String> terms,
+      UUID afterId,
+      int limit);
+}
@@ -0,0 +1,144 @@
+package gov.cdc.usds.simplereport.db.repository;
+
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.model.Person;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.LongType;
+
+/** Native-SQL implementation of {@link PersonSearchRepository}. */
+class PersonSearchRepositoryImpl implements PersonSearchRepository {
+
+  // The sort key is (-rank, last name, first name, internal ID), which is strictly increasing
+  // through the result list: the keyset condition compares it to the key of the "after" person,
+  // recomputed from that row so the client only needs to hold on to its ID.
+  private static final String SORT_KEY =
+      "-ts_rank(%1$s.name_search, q.query), coalesce(%1$s.last_name, ''),"
+          + " coalesce(%1$s.first_name, ''), %1$s.internal_id";
+
+  private static final String QUERY_CTE =
+      "WITH q AS (SELECT to_tsquery('simple', :query) AS query)";
+
+  private static final Pattern SEARCH_TERM = Pattern.compile("[\\p{L}\\p{N}]+");
+
+  @PersistenceContext private EntityManager _entityManager;
+
+  @Override
+  public PersonSearchResults searchByName(
+      Organization org,
+      Collection<UUID> facilityIds,
+      boolean isDeleted,
+      List<String> terms,
+      UUID afterId,
+      int limit) {
+    StringBuilder sql =
+        new StringBuilder(QUERY_CTE)
+            .append(", matches AS (")
+            .append(matchesQuery(facilityIds))
+            .append(") SELECT m.*, (SELECT count(*) FROM matches) AS total_count")
+            .append(" FROM matches m, q");
+    if (afterId != null) {
+      sql.append(" WHERE (")
+          .append(String.format(SORT_KEY, "m"))
+          .append(") > (SELECT ")
+          .append(String.format(SORT_KEY, "a"))
+          .append(" FROM {h-schema}person a WHERE a.internal_id = :afterId AND ")
+          .append(scopeCondition("a", facilityIds))
+          .append(")");
+    }
+    sql.append(" ORDER BY ").append(String.format(SORT_KEY, "m")).append(" LIMIT :limit");
+
+    NativeQuery<?> query =
+        bindFilters(
+            _entityManager
+                .createNativeQuery(sql.toString())
+                .unwrap(NativeQuery.class)
+                .addEntity(Person.class)
+                .addScalar("total_count", LongType.INSTANCE),
+            org,
+            facilityIds,
+            isDeleted,
+            terms);
+    // one extra row tells us whether there is another page
+    query.setParameter("limit", limit + 1);
+    if (afterId != null) {
+      query.setParameter("afterId", afterId);
+    }
+
+    List<?> rows = query.getResultList();
+    List<Person> page = new ArrayList<>(Math.min(rows.size(), limit));
+    long totalCount = 0;
+    for (Object row : rows.subList(0, Math.min(rows.size(), limit))) {
+      Object[] columns = (Object[]) row;
+      page.add((Person) columns[0]);
+      totalCount = (Long) columns[1];
+    }
+    if (page.isEmpty() && afterId != null) {
+      // paged off the end: the count still has to come from somewhere
+      totalCount = countByName(org, facilityIds, isDeleted, terms);
+    }
+    return new PersonSearchResults(page, totalCount, rows.size() > limit);
+  }
+
+  private long countByName(
+      Organization org, Collection<UUID> facilityIds, boolean isDeleted, List<String> terms) {
+    String sql = QUERY_CTE + " SELECT count(*) FROM (" + matchesQuery(facilityIds) + ") AS matches";
+    NativeQuery<?> query =
+        bindFilters(
+            _entityManager.createNativeQuery(sql).unwrap(NativeQuery.class),
+            org,
+            facilityIds,
+            isDeleted,
+            terms);
+    return ((Number) query.getSingleResult()).longValue();
+  }
+
+  private static String matchesQuery(Collection<UUID> facilityIds) {
+    return "SELECT p.* FROM {h-schema}person p, q"
+        + " WHERE p.name_search @@ q.query AND p.is_deleted = :isDeleted AND "
+        + scopeCondition("p", facilityIds);
+  }
+
+  // The organization and facilities being searched. The "after" person has to be in them too, so a
+  // cursor can't be used to find out where somebody else's patient sorts.
+  private static String scopeCondition(String alias, Collection<UUID> facilityIds) {
+    return String.format(
+        facilityIds.isEmpty()
+            ? "%1$s.organization_id = :orgId AND %1$s.facility_id IS NULL"
+            : "%1$s.organization_id = :orgId"
+                + " AND (%1$s.facility_id IS NULL OR %1$s.facility_id IN (:facilityIds))",
+        alias);
+  }
+
+  private static NativeQuery<?> bindFilters(
+      NativeQuery<?> query,
+      Organization org,
+      Collection<UUID> facilityIds,
+      boolean isDeleted,
+      List<String> terms) {
+    query
+        .setParameter("query", toPrefixQuery(terms))
+        .setParameter("orgId", org.getInternalId())
+        .setParameter("isDeleted", isDeleted);
+    if (!facilityIds.isEmpty()) {
+      query.setParameterList("facilityIds", facilityIds);
+    }
+    return query;
+  }
+
+  // "smi jo" => "smi:* & jo:*". Terms are letters and digits only, so there is no tsquery syntax
+  // to escape.
+  private static String toPrefixQuery(List<String> terms) {
+    if (terms.isEmpty() || !terms.stream().allMatch(t -> SEARCH_TERM.matcher(t).matches())) {
+      throw new IllegalArgumentException("Search terms must be non-empty letters and digits");
+    }
+    return terms.stream().map(t -> t + ":*").collect(Collectors.joining(" & "));
+  }
+}
@@ -0,0 +1,39 @@
+package gov.cdc.usds.simplereport.db.repository;
+
+import gov.cdc.usds.simplereport.db.model.Person;
+import java.util.List;
+import java.util.UUID;
+
+/** One page of a {@link PersonSearchRepository#searchByName} search. */
+public class PersonSearchResults {
+
+  private final List<Person> patients;
+  private final long totalCount;
+  private final boolean hasNextPage;
+
+  public PersonSearchResults(List<Person> patients, long totalCount, boolean hasNextPage) {
+    this.patients = List.copyOf(patients);
+    this.totalCount = totalCount;
+    this.hasNextPage = hasNextPage;
+  }
+
+  public List<Person> getPatients() {
+    return patients;
+  }
+
+  /** The number of matches across all pages (not just this one). */
+  public long getTotalCount() {
+    return totalCount;
+  }
+
+  public boolean hasNextPage() {
+    return hasNextPage;
+  }
+
+  /**
+   * The {@code afterId} that fetches the page following this one, or null if this is the last page.
+   */
+  public UUID getNextCursor() {
+    return hasNextPage ? patients.get(patients.size() - 1).getInternalId() : null;
+  }
+}
@@ -0,0 +1,48 @@
+package gov.cdc.usds.simplereport.db.repository;
+
+import gov.cdc.usds.simplereport.db.model.SmsOutboxMessage;
+import gov.cdc.usds.simplereport.db.model.auxiliary.SmsDeliveryStatus;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface SmsOutboxMessageRepository extends CrudRepository<SmsOutboxMessage, UUID> {
+
+  /**
+   * Find (and lock, until the end of the current transaction) up to {@code limit} pending messages
+   * that are due to be sent, skipping any that another server has already locked.
+   */
+  @Query(
+      value =
+          "SELECT * FROM {h-schema}sms_outbox_message m"
+              + " WHERE m.status = 'PENDING' AND m.next_attempt_at <= :now"
+              + " ORDER BY m.next_attempt_at LIMIT :limit"
+              + " FOR UPDATE SKIP LOCKED",
+      nativeQuery = true)
+  public List<SmsOutboxMessage> lockDueMessages(Date now, int limit);
+
+  /**
+   * Reserve the next send slot: the shared next-send time is moved on by {@code intervalMillis}
+   * from whichever is later, itself or the database's current time.
+   *
+   * @return how many milliseconds from now the reserved slot starts (zero or less if it has already
+   *     started).
+   */
+  @Transactional // not read-only, unlike the other query methods
+  @Query(
+      value =
+          "INSERT INTO {h-schema}sms_send_slot AS s (id, next_send_at)"
+              + " VALUES (1, clock_timestamp() + :intervalMillis * interval '1 millisecond')"
+              + " ON CONFLICT (id) DO UPDATE SET next_send_at ="
+              + " GREATEST(s.next_send_at, clock_timestamp())"
+              + " + :intervalMillis * interval '1 millisecond'"
+              + " RETURNING EXTRACT(EPOCH FROM s.next_send_at - clock_timestamp()) * 1000"
+              + " - :intervalMillis",
+      nativeQuery = true)
+  public double reserveSendSlot(double intervalMillis);
+
+  public long countByStatus(SmsDeliveryStatus status);
+}
@@ -1,5 +1,8 @@
 package gov.cdc.usds.simplereport.db.repository;
 
+import static org.hibernate.annotations.QueryHints.FETCH_SIZE;
+import static org.hibernate.annotations.QueryHints.READ_ONLY;
+
 import gov.cdc.usds.simplereport.db.model.Facility;
 import gov.cdc.usds.simplereport.db.model.Organization;
 import gov.cdc.usds.simplereport.db.model.Person;
@@ -8,12 +11,19 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface TestEventRepository extends AuditedEntityRepository<TestEvent> {
 
+  int EXPORT_FETCH_SIZE = 500; // rows fetched per database round-trip by streaming queries
+
   @Query("FROM #{#entityName} e WHERE e.patient = :p and e.facility in :facilities")
   public List<TestEvent> findAllByPatientAndFacilities(Person p, Collection<Facility> facilities);
 
@@ -23,39 +33,127 @@ public interface TestEventRepository extends AuditedEntityRepository<TestEvent>
 
   public TestEvent findFirst1ByPatientOrderByCreatedAtDesc(Person p);
 
+  @Query(
+      "FROM #{#entityName} e WHERE e.patient.internalId in :patientIds and e.facility in :facilities")
+  public List<TestEvent> findAllByPatientIdsAndFacilities(
+      Collection<UUID> patientIds, Collection<Facility> facilities);
+
+  // batch equivalent of findFirst1ByPatientOrderByCreatedAtDesc: one row per patient
+  @Query(
+      value =
+          "SELECT DISTINCT ON (te.patient_id) * "
+              + " FROM {h-schema}test_event te "
+              + " WHERE te.patient_id IN (:patientIds) "
+              + " ORDER BY te.patient_id, te.created_at desc",
+      nativeQuery = true)
+  public List<TestEvent> findLatestByPatientIds(Collection<UUID> patientIds);
+
   @EntityGraph(attributePaths = {"patient", "order"})
   public TestEvent findByOrganizationAndInternalId(Organization o, UUID id);
 
+  public boolean existsByFacilityAndInternalId(Facility f, UUID id);
+
   // Need to control how this query is built. "between" is too vague.
   // This is across all Orgs/facilities because datahub uploader users
   @Query(
       "FROM #{#entityName} q WHERE q.createdAt > :before AND q.createdAt <= :after ORDER BY q.createdAt")
   public List<TestEvent> queryMatchAllBetweenDates(Date before, Date after, Pageable p);
 
+  // Same as queryMatchAllBetweenDates, but read through a server-side cursor rather than into a
+  // list, for exports that must not hold the whole result set in memory. Must be consumed inside a
+  // transaction, and closed when done.
+  @QueryHints({
+    @QueryHint(name = FETCH_SIZE, value = "" + TestEventRepository.EXPORT_FETCH_SIZE),
+    @QueryHint(name = READ_ONLY, value = "true")
+  })
+  @EntityGraph(attributePaths = {"facility"})
+  @Query(
+      "FROM #{#entityName} q WHERE q.createdAt > :before AND q.createdAt <= :after ORDER BY q.createdAt")
+  public Stream<TestEvent> streamAllBetweenDates(Date before, Date after);
+
+  // The current test event of each test order at a facility (the latest one, which is also the one
+  // the order points at) is kept in current_test_result by recordCurrentResult, so the results list
+  // is read from there in index order rather than recomputed from every event at the facility.
+  String CURRENT_RESULTS_QUERY =
+      "SELECT te.* FROM {h-schema}current_test_result r"
+          + " JOIN {h-schema}test_event te ON te.internal_id = r.test_event_id"
+          + " WHERE r.facility_id = :facilityId ";
+  String CURRENT_RESULTS_ORDER = " ORDER BY r.test_event_created_at DESC, r.test_event_id DESC ";
+
+  // a late (or concurrent) write of an older test event never replaces a newer current result
+  String CURRENT_RESULT_INSERT =
+      "INSERT INTO {h-schema}current_test_result AS cur"
+          + " (test_order_id, facility_id, test_event_id, test_event_created_at)";
+  String CURRENT_RESULT_UPSERT =
+      " ON CONFLICT (test_order_id) DO UPDATE SET"
+          + " facility_id = EXCLUDED.facility_id,"
+          + " test_event_id = EXCLUDED.test_event_id,"
+          + " test_event_created_at = EXCLUDED.test_event_created_at"
+          + " WHERE cur.test_event_created_at <= EXCLUDED.test_event_created_at";
+
+  /**
+   * Record that a test event is now the current result for its test order (unless a newer one
+   * already is). Must be called whenever {@link
+   * gov.cdc.usds.simplereport.db.model.TestOrder#setTestEventRef} is.
+   */
+  @Transactional
+  @Modifying(flushAutomatically = true)
   @Query(
       value =
-          "WITH FILTEREDEVENTS AS ("
-              + " SELECT DISTINCT ON (test_order_id) * "
-              + " FROM {h-schema}test_event te "
-              + " WHERE te.facility_id = :facilityId "
-              + " ORDER BY test_order_id, te.created_at desc"
-              + ") "
-              + " SELECT * FROM FILTEREDEVENTS "
-              // moving this filter into the CTE makes this query significantly
-              // more efficient (like 75% faster in one case), but then when we
-              // make it more complicated somebody will probably break it
-              + " ORDER BY created_at DESC ",
-      countQuery = "SELECT count(*) FROM FILTEREDEVENTS",
+          CURRENT_RESULT_INSERT
+              + " SELECT te.test_order_id, te.facility_id, te.internal_id, te.created_at"
+              + " FROM {h-schema}test_event te WHERE te.internal_id = :testEventId"
+              + CURRENT_RESULT_UPSERT,
+      nativeQuery = true)
+  public void recordCurrentResult(UUID testEventId);
+
+  /**
+   * The bulk equivalent of {@link #recordCurrentResult}, for several test events at once. If more
+   * than one is for the same test order, only the most recent is recorded.
+   */
+  @Transactional
+  @Modifying(flushAutomatically = true)
+  @Query(
+      value =
+          CURRENT_RESULT_INSERT
+              + " SELECT DISTINCT ON (te.test_order_id)"
+              + " te.test_order_id, te.facility_id, te.internal_id, te.created_at"
+              + " FROM {h-schema}test_event te WHERE te.internal_id IN (:testEventIds)"
+              + " ORDER BY te.test_order_id, te.created_at DESC, te.internal_id DESC"
+              + CURRENT_RESULT_UPSERT,
+      nativeQuery = true)
+  public void recordCurrentResults(Collection<UUID> testEventIds);
+
+  @Query(
+      value = CURRENT_RESULTS_QUERY + CURRENT_RESULTS_ORDER,
+      countQuery =
+          "SELECT count(*) FROM {h-schema}current_test_result r WHERE r.facility_id = :facilityId",
       nativeQuery = true)
   public List<TestEvent> getTestEventResults(UUID facilityId, Pageable pageable);
 
+  // Keyset-paginated equivalent of getTestEventResults: the first page, then the page after the
+  // event with ID afterId.
+  @Query(
+      value = CURRENT_RESULTS_QUERY + CURRENT_RESULTS_ORDER + " LIMIT :limit",
+      nativeQuery = true)
+  public List<TestEvent> getTestEventResultsFirstPage(UUID facilityId, int limit);
+
   @Query(
       value =
-          "WITH FILTEREDEVENTS AS ("
-              + " SELECT DISTINCT ON (test_order_id) * "
-              + " FROM {h-schema}test_event te "
-              + " WHERE te.facility_id = :facilityId) "
-              + " SELECT count(*) FROM FILTEREDEVENTS ",
+          CURRENT_RESULTS_QUERY
+              // test events are never updated, so the sort key of the last event on the previous
+              // page can be looked up rather than carried around in the cursor
+              + " AND (r.test_event_created_at, r.test_event_id) < "
+              + "  (SELECT a.created_at, a.internal_id FROM {h-schema}test_event a"
+              + "   WHERE a.internal_id = :afterId AND a.facility_id = :facilityId) "
+              + CURRENT_RESULTS_ORDER
+              + " LIMIT :limit",
+      nativeQuery = true)
+  public List<TestEvent> getTestEventResultsAfter(UUID facilityId, UUID afterId, int limit);
+
+  @Query(
+      value =
+          "SELECT count(*) FROM {h-schema}current_test_result r WHERE r.facility_id = :facilityId",
       nativeQuery = true)
   public int getTestResultsCount(UUID facilityId);
 
@@ -4,6 +4,7 @@ import gov.cdc.usds.simplereport.db.model.Facility;
 import gov.cdc.usds.simplereport.db.model.Organization;
 import gov.cdc.usds.simplereport.db.model.Person;
 import gov.cdc.usds.simplereport.db.model.TestOrder;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -32,6 +33,10 @@ public interface TestOrderRepository extends AuditedEntityRepository<TestOrder>
   @EntityGraph(attributePaths = "patient")
   public Optional<TestOrder> fetchQueueItem(Organization org, Person patient);
 
+  @Query(BASE_ORG_QUERY + IS_PENDING + " and q.patient.internalId in :patientIds")
+  @EntityGraph(attributePaths = {"patient", "askOnEntrySurvey"})
+  public List<TestOrder> fetchQueueItemsByPatientIds(Organization org, Collection<UUID> patientIds);
+
   @Query(BASE_ORG_QUERY + IS_PENDING + " and q.id = :id")
   public Optional<TestOrder> fetchQueueItemById(Organization org, UUID id);
 
@@ -39,6 +44,10 @@ public interface TestOrderRepository extends AuditedEntityRepository<TestOrder>
   @EntityGraph(attributePaths = "patient")
   public List<TestOrder> fetchPastResults(Organization org, Facility facility);
 
+  @EntityGraph(attributePaths = "patientLink")
+  public List<TestOrder> findAllByOrganizationAndInternalIdIn(
+      Organization org, Collection<UUID> ids);
+
   @Query(
       "update #{#entityName} q set q.orderStatus = 'CANCELED' "
           + "where q.organization = :org and q.orderStatus = 'PENDING'")
@@ -0,0 +1,250 @@
+package gov.cdc.usds.simplereport.idp.repository;
+
+import gov.cdc.usds.simplereport.config.BeanProfiles;
+import gov.cdc.usds.simplereport.config.authorization.OrganizationRole;
+import gov.cdc.usds.simplereport.config.authorization.OrganizationRoleClaims;
+import gov.cdc.usds.simplereport.db.model.Facility;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.service.model.IdentityAttributes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+/**
+ * Read-through, write-through cache in front of {@link LiveOktaRepository}, so that screens and
+ * permission checks that need an organization's users or a user's claims do not make a string of
+ * Okta round trips every time.
+ *
+ * <p>Each organization's user list and each user's claims are kept for the configured time-to-live,
+ * and are evicted as soon as we change them through this repository. Changes made directly in Okta,
+ * or by another server, can take up to the time-to-live to be noticed. A time-to-live of zero
+ * disables caching (but not the metrics).
+ */
+@Profile("!" + BeanProfiles.NO_OKTA_MGMT)
+@Primary
+@Service
+public class CachingOktaRepository implements OktaRepository {
+
+  static final String ORG_USERS_CACHE = "org-users";
+  static final String USER_CLAIMS_CACHE = "user-claims";
+
+  private final OktaRepository _delegate;
+  private final MeterRegistry _meterRegistry;
+  private final SnapshotCache<String, Map<String, OrganizationRoleClaims>> _usersByOrg;
+  private final SnapshotCache<String, Optional<OrganizationRoleClaims>> _claimsByUser;
+
+  @Autowired
+  public CachingOktaRepository(
+      LiveOktaRepository delegate,
+      @Value("${simple-report.okta-cache.ttl:PT1M}") Duration ttl,
+      MeterRegistry meterRegistry) {
+    this((OktaRepository) delegate, ttl, meterRegistry, Clock.systemUTC());
+  }
+
+  CachingOktaRepository(
+      OktaRepository delegate, Duration ttl, MeterRegistry meterRegistry, Clock clock) {
+    _delegate = delegate;
+    _meterRegistry = meterRegistry;
+    _usersByOrg = new SnapshotCache<>(ORG_USERS_CACHE, ttl, clock, meterRegistry);
+    _claimsByUser = new SnapshotCache<>(USER_CLAIMS_CACHE, ttl, clock, meterRegistry);
+  }
+
+  @Override
+  public Optional<OrganizationRoleClaims> createUser(
+      IdentityAttributes userIdentity,
+      Organization org,
+      Set<Facility> facilities,
+      Set<OrganizationRole> roles) {
+    try {
+      return timed("createUser", () -> _delegate.createUser(userIdentity, org, facilities, roles));
+    } finally {
+      _usersByOrg.evict(org.getExternalId());
+      _claimsByUser.evict(userIdentity.getUsername());
+    }
+  }
+
+  @Override
+  public Optional<OrganizationRoleClaims> updateUser(IdentityAttributes userIdentity) {
+    // names are not cached, and group membership does not change
+    return timed("updateUser", () -> _delegate.updateUser(userIdentity));
+  }
+
+  @Override
+  public Optional<OrganizationRoleClaims> updateUserPrivileges(
+      String username, Organization org, Set<Facility> facilities, Set<OrganizationRole> roles) {
+    try {
+      return timed(
+          "updateUserPrivileges",
+          () -> _delegate.updateUserPrivileges(username, org, facilities, roles));
+    } finally {
+      _usersByOrg.evict(org.getExternalId());
+      _claimsByUser.evict(username);
+    }
+  }
+
+  @Override
+  public void setUserIsActive(String username, Boolean active) {
+    try {
+      timed("setUserIsActive", () -> _delegate.setUserIsActive(username, active));
+    } finally {
+      // suspended users drop out of their organization's user list, and we may not know which
+      // organization that is
+      _usersByOrg.evictAll();
+      _claimsByUser.evict(username);
+    }
+  }
+
+  @Override
+  public Map<String, OrganizationRoleClaims> getAllUsersForOrganization(Organization org) {
+    return _usersByOrg.get(
+        org.getExternalId(),
+        () ->
+            Map.copyOf(
+                timed(
+                    "getAllUsersForOrganization",
+                    () -> _delegate.getAllUsersForOrganization(org))));
+  }
+
+  @Override
+  public void createOrganization(
+      Organization org, Collection<Facility> facilities, boolean migration) {
+    try {
+      timed("createOrganization", () -> _delegate.createOrganization(org, facilities, migration));
+    } finally {
+      evictOrganization(org.getExternalId());
+    }
+  }
+
+  @Override
+  public void createFacility(Facility facility) {
+    // a new facility group has no members yet, so no one's claims change
+    timed("createFacility", () -> _delegate.createFacility(facility));
+  }
+
+  @Override
+  public void deleteOrganization(Organization org) {
+    try {
+      timed("deleteOrganization", () -> _delegate.deleteOrganization(org));
+    } finally {
+      evictOrganization(org.getExternalId());
+    }
+  }
+
+  @Override
+  public void deleteFacility(Facility facility) {
+    try {
+      timed("deleteFacility", () -> _delegate.deleteFacility(facility));
+    } finally {
+      evictOrganization(facility.getOrganization().getExternalId());
+    }
+  }
+
+  @Override
+  public Optional<OrganizationRoleClaims> getOrganizationRoleClaimsForUser(String username) {
+    return _claimsByUser.get(
+        username,
+        () ->
+            timed(
+                "getOrganizationRoleClaimsForUser",
+                () -> _delegate.getOrganizationRoleClaimsForUser(username)));
+  }
+
+  private void evictOrganization(String orgExternalId) {
+    _usersByOrg.evict(orgExternalId);
+    _claimsByUser.evictIf(
+        claims ->
+            claims.map(c -> c.getOrganizationExternalId().equals(orgExternalId)).orElse(false));
+  }
+
+  private <T> T timed(String operation, Supplier<T> call) {
+    return _meterRegistry.timer("okta.requests", "operation", operation).record(call);
+  }
+
+  private void timed(String operation, Runnable call) {
+    _meterRegistry.timer("okta.requests", "operation", operation).record(call);
+  }
+
+  /**
+   * A map of values that expire after a fixed time-to-live. A value that was being loaded when its
+   * key (or the whole cache) was evicted is returned to its caller but not cached, since it may
+   * have been read from Okta before the write that caused the eviction.
+   */
+  private static class SnapshotCache<K, V> {
+
+    private final Duration _ttl;
+    private final Clock _clock;
+    private final Map<K, Entry<V>> _entries = new ConcurrentHashMap<>();
+    private final AtomicLong _generation = new AtomicLong();
+    private final Counter _hits;
+    private final Counter _misses;
+
+    SnapshotCache(String name, Duration ttl, Clock clock, MeterRegistry meterRegistry) {
+      _ttl = ttl;
+      _clock = clock;
+      _hits = meterRegistry.counter("okta.cache.requests", "cache", name, "result", "hit");
+      _misses = meterRegistry.counter("okta.cache.requests", "cache", name, "result", "miss");
+    }
+
+    V get(K key, Supplier<V> loader) {
+      Instant now = _clock.instant();
+      Entry<V> cached = _entries.get(key);
+      if (cached != null && cached.expiresAt.isAfter(now)) {
+        _hits.increment();
+        return cached.value;
+      }
+      _misses.increment();
+      if (_ttl.isZero()) {
+        return loader.get();
+      }
+      long generation = _generation.get();
+      V value = loader.get();
+      Entry<V> loaded = new Entry<>(value, now.plus(_ttl));
+      _entries.put(key, loaded);
+      if (_generation.get() != generation) {
+        // evicted while we were loading: don't keep a value that may predate the eviction
+        _entries.remove(key, loaded);
+      }
+      return value;
+    }
+
+    void evict(K key) {
+      _generation.incrementAndGet();
+      _entries.remove(key);
+    }
+
+    void evictIf(Predicate<V> predicate) {
+      _generation.incrementAndGet();
+      _entries.values().removeIf(e -> predicate.test(e.value));
+    }
+
+    void evictAll() {
+      _generation.incrementAndGet();
+      _entries.clear();
+    }
+  }
+
+  private static class Entry<V> {
+    private final V value;
+    private final Instant expiresAt;
+
+    Entry(V value, Instant expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
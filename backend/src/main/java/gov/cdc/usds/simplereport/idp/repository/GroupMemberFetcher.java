@@ -0,0 +1,100 @@
+package gov.cdc.usds.simplereport.idp.repository;
+
+import java.time.Duration;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Lists the members of a set of groups in parallel, on a fixed pool of threads shared by every
+ * caller so that the number of requests in flight to the identity provider (and so our share of its
+ * rate limit) stays bounded no matter how many requests are doing this at once.
+ */
+class GroupMemberFetcher implements AutoCloseable {
+
+  private final ExecutorService _executor;
+  private final Duration _timeout;
+
+  GroupMemberFetcher(int maxConcurrency, Duration timeout) {
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadFactory threadFactory =
+        r -> {
+          Thread t = new Thread(r, "okta-group-fetch-" + threadCount.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        };
+    _executor = Executors.newFixedThreadPool(maxConcurrency, threadFactory);
+    _timeout = timeout;
+  }
+
+  /**
+   * Map each member of any of the given groups to the names of the groups they are in.
+   *
+   * @param groups the groups to list
+   * @param groupName how to get a group's name
+   * @param listMembers how to list the members of a group; called once per group, on a pool thread
+   * @throws IllegalStateException if listing any one group's members took longer than the timeout,
+   *     in which case any listing still in progress is interrupted
+   */
+  <G> Map<String, Set<String>> membersToGroupNames(
+      Collection<G> groups, Function<G, String> groupName, Function<G, List<String>> listMembers) {
+    List<Future<Map.Entry<String, List<String>>>> fetches =
+        groups.stream()
+            .map(
+                g ->
+                    _executor.submit(
+                        () ->
+                            (Map.Entry<String, List<String>>)
+                                new SimpleImmutableEntry<>(
+                                    groupName.apply(g), listMembers.apply(g))))
+            .collect(Collectors.toList());
+    List<Map.Entry<String, List<String>>> results = new ArrayList<>(fetches.size());
+    try {
+      // The timeout is per group: each fetch's clock starts once the one before it is done. The
+      // pool runs fetches in the order they were submitted, so by then this one has usually been
+      // running for a while already, rather than waiting behind the rest of the groups.
+      for (Future<Map.Entry<String, List<String>>> fetch : fetches) {
+        results.add(fetch.get(_timeout.toNanos(), TimeUnit.NANOSECONDS));
+      }
+    } catch (TimeoutException e) {
+      throw new IllegalStateException("Timed out listing Okta group members", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Failed listing Okta group members", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted listing Okta group members", e);
+    } finally {
+      // Whatever is still queued or running is no longer wanted: interrupt it so that it gives up
+      // its place in the pool rather than keeping other callers waiting for the slot
+      fetches.forEach(f -> f.cancel(true));
+    }
+
+    // Each fetch returned its own results, so they can be merged here without any locking
+    return results.stream()
+        .flatMap(e -> e.getValue().stream().map(m -> new SimpleImmutableEntry<>(m, e.getKey())))
+        .collect(
+            Collectors.groupingBy(
+                Map.Entry::getKey, Collectors.mapping(Map.Entry::getValue, Collectors.toSet())));
+  }
+
+  @Override
+  public void close() {
+    _executor.shutdownNow();
+  }
+}
@@ -26,6 +26,7 @@ import gov.cdc.usds.simplereport.config.authorization.PermissionHolder;
 import gov.cdc.usds.simplereport.config.exceptions.MisconfiguredApplicationException;
 import gov.cdc.usds.simplereport.db.model.Facility;
 import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.properties.OktaGroupFetchProperties;
 import gov.cdc.usds.simplereport.service.model.IdentityAttributes;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -38,6 +39,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -63,12 +65,14 @@ public class LiveOktaRepository implements OktaRepository {
   private Client _client;
   private Application _app;
   private OrganizationExtractor _extractor;
+  private GroupMemberFetcher _memberFetcher;
 
   public LiveOktaRepository(
       AuthorizationProperties authorizationProperties,
       OktaClientProperties oktaClientProperties,
       @Value("${okta.oauth2.client-id}") String oktaOAuth2ClientId,
-      OrganizationExtractor organizationExtractor) {
+      OrganizationExtractor organizationExtractor,
+      OktaGroupFetchProperties groupFetchProperties) {
     _rolePrefix = authorizationProperties.getRolePrefix();
     _client =
         Clients.builder()
@@ -82,6 +86,14 @@ public class LiveOktaRepository implements OktaRepository {
           "Cannot find Okta application with id=" + oktaOAuth2ClientId, e);
     }
     _extractor = organizationExtractor;
+    _memberFetcher =
+        new GroupMemberFetcher(
+            groupFetchProperties.getMaxConcurrency(), groupFetchProperties.getTimeout());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    _memberFetcher.close();
   }
 
   public Optional<OrganizationRoleClaims> createUser(
@@ -177,23 +189,16 @@ public class LiveOktaRepository implements OktaRepository {
           "Cannot get Okta users for org=" + org.getExternalId() + ": Okta groups are nonexistent");
     }
 
-    // Create a map from each user to their Okta groups...
-    Map<String, Set<String>> usersToGroupNames = new HashMap<>();
-    orgGroups.forEach(
-        g -> {
-          String groupName = g.getProfile().getName();
-          g.listUsers()
-              .forEach(
-                  u -> {
-                    if (u.getStatus() != UserStatus.SUSPENDED) {
-                      String username = u.getProfile().getEmail();
-                      if (!usersToGroupNames.containsKey(username)) {
-                        usersToGroupNames.put(username, new HashSet<>());
-                      }
-                      usersToGroupNames.get(username).add(groupName);
-                    }
-                  });
-        });
+    // Create a map from each user to their Okta groups, listing the groups' members in parallel...
+    Map<String, Set<String>> usersToGroupNames =
+        _memberFetcher.membersToGroupNames(
+            orgGroups.stream().collect(Collectors.toList()),
+            g -> g.getProfile().getName(),
+            g ->
+                g.listUsers().stream()
+                    .filter(u -> u.getStatus() != UserStatus.SUSPENDED)
+                    .map(u -> u.getProfile().getEmail())
+                    .collect(Collectors.toList()));
 
     // ...then convert each user's relevant Okta groups to an OrganizationRoleClaims object
     return usersToGroupNames.entrySet().stream()
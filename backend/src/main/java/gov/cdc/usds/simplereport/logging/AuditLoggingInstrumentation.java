@@ -3,6 +3,7 @@ package gov.cdc.usds.simplereport.logging;
 import gov.cdc.usds.simplereport.db.model.auxiliary.GraphQlInputs;
 import gov.cdc.usds.simplereport.db.model.auxiliary.HttpRequestDetails;
 import gov.cdc.usds.simplereport.service.AuditService;
+import gov.cdc.usds.simplereport.service.GraphQlQueryDocumentService;
 import graphql.ExecutionResult;
 import graphql.GraphQLError;
 import graphql.execution.instrumentation.InstrumentationContext;
@@ -23,9 +24,12 @@ public class AuditLoggingInstrumentation extends SimpleInstrumentation {
   private static final Logger LOG = LoggerFactory.getLogger(AuditLoggingInstrumentation.class);
 
   private final AuditService _auditService;
+  private final GraphQlQueryDocumentService _documentService;
 
-  public AuditLoggingInstrumentation(AuditService service) {
+  public AuditLoggingInstrumentation(
+      AuditService service, GraphQlQueryDocumentService documentService) {
     _auditService = service;
+    _documentService = documentService;
   }
 
   @Override
@@ -46,9 +50,12 @@ public class AuditLoggingInstrumentation extends SimpleInstrumentation {
       GraphqlQueryState state = parameters.getInstrumentationState();
       state.setRequestId(executionId);
       state.setHttpDetails(new HttpRequestDetails(context.getHttpServletRequest()));
+      // the query text is stored once, elsewhere: the audit event only needs its hash
       state.setGraphqlDetails(
-          new GraphQlInputs(
-              parameters.getOperation(), parameters.getQuery(), parameters.getVariables()));
+          GraphQlInputs.withQueryHash(
+              parameters.getOperation(),
+              _documentService.store(parameters.getQuery()),
+              parameters.getVariables()));
       return new ExecutionResultContext(state);
     } catch (Exception e) {
       // we don't 100% trust this error not to get swallowed by graphql-java
@@ -5,13 +5,15 @@ import com.microsoft.applicationinsights.telemetry.RequestTelemetry;
 import graphql.ExecutionResult;
 import graphql.execution.instrumentation.InstrumentationContext;
 import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
 import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
-import graphql.execution.instrumentation.parameters.InstrumentationValidationParameters;
+import graphql.language.Document;
 import graphql.language.Field;
 import graphql.language.OperationDefinition;
-import graphql.validation.ValidationError;
-import java.util.List;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,27 +27,38 @@ public class QueryLoggingInstrumentation extends SimpleInstrumentation {
   private static final Logger LOG = LoggerFactory.getLogger(QueryLoggingInstrumentation.class);
 
   private final TelemetryClient client;
+  // weak keys, so that documents that are not (or are no longer) cached do not stay here either
+  private final Map<Document, Set<String>> fieldSets =
+      Collections.synchronizedMap(new WeakHashMap<>());
 
   public QueryLoggingInstrumentation(TelemetryClient client) {
     this.client = client;
   }
 
   @Override
-  public InstrumentationContext<List<ValidationError>> beginValidation(
-      InstrumentationValidationParameters parameters) {
-    // Descend through the GraphQL query and pull out the field names and variables from the
-    // operation definitions
-    final Set<String> fieldSet =
-        parameters.getDocument().getDefinitions().stream()
-            .filter(definition -> definition instanceof OperationDefinition)
-            .flatMap(
-                definition ->
-                    ((OperationDefinition) definition).getSelectionSet().getSelections().stream())
-            .filter(selection -> selection instanceof Field)
-            .flatMap(selection -> GraphQLLoggingHelpers.walkFields("", selection))
-            .collect(Collectors.toSet());
-    LOG.info("Selecting fields: {}", fieldSet);
-    return super.beginValidation(parameters);
+  public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+      InstrumentationExecuteOperationParameters parameters) {
+    if (LOG.isDebugEnabled()) {
+      // walking every query just to throw the result away adds up: see
+      // ResolverMetricsInstrumentation for what production requests actually spend their time on.
+      // Documents are cached (see GraphQlDocumentCache), so each one is only walked once.
+      Document document = parameters.getExecutionContext().getDocument();
+      LOG.debug("Selecting fields: {}", fieldSets.computeIfAbsent(document, this::selectedFields));
+    }
+    return super.beginExecuteOperation(parameters);
+  }
+
+  // Descend through the GraphQL query and pull out the field names and variables from the operation
+  // definitions
+  private Set<String> selectedFields(Document document) {
+    return document.getDefinitions().stream()
+        .filter(definition -> definition instanceof OperationDefinition)
+        .flatMap(
+            definition ->
+                ((OperationDefinition) definition).getSelectionSet().getSelections().stream())
+        .filter(selection -> selection instanceof Field)
+        .flatMap(selection -> GraphQLLoggingHelpers.walkFields("", selection))
+        .collect(Collectors.toUnmodifiableSet());
   }
 
   @Override
@@ -0,0 +1,216 @@
+package gov.cdc.usds.simplereport.logging;
+
+import gov.cdc.usds.simplereport.properties.GraphQlMetricsProperties;
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.kickstart.servlet.context.GraphQLServletContext;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every resolver (field fetch) of a sample of GraphQL requests, and counts the SQL statements
+ * each one causes, publishing them as the {@code graphql.resolver} timer and {@code
+ * graphql.resolver.statements} summary, tagged with the field (e.g. {@code Patient.lastTest}).
+ * Trivial fetchers (ones that only read a property of the parent object) are left out: they do no
+ * work worth measuring, and would add a pair of meters for nearly every field in the schema.
+ *
+ * <p>Statements are only counted while a resolver runs on the request thread: those run later by a
+ * data loader batch are only part of the request total. When enabled, a client can send the {@value
+ * #RESPONSE_EXTENSION_HEADER} header to get the numbers for its request in the {@value
+ * #EXTENSION_KEY} response extension.
+ */
+@Component
+public class ResolverMetricsInstrumentation extends SimpleInstrumentation {
+
+  public static final String RESPONSE_EXTENSION_HEADER = "X-Resolver-Metrics";
+  public static final String EXTENSION_KEY = "resolverMetrics";
+
+  private static final double NANOS_PER_MILLI = 1e6;
+
+  private final MeterRegistry _registry;
+  private final GraphQlMetricsProperties _properties;
+  private final ConcurrentMap<String, ResolverMeters> _meters = new ConcurrentHashMap<>();
+
+  public ResolverMetricsInstrumentation(
+      MeterRegistry registry, GraphQlMetricsProperties properties) {
+    _registry = registry;
+    _properties = properties;
+  }
+
+  @Override
+  public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+    boolean requested =
+        _properties.getResponseExtension()
+            && parameters.getExecutionInput().getContext() instanceof GraphQLServletContext
+            && Boolean.parseBoolean(
+                ((GraphQLServletContext) parameters.getExecutionInput().getContext())
+                    .getHttpServletRequest()
+                    .getHeader(RESPONSE_EXTENSION_HEADER));
+    if (requested || ThreadLocalRandom.current().nextDouble() < _properties.getSampleRate()) {
+      return new RequestMetrics(requested);
+    }
+    return null; // not sampled: every other method does nothing
+  }
+
+  @Override
+  public InstrumentationContext<Object> beginFieldFetch(
+      InstrumentationFieldFetchParameters parameters) {
+    RequestMetrics request = parameters.getInstrumentationState();
+    if (request == null || parameters.isTrivialDataFetcher()) {
+      return super.beginFieldFetch(parameters);
+    }
+    String field =
+        parameters.getExecutionStepInfo().getObjectType().getName()
+            + "."
+            + parameters.getField().getName();
+    return new FieldFetchContext(request, field);
+  }
+
+  @Override
+  public CompletableFuture<ExecutionResult> instrumentExecutionResult(
+      ExecutionResult executionResult, InstrumentationExecutionParameters parameters) {
+    RequestMetrics request = parameters.getInstrumentationState();
+    if (request == null || !request._inResponse) {
+      return super.instrumentExecutionResult(executionResult, parameters);
+    }
+    return CompletableFuture.completedFuture(
+        ExecutionResultImpl.newExecutionResult()
+            .from(executionResult)
+            .addExtension(EXTENSION_KEY, request.toExtension())
+            .build());
+  }
+
+  private ResolverMeters metersFor(String field) {
+    return _meters.computeIfAbsent(
+        field,
+        f ->
+            new ResolverMeters(
+                Timer.builder("graphql.resolver")
+                    .description("Time taken by a GraphQL resolver, including data loader waits")
+                    .tag("field", f)
+                    .publishPercentileHistogram()
+                    .register(_registry),
+                DistributionSummary.builder("graphql.resolver.statements")
+                    .description("SQL statements run by a GraphQL resolver on the request thread")
+                    .tag("field", f)
+                    .register(_registry)));
+  }
+
+  private class /* not static! */ FieldFetchContext implements InstrumentationContext<Object> {
+
+    private final RequestMetrics _request;
+    private final String _field;
+    private final long _startNanos = System.nanoTime();
+    private final long _startStatements = SqlStatementCounter.currentThreadCount();
+    private long _statements;
+
+    FieldFetchContext(RequestMetrics request, String field) {
+      _request = request;
+      _field = field;
+    }
+
+    @Override
+    public void onDispatched(CompletableFuture<Object> result) {
+      // the resolver has returned (if perhaps only a future): the rest is not its own work
+      _statements = SqlStatementCounter.currentThreadCount() - _startStatements;
+    }
+
+    @Override
+    public void onCompleted(Object result, Throwable t) {
+      long elapsed = System.nanoTime() - _startNanos;
+      ResolverMeters meters = metersFor(_field);
+      meters._timer.record(elapsed, TimeUnit.NANOSECONDS);
+      meters._statements.record(_statements);
+      _request.record(_field, elapsed, _statements);
+    }
+  }
+
+  private static final class ResolverMeters {
+    private final Timer _timer;
+    private final DistributionSummary _statements;
+
+    ResolverMeters(Timer timer, DistributionSummary statements) {
+      _timer = timer;
+      _statements = statements;
+    }
+  }
+
+  /** The resolver numbers for a single sampled request. */
+  private static final class RequestMetrics implements InstrumentationState {
+
+    private final boolean _inResponse;
+    private final Thread _thread = Thread.currentThread();
+    private final long _startStatements = SqlStatementCounter.currentThreadCount();
+    private final ConcurrentMap<String, FieldTotals> _fields = new ConcurrentHashMap<>();
+
+    RequestMetrics(boolean inResponse) {
+      _inResponse = inResponse;
+    }
+
+    void record(String field, long nanos, long statements) {
+      if (_inResponse) {
+        _fields.computeIfAbsent(field, f -> new FieldTotals()).add(nanos, statements);
+      }
+    }
+
+    /** The response extension: totals per field, slowest first, and for the whole request. */
+    Map<String, Object> toExtension() {
+      Map<String, Object> fields = new LinkedHashMap<>();
+      long attributed = 0;
+      List<Map.Entry<String, FieldTotals>> slowestFirst = new ArrayList<>(_fields.entrySet());
+      slowestFirst.sort(
+          Comparator.comparingLong((Map.Entry<String, FieldTotals> e) -> e.getValue()._nanos)
+              .reversed());
+      for (Map.Entry<String, FieldTotals> entry : slowestFirst) {
+        FieldTotals totals = entry.getValue();
+        attributed += totals._statements;
+        Map<String, Object> field = new LinkedHashMap<>();
+        field.put("calls", totals._calls);
+        field.put("totalMs", totals._nanos / NANOS_PER_MILLI);
+        field.put("maxMs", totals._maxNanos / NANOS_PER_MILLI);
+        field.put("statements", totals._statements);
+        fields.put(entry.getKey(), field);
+      }
+      Map<String, Object> extension = new LinkedHashMap<>();
+      if (Thread.currentThread() == _thread) {
+        long total = SqlStatementCounter.currentThreadCount() - _startStatements;
+        extension.put("statements", total);
+        extension.put("statementsOutsideResolvers", total - attributed);
+      }
+      extension.put("resolvers", fields);
+      return extension;
+    }
+  }
+
+  private static final class FieldTotals {
+    private long _calls;
+    private long _nanos;
+    private long _maxNanos;
+    private long _statements;
+
+    synchronized void add(long nanos, long statements) {
+      _calls++;
+      _nanos += nanos;
+      _maxNanos = Math.max(_maxNanos, nanos);
+      _statements += statements;
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package gov.cdc.usds.simplereport.logging;
+
+import java.util.Map;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the SQL statements Hibernate prepares on each thread, so that {@link
+ * ResolverMetricsInstrumentation} can tell how many of them a resolver caused. Registers a session
+ * event listener to do the counting, rather than a statement inspector, so that the statement
+ * inspector (and so any session factory interceptor, which tests use to count queries) is left
+ * alone.
+ */
+@Component
+public class SqlStatementCounter implements HibernatePropertiesCustomizer {
+
+  // a one-element array, so that counting does not box a Long for every statement
+  private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+  /**
+   * The number of statements prepared on the current thread so far. Only differences between two
+   * readings on the same thread mean anything.
+   */
+  public static long currentThreadCount() {
+    return COUNT.get()[0];
+  }
+
+  @Override
+  public void customize(Map<String, Object> hibernateProperties) {
+    hibernateProperties.put(
+        AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, CountingListener.class.getName());
+  }
+
+  /** Created by Hibernate for every session. */
+  public static class CountingListener extends BaseSessionEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public void jdbcPrepareStatementStart() {
+      COUNT.get()[0]++;
+    }
+  }
+}
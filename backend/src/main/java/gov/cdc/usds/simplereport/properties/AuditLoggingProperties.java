@@ -0,0 +1,77 @@
+package gov.cdc.usds.simplereport.properties;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "simple-report.audit-logging")
+public final class AuditLoggingProperties {
+
+  /** Whether audit events are queued and written in batches, rather than inline with the request */
+  private final boolean asynchronous;
+  /**
+   * Whether requests must wait for their audit event to be written when it cannot be queued (or the
+   * writer is failing), rather than the event being dropped with an error log.
+   */
+  private final boolean failClosed;
+  /** The maximum number of audit events waiting to be written */
+  private final int queueCapacity;
+  /** The maximum number of audit events written in a single batch */
+  private final int batchSize;
+  /** The longest time a queued audit event will wait before being written */
+  private final Duration flushInterval;
+  /** How long a request will wait for space in a full queue before writing its own audit event */
+  private final Duration enqueueTimeout;
+  /**
+   * How many times a failing batch is written (in fail-closed mode) before its events are written
+   * one at a time instead, so that one bad event cannot hold up the rest
+   */
+  private final int batchAttempts;
+
+  @ConstructorBinding
+  public AuditLoggingProperties(
+      boolean asynchronous,
+      @DefaultValue("true") boolean failClosed,
+      @DefaultValue("10000") int queueCapacity,
+      @DefaultValue("100") int batchSize,
+      @DefaultValue("500ms") Duration flushInterval,
+      @DefaultValue("1s") Duration enqueueTimeout,
+      @DefaultValue("3") int batchAttempts) {
+    this.asynchronous = asynchronous;
+    this.failClosed = failClosed;
+    this.queueCapacity = queueCapacity;
+    this.batchSize = batchSize;
+    this.flushInterval = flushInterval;
+    this.enqueueTimeout = enqueueTimeout;
+    this.batchAttempts = batchAttempts;
+  }
+
+  public boolean getAsynchronous() {
+    return asynchronous;
+  }
+
+  public boolean getFailClosed() {
+    return failClosed;
+  }
+
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public Duration getFlushInterval() {
+    return flushInterval;
+  }
+
+  public Duration getEnqueueTimeout() {
+    return enqueueTimeout;
+  }
+
+  public int getBatchAttempts() {
+    return batchAttempts;
+  }
+}
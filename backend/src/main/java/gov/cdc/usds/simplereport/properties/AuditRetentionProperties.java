@@ -0,0 +1,63 @@
+package gov.cdc.usds.simplereport.properties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "simple-report.audit-retention")
+public final class AuditRetentionProperties {
+
+  /** How often to create upcoming audit event partitions (and archive old ones, if enabled) */
+  private final Duration maintenanceInterval;
+  /** How many months beyond the current one should already have a partition */
+  private final int monthsAhead;
+  /** Whether old partitions are exported to {@link #archiveDirectory} and dropped */
+  private final boolean archiveEnabled;
+  /** How many complete months of audit events, besides the current one, stay in the database */
+  private final int monthsOnline;
+  /**
+   * Where archived partitions are written, as gzipped CSV: this should be durable storage shared by
+   * every server, not a container's own disk.
+   */
+  private final Path archiveDirectory;
+
+  @ConstructorBinding
+  public AuditRetentionProperties(
+      @DefaultValue("6h") Duration maintenanceInterval,
+      @DefaultValue("3") int monthsAhead,
+      boolean archiveEnabled,
+      @DefaultValue("13") int monthsOnline,
+      Path archiveDirectory) {
+    if (archiveEnabled && archiveDirectory == null) {
+      throw new IllegalArgumentException(
+          "simple-report.audit-retention.archive-directory is required to archive audit events");
+    }
+    this.maintenanceInterval = maintenanceInterval;
+    this.monthsAhead = monthsAhead;
+    this.archiveEnabled = archiveEnabled;
+    this.monthsOnline = monthsOnline;
+    this.archiveDirectory = archiveDirectory;
+  }
+
+  public Duration getMaintenanceInterval() {
+    return maintenanceInterval;
+  }
+
+  public int getMonthsAhead() {
+    return monthsAhead;
+  }
+
+  public boolean getArchiveEnabled() {
+    return archiveEnabled;
+  }
+
+  public int getMonthsOnline() {
+    return monthsOnline;
+  }
+
+  public Path getArchiveDirectory() {
+    return archiveDirectory;
+  }
+}
@@ -0,0 +1,34 @@
+package gov.cdc.usds.simplereport.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "simple-report.graphql-metrics")
+public final class GraphQlMetricsProperties {
+
+  /**
+   * The share (0 to 1) of GraphQL requests whose resolvers are timed and have statements counted
+   */
+  private final double sampleRate;
+  /**
+   * Whether a client may ask for the resolver metrics of its own request to be added to the
+   * response, which also makes that request sampled.
+   */
+  private final boolean responseExtension;
+
+  @ConstructorBinding
+  public GraphQlMetricsProperties(
+      @DefaultValue("0.1") double sampleRate, boolean responseExtension) {
+    this.sampleRate = sampleRate;
+    this.responseExtension = responseExtension;
+  }
+
+  public double getSampleRate() {
+    return sampleRate;
+  }
+
+  public boolean getResponseExtension() {
+    return responseExtension;
+  }
+}
@@ -0,0 +1,36 @@
+package gov.cdc.usds.simplereport.properties;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "simple-report.okta-group-fetch")
+public final class OktaGroupFetchProperties {
+
+  /**
+   * The maximum number of Okta groups whose members are being listed at once, across all requests.
+   * One lists groups sequentially.
+   */
+  private final int maxConcurrency;
+  /**
+   * How long listing the members of a single group may take. Each group has its own timeout, so a
+   * call that lists many groups can take longer than this overall.
+   */
+  private final Duration timeout;
+
+  @ConstructorBinding
+  public OktaGroupFetchProperties(
+      @DefaultValue("8") int maxConcurrency, @DefaultValue("10s") Duration timeout) {
+    this.maxConcurrency = maxConcurrency;
+    this.timeout = timeout;
+  }
+
+  public int getMaxConcurrency() {
+    return maxConcurrency;
+  }
+
+  public Duration getTimeout() {
+    return timeout;
+  }
+}
@@ -0,0 +1,93 @@
+package gov.cdc.usds.simplereport.properties;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "simple-report.sms-outbox")
+public final class SmsOutboxProperties {
+
+  /** Whether this server sends queued text messages (they are queued either way) */
+  private final boolean workerEnabled;
+  /** How often to look for messages that are due, if nothing has been queued in the meantime */
+  private final Duration pollInterval;
+  /** The maximum number of messages being sent at once */
+  private final int concurrency;
+  /** The maximum number of messages claimed from the outbox at once */
+  private final int batchSize;
+  /**
+   * The maximum number of messages sent per second by all servers together, to stay under the SMS
+   * provider's limit
+   */
+  private final double maxPerSecond;
+  /** How many times sending a message is attempted before it is marked as failed */
+  private final int maxAttempts;
+  /** How long to wait before the first retry; each later retry waits twice as long */
+  private final Duration initialBackoff;
+  /** The longest wait between retries */
+  private final Duration maxBackoff;
+  /**
+   * How long a claimed message is hidden from other workers, in case the server sending it dies
+   * before recording the outcome
+   */
+  private final Duration claimTimeout;
+
+  @ConstructorBinding
+  public SmsOutboxProperties(
+      @DefaultValue("true") boolean workerEnabled,
+      @DefaultValue("5s") Duration pollInterval,
+      @DefaultValue("4") int concurrency,
+      @DefaultValue("20") int batchSize,
+      @DefaultValue("1") double maxPerSecond,
+      @DefaultValue("5") int maxAttempts,
+      @DefaultValue("30s") Duration initialBackoff,
+      @DefaultValue("1h") Duration maxBackoff,
+      @DefaultValue("5m") Duration claimTimeout) {
+    this.workerEnabled = workerEnabled;
+    this.pollInterval = pollInterval;
+    this.concurrency = concurrency;
+    this.batchSize = batchSize;
+    this.maxPerSecond = maxPerSecond;
+    this.maxAttempts = maxAttempts;
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+    this.claimTimeout = claimTimeout;
+  }
+
+  public boolean getWorkerEnabled() {
+    return workerEnabled;
+  }
+
+  public Duration getPollInterval() {
+    return pollInterval;
+  }
+
+  public int getConcurrency() {
+    return concurrency;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public double getMaxPerSecond() {
+    return maxPerSecond;
+  }
+
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  public Duration getInitialBackoff() {
+    return initialBackoff;
+  }
+
+  public Duration getMaxBackoff() {
+    return maxBackoff;
+  }
+
+  public Duration getClaimTimeout() {
+    return claimTimeout;
+  }
+}
@@ -0,0 +1,163 @@
+package gov.cdc.usds.simplereport.service;
+
+import com.smartystreets.api.us_street.Lookup;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers the outcome of recent address validations, so that the same address (for instance, the
+ * one shared by every resident of a congregate setting) is only sent to SmartyStreets once in a
+ * while. Addresses are compared after trimming, collapsing whitespace and ignoring case.
+ *
+ * <p>The least recently used address is dropped when the cache is full, and every entry is dropped
+ * after the configured time-to-live. A maximum size of zero disables the cache.
+ */
+@Component
+public class AddressValidationCache {
+
+  private static final int INITIAL_CAPACITY = 16;
+  private static final float LOAD_FACTOR = 0.75f;
+
+  private final int _maxSize;
+  private final Duration _ttl;
+  private final Clock _clock;
+  private final Map<String, CachedResult> _entries;
+  private final Counter _hits;
+  private final Counter _misses;
+
+  @Autowired
+  public AddressValidationCache(
+      @Value("${simple-report.address-validation-cache.max-size:10000}") int maxSize,
+      @Value("${simple-report.address-validation-cache.ttl:P1D}") Duration ttl,
+      MeterRegistry meterRegistry) {
+    this(maxSize, ttl, meterRegistry, Clock.systemUTC());
+  }
+
+  AddressValidationCache(int maxSize, Duration ttl, MeterRegistry meterRegistry, Clock clock) {
+    _maxSize = maxSize;
+    _ttl = ttl;
+    _clock = clock;
+    // access-ordered, so the eldest entry is the least recently used one
+    _entries =
+        new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+            return size() > _maxSize;
+          }
+        };
+    _hits = meterRegistry.counter("address.validation.cache.requests", "result", "hit");
+    _misses = meterRegistry.counter("address.validation.cache.requests", "result", "miss");
+    meterRegistry.gauge("address.validation.cache.size", this, AddressValidationCache::size);
+  }
+
+  /** A cache that never holds anything. */
+  static AddressValidationCache disabled() {
+    return new AddressValidationCache(0, Duration.ZERO, new SimpleMeterRegistry());
+  }
+
+  /** The remembered result of validating this address, or empty if it was not validated lately. */
+  public Optional<ValidationResult> get(Lookup lookup) {
+    if (_maxSize <= 0) {
+      return Optional.empty();
+    }
+    String key = key(lookup);
+    Instant now = _clock.instant();
+    synchronized (_entries) {
+      CachedResult entry = _entries.get(key);
+      if (entry != null && entry.expiresAt.isAfter(now)) {
+        _hits.increment();
+        return Optional.of(entry.result);
+      }
+      if (entry != null) {
+        _entries.remove(key);
+      }
+    }
+    _misses.increment();
+    return Optional.empty();
+  }
+
+  public void put(Lookup lookup, ValidationResult result) {
+    if (_maxSize <= 0) {
+      return;
+    }
+    CachedResult entry = new CachedResult(result, _clock.instant().plus(_ttl));
+    synchronized (_entries) {
+      _entries.put(key(lookup), entry);
+    }
+  }
+
+  int size() {
+    synchronized (_entries) {
+      return _entries.size();
+    }
+  }
+
+  static String key(Lookup lookup) {
+    return Stream.of(
+            lookup.getStreet(),
+            lookup.getSecondary(),
+            lookup.getCity(),
+            lookup.getState(),
+            lookup.getZipCode())
+        .map(AddressValidationCache::normalize)
+        .collect(Collectors.joining("|"));
+  }
+
+  private static String normalize(String field) {
+    return field == null ? "" : field.trim().replaceAll("\\s+", " ").toUpperCase(Locale.US);
+  }
+
+  /** Whether an address could be verified and, if so, the county it is in. */
+  public static final class ValidationResult {
+    private static final ValidationResult UNVERIFIED = new ValidationResult(false, null);
+
+    private final boolean _verified;
+    private final String _county;
+
+    private ValidationResult(boolean verified, String county) {
+      _verified = verified;
+      _county = county;
+    }
+
+    public static ValidationResult verified(String county) {
+      return new ValidationResult(true, county);
+    }
+
+    public static ValidationResult unverified() {
+      return UNVERIFIED;
+    }
+
+    public boolean isVerified() {
+      return _verified;
+    }
+
+    public String getCounty() {
+      return _county;
+    }
+  }
+
+  private static final class CachedResult {
+    private final ValidationResult result;
+    private final Instant expiresAt;
+
+    CachedResult(ValidationResult result, Instant expiresAt) {
+      this.result = result;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
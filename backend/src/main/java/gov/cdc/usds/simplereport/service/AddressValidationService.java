@@ -4,7 +4,9 @@ import static gov.cdc.usds.simplereport.api.Translators.parseState;
 import static gov.cdc.usds.simplereport.api.Translators.parseString;
 
 import com.smartystreets.api.ClientBuilder;
+import com.smartystreets.api.exceptions.BatchFullException;
 import com.smartystreets.api.exceptions.SmartyException;
+import com.smartystreets.api.us_street.Batch;
 import com.smartystreets.api.us_street.Candidate;
 import com.smartystreets.api.us_street.Client;
 import com.smartystreets.api.us_street.Lookup;
@@ -12,8 +14,14 @@ import com.smartystreets.api.us_street.MatchType;
 import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentException;
 import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
 import gov.cdc.usds.simplereport.properties.SmartyStreetsProperties;
+import gov.cdc.usds.simplereport.service.AddressValidationCache.ValidationResult;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,19 +30,28 @@ import org.springframework.stereotype.Service;
 @Service
 public class AddressValidationService {
   public final String FACILITY_DISPLAY_NAME = "facility";
+  /** The most addresses that can be validated by one call to {@link #getValidatedAddresses} */
+  public static final int MAX_BATCH_SIZE = Batch.MAX_BATCH_SIZE;
+
   private Client _client;
+  private AddressValidationCache _cache;
   private static final Logger LOG = LoggerFactory.getLogger(AddressValidationService.class);
 
   public AddressValidationService(Client client) {
+    this(client, AddressValidationCache.disabled());
+  }
+
+  public AddressValidationService(Client client, AddressValidationCache cache) {
     _client = client;
+    _cache = cache;
   }
 
   @Autowired
-  public AddressValidationService(SmartyStreetsProperties config) {
-    _client = new ClientBuilder(config.getId(), config.getToken()).buildUsStreetApiClient();
+  public AddressValidationService(SmartyStreetsProperties config, AddressValidationCache cache) {
+    this(new ClientBuilder(config.getId(), config.getToken()).buildUsStreetApiClient(), cache);
   }
 
-  private Lookup getStrictLookup(
+  public static Lookup getStrictLookup(
       String street1, String street2, String city, String state, String postalCode) {
     Lookup lookup = new Lookup();
     lookup.setStreet(parseString(street1));
@@ -51,35 +68,94 @@ public class AddressValidationService {
   }
 
   public StreetAddress getValidatedAddress(Lookup lookup, String fieldName) {
-    try {
-      _client.send(lookup);
-    } catch (SmartyException | IOException ex) {
-      LOG.error("SmartyStreets address lookup failed", ex);
-      throw new IllegalGraphqlArgumentException(
-          "The server is unable to verify the address you entered. Please try again later");
+    ValidationResult result = _cache.get(lookup).orElse(null);
+    if (result == null) {
+      try {
+        _client.send(lookup);
+      } catch (SmartyException | IOException ex) {
+        LOG.error("SmartyStreets address lookup failed", ex);
+        throw new IllegalGraphqlArgumentException(
+            "The server is unable to verify the address you entered. Please try again later");
+      }
+      result = toValidationResult(lookup.getResult());
+      _cache.put(lookup, result);
     }
 
-    ArrayList<Candidate> results = lookup.getResult();
-
-    if (results.isEmpty()) {
+    if (!result.isVerified()) {
       String errorMessage =
           fieldName != null
               ? "The " + fieldName + " address could not be verified"
               : "The address you entered could not be verified";
       throw new IllegalGraphqlArgumentException(errorMessage);
     }
+    return toStreetAddress(lookup, result);
+  }
 
+  /**
+   * Validates several addresses with a single request. The result for each lookup is empty if that
+   * address could not be verified; an exception is thrown only if the request itself fails.
+   * Addresses that were validated recently are not sent again, and an address that appears more
+   * than once (however it is typed) is only sent once.
+   */
+  public List<Optional<StreetAddress>> getValidatedAddresses(List<Lookup> lookups) {
+    Map<String, ValidationResult> results = new HashMap<>();
+    Map<String, Lookup> toSend = new LinkedHashMap<>();
+    for (Lookup lookup : lookups) {
+      String key = AddressValidationCache.key(lookup);
+      if (!results.containsKey(key) && !toSend.containsKey(key)) {
+        _cache.get(lookup).ifPresentOrElse(r -> results.put(key, r), () -> toSend.put(key, lookup));
+      }
+    }
+    try {
+      if (!toSend.isEmpty()) {
+        Batch batch = new Batch();
+        for (Lookup lookup : toSend.values()) {
+          batch.add(lookup);
+        }
+        _client.send(batch);
+      }
+    } catch (BatchFullException ex) {
+      throw new IllegalArgumentException(
+          "Cannot validate more than " + MAX_BATCH_SIZE + " addresses at once", ex);
+    } catch (SmartyException | IOException ex) {
+      LOG.error("SmartyStreets batch address lookup failed", ex);
+      throw new IllegalGraphqlArgumentException(
+          "The server is unable to verify addresses. Please try again later");
+    }
+    toSend.forEach(
+        (key, sent) -> {
+          ValidationResult result = toValidationResult(sent.getResult());
+          _cache.put(sent, result);
+          results.put(key, result);
+        });
+    return lookups.stream()
+        .map(
+            lookup -> {
+              ValidationResult result = results.get(AddressValidationCache.key(lookup));
+              return result.isVerified()
+                  ? Optional.of(toStreetAddress(lookup, result))
+                  : Optional.<StreetAddress>empty();
+            })
+        .collect(Collectors.toList());
+  }
+
+  private static ValidationResult toValidationResult(List<Candidate> results) {
     // If the address is invalid then Smarty street returns 0 results.
     // If the address is valid the results are returned and the first result is the best match
     // and is the one we should be using to get the County metadata
-    Candidate addressMatch = results.get(0);
+    return results.isEmpty()
+        ? ValidationResult.unverified()
+        : ValidationResult.verified(results.get(0).getMetadata().getCountyName());
+  }
+
+  private static StreetAddress toStreetAddress(Lookup lookup, ValidationResult result) {
     return new StreetAddress(
         lookup.getStreet(),
         lookup.getSecondary(),
         lookup.getCity(),
         lookup.getState(),
         lookup.getZipCode(),
-        addressMatch.getMetadata().getCountyName());
+        result.getCounty());
   }
 
   /** Returns a StreetAddress if the address is valid and throws an exception if it is not */
@@ -0,0 +1,103 @@
+package gov.cdc.usds.simplereport.service;
+
+import gov.cdc.usds.simplereport.db.model.ApiUser;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Short-lived cache of {@link ApiUser} records by login email, so that identifying the current user
+ * does not require a database round-trip on every request. Users are loaded in a transaction (and
+ * so a persistence context) of their own, so the cached instances are detached and shared by no
+ * request's session: they are fine to use as references from other entities, but changes to them
+ * will not be saved, and changes saved to the same user elsewhere will not show up in them.
+ *
+ * <p>The cache is local to each server, so changes made on another server (e.g. a user being
+ * deactivated) can take up to the configured time-to-live to be noticed. A time-to-live of zero
+ * disables it.
+ */
+@Component
+public class ApiUserCache {
+
+  private final Duration _ttl;
+  private final Clock _clock;
+  private final TransactionOperations _loadTransaction;
+  private final Map<String, CachedUser> _usersByEmail = new ConcurrentHashMap<>();
+
+  @Autowired
+  public ApiUserCache(
+      @Value("${simple-report.api-user.cache-ttl:PT1M}") Duration ttl,
+      PlatformTransactionManager txManager) {
+    this(ttl, Clock.systemUTC(), newReadOnlyTransaction(txManager));
+  }
+
+  ApiUserCache(Duration ttl, Clock clock, TransactionOperations loadTransaction) {
+    _ttl = ttl;
+    _clock = clock;
+    _loadTransaction = loadTransaction;
+  }
+
+  private static TransactionOperations newReadOnlyTransaction(
+      PlatformTransactionManager txManager) {
+    TransactionTemplate template = new TransactionTemplate(txManager);
+    template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    template.setReadOnly(true);
+    return template;
+  }
+
+  public Optional<ApiUser> get(String loginEmail, Function<String, Optional<ApiUser>> loader) {
+    if (_ttl.isZero()) {
+      return loader.apply(loginEmail);
+    }
+    Instant now = _clock.instant();
+    CachedUser cached = _usersByEmail.get(loginEmail);
+    if (cached != null && cached.expiresAt.isAfter(now)) {
+      return Optional.of(cached.user);
+    }
+    Optional<ApiUser> found = _loadTransaction.execute(status -> loader.apply(loginEmail));
+    found.ifPresentOrElse(
+        u -> _usersByEmail.put(loginEmail, new CachedUser(u, now.plus(_ttl))),
+        () -> _usersByEmail.remove(loginEmail));
+    return found;
+  }
+
+  /**
+   * Forget a user on this server, now and again once the current transaction (if any) commits:
+   * until then, another request could still load the old version of the user and cache it.
+   */
+  public void evict(String loginEmail) {
+    _usersByEmail.remove(loginEmail);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              _usersByEmail.remove(loginEmail);
+            }
+          });
+    }
+  }
+
+  private static class CachedUser {
+    private final ApiUser user;
+    private final Instant expiresAt;
+
+    CachedUser(ApiUser user, Instant expiresAt) {
+      this.user = user;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -35,6 +35,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
 
 @Service
 @Transactional(readOnly = false)
@@ -52,6 +53,12 @@ public class ApiUserService {
 
   @Autowired private CurrentPatientContextHolder _contextHolder;
 
+  @Autowired private ApiUserCache _userCache;
+
+  @Autowired private LastSeenTracker _lastSeenTracker;
+
+  @Autowired private CurrentApiUserContextHolder _currentUserHolder;
+
   private static final Logger LOG = LoggerFactory.getLogger(ApiUserService.class);
 
   @AuthorizationConfiguration.RequireGlobalAdminUser
@@ -119,6 +126,7 @@ public class ApiUserService {
     nameInfo.setLastName(lastName);
     nameInfo.setSuffix(suffix);
     apiUser = _apiUserRepo.save(apiUser);
+    _userCache.evict(username);
 
     IdentityAttributes userIdentity =
         new IdentityAttributes(username, firstName, middleName, lastName, suffix);
@@ -197,6 +205,8 @@ public class ApiUserService {
     ApiUser apiUser = getApiUser(userId);
     apiUser.setIsDeleted(deleted);
     apiUser = _apiUserRepo.save(apiUser);
+    // Other servers may go on using a cached copy of this user for up to the cache's time-to-live
+    _userCache.evict(apiUser.getLoginEmail());
     _oktaRepo.setUserIsActive(apiUser.getLoginEmail(), !deleted);
     return new UserInfo(apiUser, Optional.empty(), isAdmin(apiUser));
   }
@@ -238,13 +248,12 @@ public class ApiUserService {
     }
 
     String username = getPatientIdEmail(patient);
-    Optional<ApiUser> found = _apiUserRepo.findByLoginEmail(username);
+    Optional<ApiUser> found = _userCache.get(username, _apiUserRepo::findByLoginEmail);
 
     if (found.isPresent()) {
       LOG.debug("Patient has logged in before: retrieving user record.");
       ApiUser user = found.get();
-      user.updateLastSeen();
-      user = _apiUserRepo.save(user);
+      _lastSeenTracker.recordSeen(user);
       return user;
     } else {
       LOG.info("Initial login for patient: creating user record.");
@@ -264,7 +273,22 @@ public class ApiUserService {
     return patient.getInternalId() + "-noreply@simplereport.gov";
   }
 
+  /**
+   * Get the current user. When called while servicing a web request, the result is memoized for the
+   * rest of that request (see {@link CurrentApiUserContextHolder}); otherwise it is resolved fresh
+   * on each call.
+   */
   private ApiUser getCurrentApiUser() {
+    if (RequestContextHolder.getRequestAttributes() == null) {
+      return resolveCurrentApiUser();
+    }
+    if (!_currentUserHolder.hasBeenPopulated()) {
+      _currentUserHolder.setCurrentApiUser(resolveCurrentApiUser());
+    }
+    return _currentUserHolder.getCurrentApiUser();
+  }
+
+  private ApiUser resolveCurrentApiUser() {
     IdentityAttributes userIdentity = _supplier.get();
     if (userIdentity == null) {
       if (_contextHolder.hasPatientLink()) {
@@ -274,12 +298,12 @@ public class ApiUserService {
       throw new UnidentifiedUserException();
     }
 
-    Optional<ApiUser> found = _apiUserRepo.findByLoginEmail(userIdentity.getUsername());
+    Optional<ApiUser> found =
+        _userCache.get(userIdentity.getUsername(), _apiUserRepo::findByLoginEmail);
     if (found.isPresent()) {
       LOG.debug("User has logged in before: retrieving user record.");
       ApiUser user = found.get();
-      user.updateLastSeen();
-      user = _apiUserRepo.save(user);
+      _lastSeenTracker.recordSeen(user);
       return user;
     } else {
       // Assumes user already has a corresponding Okta entity; otherwise, they couldn't log in :)
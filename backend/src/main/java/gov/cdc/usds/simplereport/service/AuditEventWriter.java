@@ -0,0 +1,216 @@
+package gov.cdc.usds.simplereport.service;
+
+import gov.cdc.usds.simplereport.db.model.ApiAuditEvent;
+import gov.cdc.usds.simplereport.db.repository.ApiAuditEventRepository;
+import gov.cdc.usds.simplereport.properties.AuditLoggingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes {@link ApiAuditEvent}s to the database, either inline (the default) or, if so configured,
+ * by queueing them for a background thread that inserts them in batches.
+ *
+ * <p>When writing asynchronously in fail-closed mode, no event is ever dropped: if the queue stays
+ * full past the configured timeout, or the most recent batch failed to write, the request thread
+ * writes its own event instead (and so fails if that write fails, exactly as it would when writing
+ * inline). A batch that keeps failing is eventually written one event at a time, so that a single
+ * bad event cannot block the writer: only an event that fails on its own is logged and dropped. In
+ * fail-open mode, events that cannot be queued or written are logged and dropped straight away.
+ */
+@Service
+@SuppressWarnings("checkstyle:IllegalCatch")
+public class AuditEventWriter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AuditEventWriter.class);
+
+  private final ApiAuditEventRepository _repo;
+  private final EntityManager _entityManager;
+  private final TransactionTemplate _txTemplate;
+  private final AuditLoggingProperties _props;
+  private final BlockingQueue<ApiAuditEvent> _queue;
+
+  private final Timer _flushTimer;
+  private final Counter _flushFailures;
+  private final Counter _droppedEvents;
+
+  private volatile boolean _running;
+  private volatile boolean _lastFlushFailed;
+  private int _batchFailures; // only used by the writer thread
+  private Thread _writerThread;
+
+  public AuditEventWriter(
+      ApiAuditEventRepository repo,
+      EntityManager entityManager,
+      PlatformTransactionManager txManager,
+      AuditLoggingProperties props,
+      MeterRegistry meterRegistry) {
+    _repo = repo;
+    _entityManager = entityManager;
+    _txTemplate = new TransactionTemplate(txManager);
+    _props = props;
+    _queue = new ArrayBlockingQueue<>(props.getQueueCapacity());
+    meterRegistry.gauge("audit.queue.depth", _queue, BlockingQueue::size);
+    _flushTimer = meterRegistry.timer("audit.flush");
+    _flushFailures = meterRegistry.counter("audit.flush.failures");
+    _droppedEvents = meterRegistry.counter("audit.events.dropped");
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!_props.getAsynchronous()) {
+      return;
+    }
+    LOG.info(
+        "Writing audit events asynchronously: batchSize={} flushInterval={} failClosed={}",
+        _props.getBatchSize(),
+        _props.getFlushInterval(),
+        _props.getFailClosed());
+    _running = true;
+    _writerThread = new Thread(this::processQueue, "audit-event-writer");
+    _writerThread.setDaemon(true);
+    _writerThread.start();
+  }
+
+  /** Stop accepting queued events, and wait (briefly) for the ones already queued to be written. */
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    _running = false;
+    if (_writerThread != null) {
+      _writerThread.join(_props.getFlushInterval().multipliedBy(2).toMillis());
+      if (_writerThread.isAlive() || !_queue.isEmpty()) {
+        LOG.error("Audit writer shut down with {} events not written", _queue.size());
+      }
+    }
+  }
+
+  /**
+   * Record the given event, either immediately (in the caller's transaction, which must be
+   * read-write) or by queueing it for the background writer.
+   */
+  public void write(ApiAuditEvent event) {
+    if (!_running || (_lastFlushFailed && _props.getFailClosed())) {
+      writeOne(event);
+      return;
+    }
+    if (enqueue(event)) {
+      return;
+    }
+    if (_props.getFailClosed()) {
+      LOG.warn("Audit queue full: writing event for request {} inline", event.getRequestId());
+      writeOne(event);
+    } else {
+      LOG.error("Audit queue full: dropping event for request {}", event.getRequestId());
+      _droppedEvents.increment();
+    }
+  }
+
+  private boolean enqueue(ApiAuditEvent event) {
+    if (!_props.getFailClosed()) {
+      return _queue.offer(event);
+    }
+    try {
+      return _queue.offer(event, _props.getEnqueueTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private void writeOne(ApiAuditEvent event) {
+    _flushTimer.record(() -> _repo.save(event));
+  }
+
+  private void writeBatch(List<ApiAuditEvent> events) {
+    _flushTimer.record(
+        () ->
+            _txTemplate.executeWithoutResult(
+                status -> {
+                  // scoped to this session, so JDBC batching is not switched on for everything else
+                  _entityManager.unwrap(Session.class).setJdbcBatchSize(events.size());
+                  _repo.saveAll(events);
+                }));
+  }
+
+  private void processQueue() {
+    List<ApiAuditEvent> batch = new ArrayList<>(_props.getBatchSize());
+    long flushIntervalNanos = _props.getFlushInterval().toNanos();
+    while (_running || !_queue.isEmpty() || !batch.isEmpty()) {
+      try {
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < _props.getBatchSize()) {
+          ApiAuditEvent next = _queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+        if (batch.isEmpty()) {
+          continue;
+        }
+        flush(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+  }
+
+  private void flush(List<ApiAuditEvent> batch) throws InterruptedException {
+    try {
+      writeBatch(List.copyOf(batch));
+      batch.clear();
+      _batchFailures = 0;
+      _lastFlushFailed = false;
+    } catch (RuntimeException e) {
+      _flushFailures.increment();
+      _lastFlushFailed = true;
+      if (!_props.getFailClosed()) {
+        LOG.error("Failed to write {} audit events: dropping them", batch.size(), e);
+        _droppedEvents.increment(batch.size());
+        batch.clear();
+      } else if (++_batchFailures < _props.getBatchAttempts()) {
+        LOG.error("Failed to write {} audit events: will retry", batch.size(), e);
+        TimeUnit.NANOSECONDS.sleep(_props.getFlushInterval().toNanos());
+      } else {
+        LOG.error(
+            "Failed to write {} audit events {} times: writing them one at a time",
+            batch.size(),
+            _batchFailures,
+            e);
+        writeIndividually(batch);
+        batch.clear();
+        _batchFailures = 0;
+      }
+    }
+  }
+
+  private void writeIndividually(List<ApiAuditEvent> events) {
+    int written = 0;
+    for (ApiAuditEvent event : events) {
+      try {
+        _flushTimer.record(() -> _txTemplate.executeWithoutResult(status -> _repo.save(event)));
+        written++;
+      } catch (RuntimeException e) {
+        LOG.error(
+            "Failed to write audit event for request {}: dropping it", event.getRequestId(), e);
+        _droppedEvents.increment();
+      }
+    }
+    _lastFlushFailed = written == 0;
+  }
+}
@@ -0,0 +1,161 @@
+package gov.cdc.usds.simplereport.service;
+
+import gov.cdc.usds.simplereport.db.model.ApiAuditEvent;
+import gov.cdc.usds.simplereport.db.repository.ApiAuditEventRepository;
+import gov.cdc.usds.simplereport.properties.AuditRetentionProperties;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Looks after the monthly partitions of the {@link ApiAuditEvent} table: creates them a few months
+ * before they are needed, so that inserts never find themselves without one, and (if enabled) moves
+ * the oldest ones out of the database once they are past the online retention period.
+ *
+ * <p>Archiving detaches a partition (the table itself stays, with its rows), exports it as a
+ * gzipped CSV file, and only drops the table once that file is safely on disk. A partition whose
+ * export fails stays detached, and is exported again on the next run. Every step takes the
+ * partition maintenance advisory lock, so only one server does any of this at a time.
+ */
+@Service
+public class AuditPartitionService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AuditPartitionService.class);
+
+  private final ApiAuditEventRepository _repo;
+  private final DataSource _dataSource;
+  private final TransactionTemplate _txTemplate;
+  private final AuditRetentionProperties _props;
+  private final String _schema;
+
+  public AuditPartitionService(
+      ApiAuditEventRepository repo,
+      DataSource dataSource,
+      PlatformTransactionManager txManager,
+      AuditRetentionProperties props,
+      @Value("${spring.jpa.properties.hibernate.default_schema:public}") String schema) {
+    _repo = repo;
+    _dataSource = dataSource;
+    _txTemplate = new TransactionTemplate(txManager);
+    _props = props;
+    _schema = schema;
+  }
+
+  @Scheduled(fixedDelayString = "${simple-report.audit-retention.maintenance-interval:PT6H}")
+  public void maintainPartitions() {
+    createPartitions();
+    if (_props.getArchiveEnabled()) {
+      archiveOldPartitions();
+    }
+  }
+
+  /** Make sure there are partitions for the configured number of months ahead. */
+  public void createPartitions() {
+    _txTemplate.executeWithoutResult(
+        status -> {
+          if (_repo.tryPartitionMaintenanceLock()) {
+            int created = _repo.createPartitions(_props.getMonthsAhead());
+            if (created > 0) {
+              LOG.info("Created {} audit event partitions", created);
+            }
+          }
+        });
+  }
+
+  /**
+   * Detach the partitions that are past the online retention period, then archive and drop every
+   * detached partition (including any left over from an earlier run).
+   *
+   * @return the names of the partitions that were archived.
+   */
+  public List<String> archiveOldPartitions() {
+    List<String> detached =
+        _txTemplate.execute(
+            status -> {
+              if (!_repo.tryPartitionMaintenanceLock()) {
+                return List.of();
+              }
+              List<String> newlyDetached = _repo.detachPartitions(_props.getMonthsOnline());
+              if (!newlyDetached.isEmpty()) {
+                LOG.info("Detached audit event partitions {}", newlyDetached);
+              }
+              return _repo.findDetachedPartitions();
+            });
+    // a transaction for each, to keep them short: the exports may take a while
+    detached.forEach(this::archive);
+    return detached;
+  }
+
+  private void archive(String partition) {
+    Path target = _props.getArchiveDirectory().resolve(partition + ".csv.gz");
+    _txTemplate.executeWithoutResult(
+        status -> {
+          if (_repo.tryPartitionMaintenanceLock()
+              && _repo.findDetachedPartitions().contains(partition)) {
+            export(partition, target);
+            _repo.dropDetachedPartition(partition);
+            LOG.info("Archived audit event partition {} to {}", partition, target);
+          }
+        });
+  }
+
+  /**
+   * Write every row of a partition (or detached partition) to a gzipped CSV file, with a header
+   * row. The file only appears, complete and synced to disk, once the export has succeeded.
+   */
+  void export(String partition, Path target) {
+    try {
+      Files.createDirectories(target.getParent());
+      Path partial = Files.createTempFile(target.getParent(), partition, ".partial");
+      try {
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE);
+            GZIPOutputStream gzip =
+                new GZIPOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+          copyOut(partition, gzip);
+          gzip.finish();
+          gzip.flush();
+          channel.force(true);
+        }
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(partial);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to archive audit event partition " + partition, e);
+    }
+  }
+
+  private void copyOut(String partition, OutputStream out) throws IOException {
+    // identifiers only ever come from our own partition naming, but quote them anyway
+    String table = "\"" + _schema + "\".\"" + partition + "\"";
+    try (Connection connection = _dataSource.getConnection()) {
+      connection
+          .unwrap(PGConnection.class)
+          .getCopyAPI()
+          .copyOut("COPY " + table + " TO STDOUT WITH (FORMAT csv, HEADER)", out);
+    } catch (SQLException e) {
+      throw new DataAccessResourceFailureException("Failed to export " + table, e);
+    }
+  }
+}
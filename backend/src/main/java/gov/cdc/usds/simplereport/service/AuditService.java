@@ -28,10 +28,13 @@ public class AuditService {
 
   private final ApiAuditEventRepository _repo;
   private final ApiUserService _userService;
+  private final AuditEventWriter _writer;
 
-  public AuditService(ApiAuditEventRepository repo, ApiUserService userService) {
+  public AuditService(
+      ApiAuditEventRepository repo, ApiUserService userService, AuditEventWriter writer) {
     this._repo = repo;
     this._userService = userService;
+    this._writer = writer;
   }
 
   public List<ApiAuditEvent> getLastEvents(@Range(min = 1, max = MAX_EVENT_FETCH) int count) {
@@ -39,6 +42,7 @@ public class AuditService {
     return count <= events.size() ? events.subList(0, count) : events;
   }
 
+  /** The number of audit events still in the database (that is, not yet archived). */
   public long countAuditEvents() {
     return _repo.count();
   }
@@ -47,7 +51,7 @@ public class AuditService {
   public void logGraphQlEvent(GraphqlQueryState state, List<String> errorPaths) {
     LOG.trace("Saving audit event for {}", state.getRequestId());
     UserInfo userInfo = _userService.getCurrentUserInfo();
-    _repo.save(
+    _writer.write(
         new ApiAuditEvent(
             state.getRequestId(),
             state.getHttpDetails(),
@@ -69,6 +73,7 @@ public class AuditService {
     LOG.trace("Saving audit event for {}", requestId);
     HttpRequestDetails reqDetails = new HttpRequestDetails(request);
     ApiUser userInfo = _userService.getCurrentApiUserInContainedTransaction();
-    _repo.save(new ApiAuditEvent(requestId, reqDetails, responseCode, userInfo, org, patientLink));
+    _writer.write(
+        new ApiAuditEvent(requestId, reqDetails, responseCode, userInfo, org, patientLink));
   }
 }
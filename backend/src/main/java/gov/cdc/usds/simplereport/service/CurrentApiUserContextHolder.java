@@ -0,0 +1,32 @@
+package gov.cdc.usds.simplereport.service;
+
+import gov.cdc.usds.simplereport.db.model.ApiUser;
+import org.springframework.context.annotation.Scope;
+import org.springframework.context.annotation.ScopedProxyMode;
+import org.springframework.stereotype.Repository;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Request-scoped memo of the current {@link ApiUser}, so that the user is looked up once per
+ * request rather than every time an audited entity is saved (each of which would otherwise need its
+ * own transaction: see {@link gov.cdc.usds.simplereport.config.AuditingConfig}). The user is
+ * usually detached, and is only meant to be used as a reference.
+ */
+@Repository
+@Scope(scopeName = WebApplicationContext.SCOPE_REQUEST, proxyMode = ScopedProxyMode.TARGET_CLASS)
+public class CurrentApiUserContextHolder {
+
+  private ApiUser _currentApiUser;
+
+  public boolean hasBeenPopulated() {
+    return _currentApiUser != null;
+  }
+
+  public ApiUser getCurrentApiUser() {
+    return _currentApiUser;
+  }
+
+  public void setCurrentApiUser(ApiUser currentApiUser) {
+    this._currentApiUser = currentApiUser;
+  }
+}
@@ -0,0 +1,37 @@
+package gov.cdc.usds.simplereport.service;
+
+import gov.cdc.usds.simplereport.service.model.OrganizationRoles;
+import java.util.Optional;
+import org.springframework.context.annotation.Scope;
+import org.springframework.context.annotation.ScopedProxyMode;
+import org.springframework.stereotype.Repository;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Request-scoped memo of the current user's {@link OrganizationRoles}, so that the JWT claims are
+ * parsed and the organization and facilities are loaded at most once per request no matter how many
+ * permission checks consult them.
+ */
+@Repository
+@Scope(scopeName = WebApplicationContext.SCOPE_REQUEST, proxyMode = ScopedProxyMode.TARGET_CLASS)
+public class CurrentOrganizationRolesContextHolder {
+
+  // null means "not yet resolved for this request"; an empty Optional is a valid resolved value
+  private Optional<OrganizationRoles> _currentOrganizationRoles;
+
+  public boolean hasBeenPopulated() {
+    return _currentOrganizationRoles != null;
+  }
+
+  public Optional<OrganizationRoles> getOrganizationRoles() {
+    return _currentOrganizationRoles;
+  }
+
+  public void setOrganizationRoles(Optional<OrganizationRoles> currentOrganizationRoles) {
+    this._currentOrganizationRoles = currentOrganizationRoles;
+  }
+
+  public void reset() {
+    this._currentOrganizationRoles = null;
+  }
+}
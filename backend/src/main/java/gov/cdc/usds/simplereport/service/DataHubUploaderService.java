@@ -1,5 +1,6 @@
 package gov.cdc.usds.simplereport.service;
 
+import com.fasterxml.jackson.databind.SequenceWriter;
 import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
 import com.fasterxml.jackson.dataformat.csv.CsvMapper;
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
@@ -11,32 +12,37 @@ import gov.cdc.usds.simplereport.db.model.auxiliary.DataHubUploadStatus;
 import gov.cdc.usds.simplereport.db.repository.DataHubUploadRespository;
 import gov.cdc.usds.simplereport.db.repository.TestEventRepository;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
-import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
-import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
+import java.util.Iterator;
 import java.util.TimeZone;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpMessageConverterExtractor;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 @Service
-@Transactional(readOnly = true)
 public class DataHubUploaderService {
   private static final Logger LOG = LoggerFactory.getLogger(DataHubUploaderService.class);
 
@@ -45,8 +51,12 @@ public class DataHubUploaderService {
   private final DataHubUploadRespository _dataHubUploadRepo;
   private final UploadTrackingService _trackingService;
   private final SlackMessageService _slack;
+  private final TransactionTemplate _batchTransaction;
+  private final RestTemplate _restTemplate;
+
+  // used only to detach exported rows as we go, so memory use does not grow with the batch size
+  @PersistenceContext private EntityManager _entityManager;
 
-  private String _fileContents;
   private Date _nextTimestamp;
   private String _warnMessage;
   private String _resultJson;
@@ -57,13 +67,27 @@ public class DataHubUploaderService {
       TestEventRepository testReportEventsRepo,
       DataHubUploadRespository dataHubUploadRepo,
       UploadTrackingService trackingService,
-      SlackMessageService slack) {
+      SlackMessageService slack,
+      PlatformTransactionManager txManager,
+      RestTemplateBuilder restTemplateBuilder) {
     _config = config;
     _testReportEventsRepo = testReportEventsRepo;
     _trackingService = trackingService;
     _dataHubUploadRepo = dataHubUploadRepo;
     _slack = slack;
 
+    // each batch reads its rows in a transaction of its own, so that catching up on a backlog does
+    // not hold one snapshot open for the whole run
+    _batchTransaction = new TransactionTemplate(txManager);
+    _batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    _batchTransaction.setReadOnly(true);
+
+    // the request body must not be buffered, or we would be back to holding it all in memory
+    // (this is also why the headers are not set by an interceptor, which would buffer it too)
+    SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+    requestFactory.setBufferRequestBody(false);
+    _restTemplate = restTemplateBuilder.requestFactory(() -> requestFactory).build();
+
     LOG.info("Datahub scheduling uploader enable state: {}", config.getUploadEnabled());
 
     // sanity checks that run at startup since they are used by scheduler and may not fail until
@@ -115,30 +139,43 @@ public class DataHubUploaderService {
     }
   }
 
-  private void createTestEventCSV(Date earlistCreatedAt, Date latestCreateOn)
-      throws IOException, DateTimeParseException {
-    List<TestEvent> events =
-        _testReportEventsRepo.queryMatchAllBetweenDates(
-            earlistCreatedAt, latestCreateOn, PageRequest.of(0, _config.getMaxCsvRows()));
-    if (events.size() == 0) {
-      // next end timerange stays the same as the last. NOTE: This will not change until there are
-      // new events
-      this._nextTimestamp = earlistCreatedAt;
-      return;
-    } else if (events.size() == _config.getMaxCsvRows()) {
-      this._warnMessage += "More rows were found than can be uploaded in a single batch.";
-    }
+  /**
+   * Stream the test events created in the given window (up to the configured maximum number of
+   * rows) directly from a database cursor into the body of the upload request, so that neither the
+   * entities nor the rendered CSV are ever held in memory all at once.
+   */
+  private void uploadTestEventCSV(Date earliestCreatedAt, Date latestCreatedAt, String apiKey)
+      throws RestClientException {
+    // next end timerange stays the same as the last if nothing is found. NOTE: This will not change
+    // until there are new events
+    this._nextTimestamp = earliestCreatedAt;
+    try (Stream<TestEvent> events =
+        _testReportEventsRepo.streamAllBetweenDates(earliestCreatedAt, latestCreatedAt)) {
+      Iterator<TestEvent> batch = events.limit(_config.getMaxCsvRows()).iterator();
+      if (!batch.hasNext()) {
+        return;
+      }
 
-    this._rowCount = events.size();
-    // timestamp of last matched entry, used for the next query.
-    this._nextTimestamp = events.get(_rowCount - 1).getCreatedAt();
+      URI url = UriComponentsBuilder.fromUriString(_config.getUploadUrl()).build().toUri();
 
-    this.setFileContents(events);
+      _resultJson =
+          _restTemplate.execute(
+              url,
+              HttpMethod.POST,
+              request -> {
+                HttpHeaders headers = request.getHeaders();
+                headers.setContentType(new MediaType("text", "csv"));
+                headers.add("x-functions-key", apiKey);
+                headers.add("client", "simple_report");
+                headers.add("x-api-version", TestEventExport.CSV_API_VERSION);
+                writeCsv(batch, request.getBody());
+              },
+              new HttpMessageConverterExtractor<>(
+                  String.class, _restTemplate.getMessageConverters()));
+    }
   }
 
-  private void setFileContents(List<TestEvent> events) throws IOException {
-    List<TestEventExport> eventsToExport = new ArrayList<>();
-    events.forEach(e -> eventsToExport.add(new TestEventExport(e)));
+  private void writeCsv(Iterator<TestEvent> events, OutputStream body) throws IOException {
     CsvMapper mapper = new CsvMapper();
     mapper
         .enable(CsvGenerator.Feature.STRICT_CHECK_FOR_QUOTING)
@@ -148,33 +185,27 @@ public class DataHubUploaderService {
     // not.
     // we have to return `""` withNullValue to keep `,,,` out of the the csv
     CsvSchema schema = mapper.schemaFor(TestEventExport.class).withHeader().withNullValue("\"\"");
-    this._fileContents = mapper.writer(schema).writeValueAsString(eventsToExport);
-  }
-
-  private void uploadCSVDocument(String apiKey) throws RestClientException {
-    ByteArrayResource contentsAsResource =
-        new ByteArrayResource(this._fileContents.getBytes(StandardCharsets.UTF_8));
-
-    RestTemplate restTemplate =
-        new RestTemplateBuilder(
-                rt ->
-                    rt.getInterceptors()
-                        .add(
-                            (request, body, execution) -> {
-                              HttpHeaders headers = request.getHeaders();
-                              headers.setContentType(new MediaType("text", "csv"));
-                              headers.add("x-functions-key", apiKey);
-                              headers.add("client", "simple_report");
-                              headers.add("x-api-version", TestEventExport.CSV_API_VERSION);
-                              return execution.execute(request, body);
-                            }))
-            .build();
-
-    URI url = UriComponentsBuilder.fromUriString(_config.getUploadUrl()).build().toUri();
-
-    _resultJson = restTemplate.postForObject(url, contentsAsResource, String.class);
+    try (SequenceWriter csv = mapper.writer(schema).writeValues(body)) {
+      while (events.hasNext()) {
+        TestEvent event = events.next();
+        csv.write(new TestEventExport(event));
+        _rowCount++;
+        // timestamp of last matched entry, used for the next query.
+        _nextTimestamp = event.getCreatedAt();
+        if (_rowCount % TestEventRepository.EXPORT_FETCH_SIZE == 0) {
+          csv.flush();
+          _entityManager.clear();
+        }
+      }
+    }
   }
 
+  /**
+   * Upload the test events created since the last successful upload, in batches of up to the
+   * configured maximum number of rows, until caught up or until the configured maximum number of
+   * batches for one run have been sent. The transaction here only holds the upload lock.
+   */
+  @Transactional(readOnly = true)
   public void dataHubUploaderTask() {
     // sanity check everything is configured correctly (dev likely will not be)
     if (!_config.getUploadEnabled()) {
@@ -192,7 +223,6 @@ public class DataHubUploaderService {
       return;
     }
 
-    this.init();
     ArrayList<String> msgs = new ArrayList<>();
     // sanity check the key was successful gotten from the data vault
     if (_config.getApiKey().startsWith("MISSING")) {
@@ -214,41 +244,64 @@ public class DataHubUploaderService {
       return;
     }
 
-    DataHubUpload newUpload = _trackingService.startUpload(lastTimestamp);
-    try {
-      // end range is back 1 minute, to avoid complications involving open
-      // transactions
-      Timestamp dateOneMinAgo = Timestamp.from(Instant.now().minus(1, ChronoUnit.MINUTES));
+    // end range is back 1 minute, to avoid complications involving open
+    // transactions
+    Timestamp dateOneMinAgo = Timestamp.from(Instant.now().minus(1, ChronoUnit.MINUTES));
 
-      this.createTestEventCSV(lastTimestamp, dateOneMinAgo);
-      _trackingService.markRowCount(newUpload, _rowCount, _nextTimestamp);
+    // keep uploading batches until one comes back short (or fails), which means we are caught up,
+    // or until this run has uploaded as many batches as it may
+    boolean done = false;
+    for (int batchNumber = 1; !done; batchNumber++) {
+      this.init();
+      DataHubUpload newUpload = _trackingService.startUpload(lastTimestamp);
+      boolean lastAllowed = batchNumber >= _config.getMaxUploadsPerRun();
+      try {
+        Date earliestCreatedAt = lastTimestamp;
+        _batchTransaction.executeWithoutResult(
+            status ->
+                this.uploadTestEventCSV(earliestCreatedAt, dateOneMinAgo, _config.getApiKey()));
+        _trackingService.markRowCount(newUpload, _rowCount, _nextTimestamp);
 
-      if (_rowCount > 0) {
-        this.uploadCSVDocument(_config.getApiKey());
-      } else {
-        LOG.info("No new tests found since previous successful data hub upload.");
-      }
+        if (_rowCount == 0) {
+          LOG.info("No new tests found since previous successful data hub upload.");
+        } else if (_rowCount == _config.getMaxCsvRows()) {
+          this._warnMessage +=
+              lastAllowed
+                  ? "More rows were found than can be uploaded in a single run: the next run will"
+                      + " continue from here."
+                  : "More rows were found than can be uploaded in a single batch: continuing in"
+                      + " another.";
+        }
 
-      // todo: parse json run sanity checks like total records processed matches what we sent.
-      _trackingService.markSucceeded(newUpload, _resultJson, _warnMessage);
-    } catch (RestClientException | IOException err) {
-      _trackingService.markFailed(newUpload, _resultJson, err);
-    }
+        // todo: parse json run sanity checks like total records processed matches what we sent.
+        _trackingService.markSucceeded(newUpload, _resultJson, _warnMessage);
+        done = _rowCount < _config.getMaxCsvRows() || lastAllowed;
+        lastTimestamp = _nextTimestamp;
+      } catch (RestClientException err) {
+        // the next run will start over from the last successful batch
+        _trackingService.markFailed(newUpload, _resultJson, err);
+        done = true;
+      }
 
-    if (_rowCount > 0) {
-      // Build and send message to slackChannel
-      ArrayList<String> message = new ArrayList<>();
-      message.add("Result: ```" + newUpload.getJobStatus() + "``` ");
-      message.add("RecordsProcessed: " + newUpload.getRecordsProcessed());
-      message.add("EarlistTimestamp: " + dateToUTCString(newUpload.getEarliestRecordedTimestamp()));
-      message.add("LatestTimestamp: " + dateToUTCString(newUpload.getLatestRecordedTimestamp()));
-      message.add("ErrorMessage: " + newUpload.getErrorMessage());
-      message.add("setResponseData: ");
-      message.add("> ``` " + newUpload.getResponseData() + " ```");
-      _slack.sendSlackChannelMessage("DataHubUpload result", message, false);
+      if (_rowCount > 0) {
+        sendSlackResult(newUpload);
+      }
     }
 
     // should this sleep for some period of time? If no rows match it may be really fast
     // and other server instances not overlap and get blocked by tryUploadLock() otherwise.
   }
+
+  private void sendSlackResult(DataHubUpload upload) {
+    // Build and send message to slackChannel
+    ArrayList<String> message = new ArrayList<>();
+    message.add("Result: ```" + upload.getJobStatus() + "``` ");
+    message.add("RecordsProcessed: " + upload.getRecordsProcessed());
+    message.add("EarlistTimestamp: " + dateToUTCString(upload.getEarliestRecordedTimestamp()));
+    message.add("LatestTimestamp: " + dateToUTCString(upload.getLatestRecordedTimestamp()));
+    message.add("ErrorMessage: " + upload.getErrorMessage());
+    message.add("setResponseData: ");
+    message.add("> ``` " + upload.getResponseData() + " ```");
+    _slack.sendSlackChannelMessage("DataHubUpload result", message, false);
+  }
 }
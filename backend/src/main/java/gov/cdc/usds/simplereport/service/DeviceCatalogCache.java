@@ -0,0 +1,178 @@
+package gov.cdc.usds.simplereport.service;
+
+import gov.cdc.usds.simplereport.db.repository.DeviceSpecimenTypeRepository;
+import gov.cdc.usds.simplereport.db.repository.DeviceTypeRepository;
+import gov.cdc.usds.simplereport.service.model.DeviceCatalog;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the device-type reference list in memory, since it changes rarely but is read on every test
+ * result submission.
+ *
+ * <p>The whole catalog is reloaded and swapped in at once: after a change made through {@link
+ * DeviceTypeService} has been committed, and whenever the database announces (on the {@value
+ * #CHANNEL} channel, from triggers on the catalog tables) that another server, or anything else,
+ * has changed it. Listening takes one database connection for the life of the application.
+ */
+@Component
+public class DeviceCatalogCache {
+
+  public static final String CHANNEL = "device_catalog_changed";
+
+  private static final Logger LOG = LoggerFactory.getLogger(DeviceCatalogCache.class);
+  private static final Duration POLL_INTERVAL = Duration.ofSeconds(10);
+  private static final Duration RECONNECT_DELAY = Duration.ofSeconds(30);
+
+  private final DeviceTypeRepository _deviceTypeRepo;
+  private final DeviceSpecimenTypeRepository _deviceSpecimenRepo;
+  private final TransactionTemplate _loadTemplate;
+  private final DataSource _dataSource;
+  private final boolean _enabled;
+
+  private final AtomicLong _loadsStarted = new AtomicLong();
+
+  private volatile DeviceCatalog _catalog;
+  private long _catalogLoadNumber;
+  private volatile boolean _listening;
+  private Thread _listenerThread;
+
+  public DeviceCatalogCache(
+      DeviceTypeRepository deviceTypeRepo,
+      DeviceSpecimenTypeRepository deviceSpecimenRepo,
+      PlatformTransactionManager txManager,
+      DataSource dataSource,
+      @Value("${simple-report.device-catalog.cache-enabled:true}") boolean enabled) {
+    _deviceTypeRepo = deviceTypeRepo;
+    _deviceSpecimenRepo = deviceSpecimenRepo;
+    // load in a transaction (and session) of its own, so the cached entities are never attached
+    // to the session of whichever request happened to trigger the load
+    _loadTemplate = new TransactionTemplate(txManager);
+    _loadTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    _loadTemplate.setReadOnly(true);
+    _dataSource = dataSource;
+    _enabled = enabled;
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!_enabled) {
+      return;
+    }
+    _listening = true;
+    _listenerThread = new Thread(this::listen, "device-catalog-listener");
+    _listenerThread.setDaemon(true);
+    _listenerThread.start();
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    _listening = false;
+    if (_listenerThread != null) {
+      _listenerThread.interrupt();
+      _listenerThread.join(POLL_INTERVAL.toMillis());
+    }
+  }
+
+  /** The current catalog (loaded from the database every time, if caching is disabled). */
+  public DeviceCatalog get() {
+    if (!_enabled) {
+      return load();
+    }
+    DeviceCatalog catalog = _catalog;
+    if (catalog == null) {
+      reload();
+      catalog = _catalog;
+    }
+    return catalog;
+  }
+
+  /**
+   * Reload the catalog once the current transaction (if any) commits, so that this server sees its
+   * own changes right away rather than when the notification arrives.
+   */
+  public void reloadAfterCommit() {
+    if (!_enabled) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              reload();
+            }
+          });
+    } else {
+      reload();
+    }
+  }
+
+  private void reload() {
+    long loadNumber = _loadsStarted.incrementAndGet();
+    DeviceCatalog loaded = load();
+    synchronized (this) {
+      // a load that started later saw at least as much of the database as this one did
+      if (loadNumber > _catalogLoadNumber) {
+        _catalog = loaded;
+        _catalogLoadNumber = loadNumber;
+      }
+    }
+  }
+
+  private DeviceCatalog load() {
+    return _loadTemplate.execute(
+        status ->
+            new DeviceCatalog(
+                _deviceTypeRepo.findAll(), _deviceSpecimenRepo.findAllByOrderByCreatedAt()));
+  }
+
+  @SuppressWarnings("checkstyle:IllegalCatch") // the listener must outlive any one failure
+  private void listen() {
+    while (_listening) {
+      try (Connection connection = _dataSource.getConnection();
+          Statement statement = connection.createStatement()) {
+        statement.execute("LISTEN " + CHANNEL);
+        // anything could have changed while we weren't listening
+        reload();
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        while (_listening) {
+          PGNotification[] notifications =
+              pgConnection.getNotifications((int) POLL_INTERVAL.toMillis());
+          if (notifications != null && notifications.length > 0) {
+            LOG.info("Device catalog changed: reloading");
+            reload();
+          }
+        }
+      } catch (SQLException | RuntimeException e) {
+        if (!_listening) {
+          return;
+        }
+        LOG.error("Device catalog listener failed: will reconnect", e);
+        try {
+          Thread.sleep(RECONNECT_DELAY.toMillis());
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+}
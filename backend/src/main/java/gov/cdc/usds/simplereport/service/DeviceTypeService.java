@@ -9,8 +9,11 @@ import gov.cdc.usds.simplereport.db.repository.DeviceSpecimenTypeRepository;
 import gov.cdc.usds.simplereport.db.repository.DeviceTypeRepository;
 import gov.cdc.usds.simplereport.db.repository.SpecimenTypeRepository;
 import gov.cdc.usds.simplereport.service.model.DeviceSpecimenTypeHolder;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -26,24 +29,29 @@ public class DeviceTypeService {
   private DeviceTypeRepository _repo;
   private DeviceSpecimenTypeRepository _deviceSpecimenRepo;
   private SpecimenTypeRepository _specimenTypeRepo;
+  private DeviceCatalogCache _catalogCache;
 
   public DeviceTypeService(
       DeviceTypeRepository repo,
       DeviceSpecimenTypeRepository deviceSpecimenRepo,
-      SpecimenTypeRepository specimenTypeRepo) {
+      SpecimenTypeRepository specimenTypeRepo,
+      DeviceCatalogCache catalogCache) {
     _repo = repo;
     _deviceSpecimenRepo = deviceSpecimenRepo;
     _specimenTypeRepo = specimenTypeRepo;
+    _catalogCache = catalogCache;
   }
 
   @Transactional(readOnly = false)
   @AuthorizationConfiguration.RequireGlobalAdminUser
   public void removeDeviceType(DeviceType d) {
     _repo.delete(d);
+    _catalogCache.reloadAfterCommit();
   }
 
+  /** The device types that have not been deleted (shared, read-only instances). */
   public List<DeviceType> fetchDeviceTypes() {
-    return _repo.findAll();
+    return _catalogCache.get().getDeviceTypes();
   }
 
   public DeviceType getDeviceType(String internalId) {
@@ -56,19 +64,37 @@ public class DeviceTypeService {
   /**
    * Find the original device/specimen type combination created for this DeviceType, since that will
    * be the one that is assumed by callers who aren't aware that you can have multiple specimen
-   * types for a given device type.
+   * types for a given device type. The ID is looked up in the cached catalog, so the only query
+   * left is a primary key lookup (which the current session answers itself, if it has already
+   * loaded the same combination).
    */
   @Deprecated // this is a backward-compatibility shim!
   public DeviceSpecimenType getDefaultForDeviceId(String deviceId) {
     UUID actualDeviceId = UUID.fromString(deviceId);
-    return _deviceSpecimenRepo
-        .findFirstByDeviceTypeInternalIdOrderByCreatedAt(actualDeviceId)
+    return _catalogCache
+        .get()
+        .getDefaultDeviceSpecimenId(actualDeviceId)
+        .flatMap(_deviceSpecimenRepo::findById)
         .orElseThrow(
             () ->
                 new IllegalGraphqlArgumentException(
                     "Device is not configured with a specimen type"));
   }
 
+  /**
+   * Fetch device/specimen type combinations by ID, in one query.
+   *
+   * @return a map from ID to device/specimen type; IDs that are not found, or whose device or
+   *     specimen type has been deleted, are omitted.
+   */
+  public Map<UUID, DeviceSpecimenType> getDeviceSpecimenTypes(Collection<UUID> ids) {
+    if (ids.isEmpty()) {
+      return Map.of();
+    }
+    return _deviceSpecimenRepo.findAllByInternalIdIn(ids).stream()
+        .collect(Collectors.toMap(DeviceSpecimenType::getInternalId, Function.identity()));
+  }
+
   @Transactional(readOnly = false)
   @AuthorizationConfiguration.RequireGlobalAdminUser
   public DeviceType updateDeviceType(
@@ -89,7 +115,9 @@ public class DeviceTypeService {
     if (swabType != null) {
       throw new IllegalGraphqlArgumentException("swab type editing is temporarily unavailable");
     }
-    return _repo.save(d);
+    DeviceType saved = _repo.save(d);
+    _catalogCache.reloadAfterCommit();
+    return saved;
   }
 
   @Transactional(readOnly = false)
@@ -109,6 +137,7 @@ public class DeviceTypeService {
     }
     DeviceType dt = _repo.save(new DeviceType(name, manufacturer, model, loincCode, swabType));
     _deviceSpecimenRepo.save(new DeviceSpecimenType(dt, st));
+    _catalogCache.reloadAfterCommit();
     return dt;
   }
 
@@ -135,15 +164,8 @@ public class DeviceTypeService {
         configuredDeviceTypeIds.stream()
             .map(this::getDefaultForDeviceId)
             .collect(Collectors.toList());
-    UUID defaultId = UUID.fromString(defaultDeviceTypeId);
-    DeviceSpecimenType defaultType =
-        configuredTypes.stream()
-            .filter(dt -> dt.getDeviceType().getInternalId().equals(defaultId))
-            .findFirst()
-            .orElseThrow(
-                () ->
-                    new RuntimeException(
-                        "Inexplicable inability to find device for ID " + defaultId.toString()));
+    // same session, same ID: this is the same instance as the one in the configured list
+    DeviceSpecimenType defaultType = getDefaultForDeviceId(defaultDeviceTypeId);
     return new DeviceSpecimenTypeHolder(defaultType, configuredTypes);
   }
 }
@@ -0,0 +1,127 @@
+package gov.cdc.usds.simplereport.service;
+
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers the parsed and validated form of recently executed GraphQL query documents, so that a
+ * query that has been seen before skips straight to execution. Only documents that passed
+ * validation are kept: the schema never changes while the server is running, so neither does the
+ * outcome of validating them.
+ *
+ * <p>Also remembers the text of recent persisted queries (queries that clients send by the SHA-256
+ * hash of their text, having sent the text itself once), for {@link #resolvePersistedQuery}.
+ *
+ * <p>In both caches, the least recently used entry is dropped when the cache is full.
+ */
+@Component
+public class GraphQlDocumentCache implements PreparsedDocumentProvider {
+
+  private static final int INITIAL_CAPACITY = 16;
+  private static final float LOAD_FACTOR = 0.75f;
+
+  private final Map<String, PreparsedDocumentEntry> _documents;
+  private final Map<String, String> _persistedQueries;
+  private final Counter _hits;
+  private final Counter _misses;
+
+  public GraphQlDocumentCache(
+      @Value("${simple-report.graphql-document-cache.max-size:500}") int maxSize,
+      @Value("${simple-report.graphql-document-cache.persisted-queries-max-size:1000}")
+          int persistedQueriesMaxSize,
+      MeterRegistry meterRegistry) {
+    _documents = lruMap(maxSize);
+    _persistedQueries = lruMap(persistedQueriesMaxSize);
+    _hits = meterRegistry.counter("graphql.document.cache.requests", "result", "hit");
+    _misses = meterRegistry.counter("graphql.document.cache.requests", "result", "miss");
+    meterRegistry.gauge("graphql.document.cache.size", this, GraphQlDocumentCache::size);
+  }
+
+  @Override
+  public PreparsedDocumentEntry getDocument(
+      ExecutionInput executionInput,
+      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+    String query = executionInput.getQuery();
+    if (PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query)) {
+      return persistedQueryNotFound();
+    }
+    synchronized (_documents) {
+      PreparsedDocumentEntry cached = _documents.get(query);
+      if (cached != null) {
+        _hits.increment();
+        return cached;
+      }
+    }
+    _misses.increment();
+    PreparsedDocumentEntry entry = parseAndValidateFunction.apply(executionInput);
+    if (!entry.hasErrors()) {
+      synchronized (_documents) {
+        _documents.put(query, entry);
+      }
+    }
+    return entry;
+  }
+
+  /**
+   * The query text to run for a request that gave a persisted query hash. If the request included
+   * the query as well, that query is remembered under the hash (so long as the hash is right) and
+   * returned; if not, the query remembered under the hash is returned, or {@link
+   * PersistedQuerySupport#PERSISTED_QUERY_MARKER} if there is none (which {@link #getDocument} then
+   * answers with the error that tells the client to send the query again, in full).
+   */
+  public String resolvePersistedQuery(String sha256Hash, String query) {
+    String hash = sha256Hash.toLowerCase(Locale.US);
+    if (query != null && !query.isBlank()) {
+      // never remember a query under a hash it does not have, or it could be run in place of the
+      // one the next client to send that hash meant
+      if (DigestUtils.sha256Hex(query).equals(hash)) {
+        synchronized (_persistedQueries) {
+          _persistedQueries.put(hash, query);
+        }
+      }
+      return query;
+    }
+    synchronized (_persistedQueries) {
+      String known = _persistedQueries.get(hash);
+      return known != null ? known : PersistedQuerySupport.PERSISTED_QUERY_MARKER;
+    }
+  }
+
+  int size() {
+    synchronized (_documents) {
+      return _documents.size();
+    }
+  }
+
+  private static PreparsedDocumentEntry persistedQueryNotFound() {
+    // the message is what clients (like Apollo's persisted query link) look for
+    PersistedQueryNotFound notFound = new PersistedQueryNotFound("unknown");
+    return new PreparsedDocumentEntry(
+        GraphqlErrorBuilder.newError().errorType(notFound).message(notFound.getMessage()).build());
+  }
+
+  // access-ordered, so the eldest entry is the least recently used one
+  private static <V> Map<String, V> lruMap(int maxSize) {
+    return new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+}
@@ -0,0 +1,110 @@
+package gov.cdc.usds.simplereport.service;
+
+import gov.cdc.usds.simplereport.db.model.GraphQlQueryDocument;
+import gov.cdc.usds.simplereport.db.model.auxiliary.GraphQlInputs;
+import gov.cdc.usds.simplereport.db.repository.GraphQlQueryDocumentRepository;
+import graphql.language.AstPrinter;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Stores the GraphQL query documents sent to the API, each one once, so that audit events need only
+ * record the hash of the document they ran.
+ *
+ * <p>Documents are normalized before they are hashed (parsed, then printed without comments or
+ * insignificant whitespace), so that formatting differences do not make for different documents. A
+ * document that does not parse is stored as it was sent. The hashes of recently seen query texts
+ * are remembered, so that the same text is only normalized and stored once in a while; the least
+ * recently used text is forgotten when the cache is full.
+ */
+@Service
+public class GraphQlQueryDocumentService {
+
+  private static final int INITIAL_CAPACITY = 16;
+  private static final float LOAD_FACTOR = 0.75f;
+
+  private final GraphQlQueryDocumentRepository _repo;
+  private final TransactionTemplate _txTemplate;
+  private final Map<String, String> _hashesByQuery;
+
+  public GraphQlQueryDocumentService(
+      GraphQlQueryDocumentRepository repo,
+      PlatformTransactionManager txManager,
+      @Value("${simple-report.graphql-query-documents.cache-size:1000}") int cacheSize) {
+    _repo = repo;
+    // stored whatever happens to the request's own transaction (if it has one)
+    _txTemplate = new TransactionTemplate(txManager);
+    _txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    // access-ordered, so the eldest entry is the least recently used one
+    _hashesByQuery =
+        new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > cacheSize;
+          }
+        };
+  }
+
+  /**
+   * Make sure the (normalized) document for this query text is stored.
+   *
+   * @return the hash of the stored document, or null if there was no query text.
+   */
+  public String store(String query) {
+    if (query == null || query.isBlank()) {
+      return null;
+    }
+    synchronized (_hashesByQuery) {
+      String known = _hashesByQuery.get(query);
+      if (known != null) {
+        return known;
+      }
+    }
+    String document = normalize(query);
+    String hash = hash(document);
+    _txTemplate.executeWithoutResult(status -> _repo.insertIfAbsent(hash, document));
+    synchronized (_hashesByQuery) {
+      _hashesByQuery.put(query, hash);
+    }
+    return hash;
+  }
+
+  /** The stored document with this hash, if there is one. */
+  public Optional<String> getDocument(String hash) {
+    return _repo.findById(hash).map(GraphQlQueryDocument::getDocument);
+  }
+
+  /**
+   * The query recorded in an audit event's inputs: either the text itself, for older events, or the
+   * stored document it refers to.
+   */
+  public Optional<String> getQuery(GraphQlInputs inputs) {
+    if (inputs.getQuery() != null) {
+      return Optional.of(inputs.getQuery());
+    }
+    return Optional.ofNullable(inputs.getQueryHash()).flatMap(this::getDocument);
+  }
+
+  static String normalize(String query) {
+    try {
+      return AstPrinter.printAstCompact(new Parser().parseDocument(query));
+    } catch (InvalidSyntaxException e) {
+      return query;
+    }
+  }
+
+  static String hash(String document) {
+    return DigestUtils.sha256Hex(document);
+  }
+}
@@ -0,0 +1,75 @@
+package gov.cdc.usds.simplereport.service;
+
+import gov.cdc.usds.simplereport.db.model.ApiUser;
+import gov.cdc.usds.simplereport.db.repository.ApiUserRepository;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps track of which users have been seen recently, and periodically records that in a single
+ * bulk update, rather than writing to the user's row on every request. As a result, {@link
+ * ApiUser#getLastSeen()} is only accurate to within the flush interval.
+ */
+@Service
+@SuppressWarnings("checkstyle:IllegalCatch")
+public class LastSeenTracker {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LastSeenTracker.class);
+
+  private final ApiUserRepository _repo;
+  private final TransactionTemplate _txTemplate;
+  private final Set<UUID> _seenUserIds = ConcurrentHashMap.newKeySet();
+
+  public LastSeenTracker(ApiUserRepository repo, PlatformTransactionManager txManager) {
+    _repo = repo;
+    // a template rather than @Transactional, since the shutdown flush does not go through the proxy
+    _txTemplate = new TransactionTemplate(txManager);
+  }
+
+  public void recordSeen(ApiUser user) {
+    _seenUserIds.add(user.getInternalId());
+  }
+
+  @Scheduled(fixedDelayString = "${simple-report.api-user.last-seen-flush-interval:PT1M}")
+  public void flush() {
+    List<UUID> userIds = new ArrayList<>();
+    // remove items one at a time rather than clearing the set, so we do not lose concurrent adds
+    for (Iterator<UUID> it = _seenUserIds.iterator(); it.hasNext(); ) {
+      userIds.add(it.next());
+      it.remove();
+    }
+    if (userIds.isEmpty()) {
+      return;
+    }
+    try {
+      Date now = new Date();
+      int updated = _txTemplate.execute(status -> _repo.updateLastSeen(userIds, now));
+      LOG.debug("Updated last-seen time for {} of {} users", updated, userIds.size());
+    } catch (RuntimeException e) {
+      // put them back for the next attempt
+      _seenUserIds.addAll(userIds);
+      throw e;
+    }
+  }
+
+  @PreDestroy
+  public void flushOnShutdown() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      LOG.warn("Failed to record last-seen times for {} users on shutdown", _seenUserIds.size(), e);
+    }
+  }
+}
@@ -26,6 +26,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
 
 @Service
 @Transactional(readOnly = true)
@@ -38,18 +39,21 @@ public class OrganizationService {
   private ProviderRepository _providerRepo;
   private AuthorizationService _authService;
   private OktaRepository _oktaRepo;
+  private CurrentOrganizationRolesContextHolder _currentOrgRolesContextHolder;
 
   public OrganizationService(
       OrganizationRepository repo,
       FacilityRepository facilityRepo,
       AuthorizationService authService,
       ProviderRepository providerRepo,
-      OktaRepository oktaRepo) {
+      OktaRepository oktaRepo,
+      CurrentOrganizationRolesContextHolder currentOrgRolesContextHolder) {
     _repo = repo;
     _facilityRepo = facilityRepo;
     _authService = authService;
     _providerRepo = providerRepo;
     _oktaRepo = oktaRepo;
+    _currentOrgRolesContextHolder = currentOrgRolesContextHolder;
   }
 
   public void migrateOktaGroups() {
@@ -59,7 +63,29 @@ public class OrganizationService {
     }
   }
 
+  /**
+   * Get the organization and facilities the current user has access to, and their roles there. When
+   * called while servicing a web request, the result is memoized for the rest of that request,
+   * since this is consulted by nearly every permission check; otherwise (e.g. scheduled tasks, or
+   * tests that are not running in a servlet context), it is resolved fresh on each call.
+   */
   public Optional<OrganizationRoles> getCurrentOrganizationRoles() {
+    if (RequestContextHolder.getRequestAttributes() == null) {
+      return fetchCurrentOrganizationRoles();
+    }
+    if (!_currentOrgRolesContextHolder.hasBeenPopulated()) {
+      _currentOrgRolesContextHolder.setOrganizationRoles(fetchCurrentOrganizationRoles());
+    }
+    return _currentOrgRolesContextHolder.getOrganizationRoles();
+  }
+
+  private void resetCurrentOrganizationRoles() {
+    if (RequestContextHolder.getRequestAttributes() != null) {
+      _currentOrgRolesContextHolder.reset();
+    }
+  }
+
+  private Optional<OrganizationRoles> fetchCurrentOrganizationRoles() {
     List<OrganizationRoleClaims> orgRoles = _authService.findAllOrganizationRoles();
     List<String> candidateExternalIds =
         orgRoles.stream()
@@ -235,6 +261,7 @@ public class OrganizationService {
   public Organization updateOrganization(String name) {
     Organization org = getCurrentOrganization();
     org.setOrganizationName(name);
+    resetCurrentOrganizationRoles();
     return _repo.save(org);
   }
 
@@ -268,6 +295,7 @@ public class OrganizationService {
             deviceSpecimenTypes.getFullList());
     facility = _facilityRepo.save(facility);
     _oktaRepo.createFacility(facility);
+    resetCurrentOrganizationRoles();
     return facility;
   }
 }
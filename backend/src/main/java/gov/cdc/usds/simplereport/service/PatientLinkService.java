@@ -105,8 +105,10 @@ public class PatientLinkService {
             .findById(testOrderUuid)
             .orElseThrow(
                 () -> new IllegalGraphqlArgumentException("No test order with that ID was found"));
-    PatientLink pl = new PatientLink(to);
-    return plrepo.save(pl);
+    PatientLink pl = plrepo.save(new PatientLink(to));
+    to.setPatientLink(pl);
+    torepo.save(to);
+    return pl;
   }
 
   public PatientLink expireMyPatientLink() {
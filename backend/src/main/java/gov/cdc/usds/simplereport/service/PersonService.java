@@ -8,15 +8,24 @@ import gov.cdc.usds.simplereport.db.model.Facility;
 import gov.cdc.usds.simplereport.db.model.Organization;
 import gov.cdc.usds.simplereport.db.model.Person;
 import gov.cdc.usds.simplereport.db.model.Person.SpecField;
+import gov.cdc.usds.simplereport.db.model.auxiliary.PersonName;
 import gov.cdc.usds.simplereport.db.model.auxiliary.PersonRole;
 import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestResultDeliveryPreference;
 import gov.cdc.usds.simplereport.db.repository.PersonRepository;
+import gov.cdc.usds.simplereport.db.repository.PersonSearchResults;
+import gov.cdc.usds.simplereport.service.model.PatientPage;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 import java.util.UUID;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
 import javax.validation.constraints.Size;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -34,10 +43,17 @@ public class PersonService {
 
   public static final int DEFAULT_PAGINATION_PAGEOFFSET = 0;
   public static final int DEFAULT_PAGINATION_PAGESIZE = 5000; // this is high because the searchBar
+  public static final int DEFAULT_SEARCH_PAGESIZE = 20;
   static final int MINIMUM_CHAR_FOR_SEARCH = 2;
+  static final int MAXIMUM_SEARCH_TERMS = 5;
+  private static final Pattern SEARCH_TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
 
   private static final Sort NAME_SORT =
       Sort.by("nameInfo.lastName", "nameInfo.firstName", "nameInfo.middleName", "nameInfo.suffix");
+  // NAME_SORT, made into a total order for keyset pagination
+  private static final Sort KEYSET_NAME_SORT = NAME_SORT.and(Sort.by(SpecField.INTERNAL_ID));
+  private static final List<String> KEYSET_NAME_FIELDS =
+      List.of(SpecField.LAST_NAME, SpecField.FIRST_NAME, SpecField.MIDDLE_NAME, SpecField.SUFFIX);
 
   public PersonService(
       OrganizationService os, PersonRepository repo, CurrentPatientContextHolder patientContext) {
@@ -81,6 +97,14 @@ public class PersonService {
                 cb.equal(root.get(SpecField.FACILITY).get(SpecField.INTERNAL_ID), facilityId)));
   }
 
+  private Specification<Person> inFacilityScopeFilter(UUID facilityId) {
+    return facilityId == null ? inAccessibleFacilitiesFilter() : inFacilityFilter(facilityId);
+  }
+
+  private Specification<Person> hasIdFilter(UUID id) {
+    return (root, query, cb) -> cb.equal(root.get(SpecField.INTERNAL_ID), id);
+  }
+
   private Specification<Person> nameMatchesFilter(
       @Size(min = MINIMUM_CHAR_FOR_SEARCH) String namePrefixMatch) {
     String likeString = namePrefixMatch.trim().toLowerCase() + "%";
@@ -94,6 +118,36 @@ public class PersonService {
                 cb.lower(root.get(SpecField.PERSON_NAME).get(SpecField.LAST_NAME)), likeString));
   }
 
+  // Everyone who comes after the given person in KEYSET_NAME_SORT order (where nulls sort last):
+  // that is, who has the same name up to some part and then a later one, or the same name exactly
+  // and a later ID.
+  private Specification<Person> sortsAfterFilter(Person anchor) {
+    PersonName name = anchor.getNameInfo();
+    List<String> anchorValues =
+        Arrays.asList(
+            name.getLastName(), name.getFirstName(), name.getMiddleName(), name.getSuffix());
+    return (root, query, cb) -> {
+      Path<Object> nameInfo = root.get(SpecField.PERSON_NAME);
+      List<Predicate> alternatives = new ArrayList<>();
+      List<Predicate> sameSoFar = new ArrayList<>();
+      for (int i = 0; i < KEYSET_NAME_FIELDS.size(); i++) {
+        Path<String> field = nameInfo.get(KEYSET_NAME_FIELDS.get(i));
+        String anchorValue = anchorValues.get(i);
+        if (anchorValue == null) {
+          sameSoFar.add(cb.isNull(field));
+        } else {
+          List<Predicate> later = new ArrayList<>(sameSoFar);
+          later.add(cb.or(cb.greaterThan(field, anchorValue), cb.isNull(field)));
+          alternatives.add(cb.and(later.toArray(Predicate[]::new)));
+          sameSoFar.add(cb.equal(field, anchorValue));
+        }
+      }
+      sameSoFar.add(cb.greaterThan(root.<UUID>get(SpecField.INTERNAL_ID), anchor.getInternalId()));
+      alternatives.add(cb.and(sameSoFar.toArray(Predicate[]::new)));
+      return cb.or(alternatives.toArray(Predicate[]::new));
+    };
+  }
+
   private Specification<Person> isDeletedFilter(boolean isDeleted) {
     return (root, query, cb) -> cb.equal(root.get(SpecField.IS_DELETED), isDeleted);
   }
@@ -102,12 +156,10 @@ public class PersonService {
   protected Specification<Person> buildPersonSearchFilter(
       UUID facilityId, boolean isArchived, String namePrefixMatch) {
     // build up filter based on params
-    Specification<Person> filter = inCurrentOrganizationFilter().and(isDeletedFilter(isArchived));
-    if (facilityId == null) {
-      filter = filter.and(inAccessibleFacilitiesFilter());
-    } else {
-      filter = filter.and(inFacilityFilter(facilityId));
-    }
+    Specification<Person> filter =
+        inCurrentOrganizationFilter()
+            .and(isDeletedFilter(isArchived))
+            .and(inFacilityScopeFilter(facilityId));
 
     if (StringUtils.isNotBlank(namePrefixMatch)) {
       filter = filter.and(nameMatchesFilter(namePrefixMatch));
@@ -143,6 +195,45 @@ public class PersonService {
         PageRequest.of(pageOffset, pageSize, NAME_SORT));
   }
 
+  /**
+   * Cursor-paginated equivalent of {@link #getPatients}, in the same order.
+   *
+   * @param afterId Null for the first page, otherwise the {@link PatientPage#getNextCursor()} of
+   *     the previous page
+   */
+  @AuthorizationConfiguration.RequireSpecificPatientSearchPermission
+  public PatientPage getPatientsPage(
+      UUID facilityId, UUID afterId, int pageSize, boolean isArchived, String namePrefixMatch) {
+    if (pageSize < 1) {
+      pageSize = DEFAULT_PAGINATION_PAGESIZE;
+    }
+    if (namePrefixMatch != null && namePrefixMatch.trim().length() < MINIMUM_CHAR_FOR_SEARCH) {
+      return new PatientPage(List.of(), pageSize);
+    }
+
+    Specification<Person> filter = buildPersonSearchFilter(facilityId, isArchived, namePrefixMatch);
+    if (afterId != null) {
+      // Look up the sort key of the last patient on the previous page, rather than trusting the
+      // client to send it back to us.
+      filter = filter.and(sortsAfterFilter(findPageAnchor(facilityId, afterId)));
+    }
+    // one extra row tells us whether there is another page
+    return new PatientPage(
+        _repo.findAll(filter, PageRequest.of(0, pageSize + 1, KEYSET_NAME_SORT)), pageSize);
+  }
+
+  // The last patient on the previous page. This is a primary key lookup, limited to the
+  // organization and facilities the page is for, and it still finds them if they have been archived
+  // (or no longer match the name) in the meantime.
+  private Person findPageAnchor(UUID facilityId, UUID afterId) {
+    return _repo
+        .findOne(
+            inCurrentOrganizationFilter()
+                .and(inFacilityScopeFilter(facilityId))
+                .and(hasIdFilter(afterId)))
+        .orElseThrow(() -> new IllegalGraphqlArgumentException("Invalid page cursor"));
+  }
+
   @AuthorizationConfiguration.RequireSpecificPatientSearchPermission
   public long getPatientsCount(UUID facilityId, boolean isArchived, String namePrefixMatch) {
     if (namePrefixMatch != null && namePrefixMatch.trim().length() < MINIMUM_CHAR_FOR_SEARCH) {
@@ -151,6 +242,57 @@ public class PersonService {
     return _repo.count(buildPersonSearchFilter(facilityId, isArchived, namePrefixMatch));
   }
 
+  /**
+   * Ranked name search: every whitespace- or punctuation-separated term in {@code namePrefixMatch}
+   * must be the start of some part of the patient's name, so "smi jo" finds "Smith, John" and "Joe
+   * Smithers". Results are ranked with last-name matches first, and returned a page at a time along
+   * with the total number of matches.
+   *
+   * @param facilityId If null, then it means across all accessible facilities
+   * @param isArchived true will ONLY search deleted patients
+   * @param namePrefixMatch The search terms. At least MINIMUM_CHAR_FOR_SEARCH letters or digits are
+   *     needed, or no patients are returned.
+   * @param afterId Null for the first page, otherwise the {@link
+   *     PersonSearchResults#getNextCursor()} of the previous page
+   * @param pageSize How many results to return, zero will result in the default search page size
+   */
+  @AuthorizationConfiguration.RequireSpecificPatientSearchPermission
+  public PersonSearchResults searchPatients(
+      UUID facilityId, boolean isArchived, String namePrefixMatch, UUID afterId, int pageSize) {
+    if (pageSize < 1) {
+      pageSize = DEFAULT_SEARCH_PAGESIZE;
+    }
+    List<String> terms = toSearchTerms(namePrefixMatch);
+    if (terms.stream().mapToInt(String::length).sum() < MINIMUM_CHAR_FOR_SEARCH) {
+      return new PersonSearchResults(List.of(), 0, false);
+    }
+    if (afterId != null) {
+      // the search re-reads the anchor's sort key itself, but only after we know it is in scope
+      findPageAnchor(facilityId, afterId);
+    }
+
+    Set<UUID> facilityIds =
+        facilityId == null
+            ? _os.getAccessibleFacilities().stream()
+                .map(Facility::getInternalId)
+                .collect(Collectors.toSet())
+            : Set.of(facilityId);
+    return _repo.searchByName(
+        _os.getCurrentOrganization(), facilityIds, isArchived, terms, afterId, pageSize);
+  }
+
+  // "Smith, Jo" => ["smith", "jo"]
+  static List<String> toSearchTerms(String namePrefixMatch) {
+    if (namePrefixMatch == null) {
+      return List.of();
+    }
+    return SEARCH_TERM_SEPARATOR
+        .splitAsStream(namePrefixMatch.toLowerCase(Locale.ROOT))
+        .filter(t -> !t.isEmpty())
+        .limit(MAXIMUM_SEARCH_TERMS)
+        .collect(Collectors.toList());
+  }
+
   // NO PERMISSION CHECK (make sure the caller has one!) getPatient()
   public Person getPatientNoPermissionsCheck(UUID id) {
     return getPatientNoPermissionsCheck(id, _os.getCurrentOrganization());
@@ -213,6 +355,18 @@ public class PersonService {
     return _repo.save(newPatient);
   }
 
+  /**
+   * Saves new patients in a single transaction, with their inserts batched together. The caller is
+   * responsible for having set each patient's organization (and facility, if any) to one the
+   * current user belongs to.
+   */
+  @AuthorizationConfiguration.RequireGlobalAdminUser
+  public List<Person> addPatients(List<Person> newPatients) {
+    List<Person> saved = new ArrayList<>(newPatients.size());
+    _repo.saveAll(newPatients).forEach(saved::add);
+    return saved;
+  }
+
   // IMPLICIT AUTHORIZATION: this fetches the current patient after a patient link
   // is verified, so there is no authorization check
   public Person updateMe(
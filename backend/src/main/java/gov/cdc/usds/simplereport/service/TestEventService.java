@@ -1,9 +1,15 @@
 package gov.cdc.usds.simplereport.service;
 
 import gov.cdc.usds.simplereport.config.AuthorizationConfiguration;
+import gov.cdc.usds.simplereport.db.model.AuditedEntity;
 import gov.cdc.usds.simplereport.db.model.Person;
 import gov.cdc.usds.simplereport.db.model.TestEvent;
 import gov.cdc.usds.simplereport.db.repository.TestEventRepository;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,4 +30,23 @@ public class TestEventService {
   public TestEvent getLastTestResultsForPatientPermRestricted(Person patient) {
     return getLastTestResultsForPatient(patient);
   }
+
+  /**
+   * Batch version of {@link #getLastTestResultsForPatientPermRestricted(Person)}: fetch the most
+   * recent test event for each of the given patients in a single query.
+   *
+   * @return a map from patient ID to that patient's latest test event. Patients who have never been
+   *     tested are not present in the map.
+   */
+  @AuthorizationConfiguration.RequirePermissionStartTestForPatients
+  public Map<UUID, TestEvent> getLastTestResultsForPatientsPermRestricted(
+      Collection<Person> patients) {
+    if (patients.isEmpty()) {
+      return Map.of();
+    }
+    Collection<UUID> patientIds =
+        patients.stream().map(AuditedEntity::getInternalId).collect(Collectors.toSet());
+    return _terepo.findLatestByPatientIds(patientIds).stream()
+        .collect(Collectors.toMap(e -> e.getPatient().getInternalId(), Function.identity()));
+  }
 }
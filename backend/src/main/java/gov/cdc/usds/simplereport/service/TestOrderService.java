@@ -1,9 +1,9 @@
 package gov.cdc.usds.simplereport.service;
 
-import com.google.i18n.phonenumbers.NumberParseException;
 import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentException;
 import gov.cdc.usds.simplereport.api.pxp.CurrentPatientContextHolder;
 import gov.cdc.usds.simplereport.config.AuthorizationConfiguration;
+import gov.cdc.usds.simplereport.config.authorization.UserAuthorizationVerifier;
 import gov.cdc.usds.simplereport.db.model.DeviceSpecimenType;
 import gov.cdc.usds.simplereport.db.model.Facility;
 import gov.cdc.usds.simplereport.db.model.Organization;
@@ -19,13 +19,23 @@ import gov.cdc.usds.simplereport.db.model.auxiliary.TestResultDeliveryPreference
 import gov.cdc.usds.simplereport.db.repository.PatientAnswersRepository;
 import gov.cdc.usds.simplereport.db.repository.TestEventRepository;
 import gov.cdc.usds.simplereport.db.repository.TestOrderRepository;
-import gov.cdc.usds.simplereport.service.sms.SmsService;
+import gov.cdc.usds.simplereport.service.model.AddTestResultOutcome;
+import gov.cdc.usds.simplereport.service.model.TestResultEntry;
+import gov.cdc.usds.simplereport.service.model.TestResultPage;
+import gov.cdc.usds.simplereport.service.sms.SmsOutboxService;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
@@ -45,7 +55,8 @@ public class TestOrderService {
   private PatientAnswersRepository _parepo;
   private TestEventRepository _terepo;
   private PatientLinkService _pls;
-  private SmsService _smss;
+  private SmsOutboxService _smsOutbox;
+  private UserAuthorizationVerifier _authVerifier;
   private final CurrentPatientContextHolder _patientContext;
 
   @Value("${simple-report.patient-link-url:https://simplereport.gov/pxp?plid=}")
@@ -62,7 +73,8 @@ public class TestOrderService {
       TestEventRepository terepo,
       PersonService ps,
       PatientLinkService pls,
-      SmsService smss,
+      SmsOutboxService smsOutbox,
+      UserAuthorizationVerifier authVerifier,
       CurrentPatientContextHolder patientContext) {
     _patientContext = patientContext;
     _os = os;
@@ -72,7 +84,8 @@ public class TestOrderService {
     _parepo = parepo;
     _terepo = terepo;
     _pls = pls;
-    _smss = smss;
+    _smsOutbox = smsOutbox;
+    _authVerifier = authVerifier;
   }
 
   @AuthorizationConfiguration.RequirePermissionStartTestAtFacility
@@ -88,6 +101,28 @@ public class TestOrderService {
     return _terepo.getTestEventResults(fac.getInternalId(), PageRequest.of(pageOffset, pageSize));
   }
 
+  /**
+   * Cursor-paginated equivalent of {@link #getTestEventsResults}: most recent first, starting after
+   * the test event with ID {@code afterId} (or at the beginning if it is null).
+   */
+  @Transactional(readOnly = true)
+  @AuthorizationConfiguration.RequirePermissionReadResultListAtFacility
+  public TestResultPage getTestEventsResultsPage(UUID facilityId, UUID afterId, int pageSize) {
+    Facility fac = _os.getFacilityInCurrentOrg(facilityId); // org access is checked here
+    if (pageSize < 1) {
+      pageSize = DEFAULT_PAGINATION_PAGESIZE;
+    }
+    if (afterId != null && !_terepo.existsByFacilityAndInternalId(fac, afterId)) {
+      throw new IllegalGraphqlArgumentException("Invalid page cursor");
+    }
+    // one extra row tells us whether there is another page
+    List<TestEvent> fetched =
+        afterId == null
+            ? _terepo.getTestEventResultsFirstPage(fac.getInternalId(), pageSize + 1)
+            : _terepo.getTestEventResultsAfter(fac.getInternalId(), afterId, pageSize + 1);
+    return new TestResultPage(fetched, pageSize);
+  }
+
   public int getTestResultsCount(UUID facilityId) {
     Facility fac = _os.getFacilityInCurrentOrg(facilityId); // org access is checked here
     return _terepo.getTestResultsCount(fac.getInternalId());
@@ -108,6 +143,41 @@ public class TestOrderService {
     return _terepo.findAllByPatientAndFacilities(patient, _os.getAccessibleFacilities());
   }
 
+  /**
+   * Batch version of {@link #getTestResults(Person)}.
+   *
+   * @return a map from patient ID to the list of that patient's test events at facilities the
+   *     current user can access. Every requested patient is present, possibly with an empty list.
+   */
+  @Transactional(readOnly = true)
+  @AuthorizationConfiguration.RequirePermissionReadResultListForPatients
+  public Map<UUID, List<TestEvent>> getTestResultsForPatients(Collection<Person> patients) {
+    Map<UUID, List<TestEvent>> results = new HashMap<>();
+    patients.forEach(p -> results.put(p.getInternalId(), new ArrayList<>()));
+    Set<Facility> facilities = _os.getAccessibleFacilities();
+    if (results.isEmpty() || facilities.isEmpty()) {
+      return results;
+    }
+    _terepo
+        .findAllByPatientIdsAndFacilities(results.keySet(), facilities)
+        .forEach(e -> results.get(e.getPatient().getInternalId()).add(e));
+    return results;
+  }
+
+  /**
+   * Fetch test orders (along with their current patient links) in the current organization.
+   *
+   * @return a map from order ID to order; IDs not found in the current organization, or at a
+   *     facility the current user cannot access, are omitted.
+   */
+  @Transactional(readOnly = true)
+  @AuthorizationConfiguration.RequirePermissionReadResultListForTestOrders
+  public Map<UUID, TestOrder> getTestOrders(Collection<UUID> ids) {
+    Organization org = _os.getCurrentOrganization();
+    return _repo.findAllByOrganizationAndInternalIdIn(org, ids).stream()
+        .collect(Collectors.toMap(TestOrder::getInternalId, Function.identity()));
+  }
+
   @Transactional(readOnly = true)
   public TestOrder getTestOrder(UUID id) {
     Organization org = _os.getCurrentOrganization();
@@ -134,8 +204,7 @@ public class TestOrderService {
   @AuthorizationConfiguration.RequirePermissionSubmitTestForPatient
   @Deprecated // switch to using device specimen ID, using methods that ... don't exist yet!
   public TestOrder addTestResult(
-      String deviceID, TestResult result, UUID patientId, Date dateTested)
-      throws NumberParseException {
+      String deviceID, TestResult result, UUID patientId, Date dateTested) {
     DeviceSpecimenType deviceSpecimen = _dts.getDefaultForDeviceId(deviceID);
     Organization org = _os.getCurrentOrganization();
     Person person = _ps.getPatientNoPermissionsCheck(patientId, org);
@@ -151,19 +220,111 @@ public class TestOrderService {
 
     order.setTestEventRef(testEvent);
     TestOrder savedOrder = _repo.save(order);
+    _terepo.recordCurrentResult(testEvent.getInternalId());
 
-    if (TestResultDeliveryPreference.SMS == person.getTestResultDelivery()) {
-      // After adding test result, create a new patient link and text it to the patient
-      PatientLink patientLink = _pls.createPatientLink(savedOrder.getInternalId());
-      UUID internalId = patientLink.getInternalId();
-      _smss.sendToPatientLink(
-          internalId, "Your Covid-19 test result is ready to view: " + patientLinkUrl + internalId);
-      savedOrder.setPatientLink(patientLink);
-    }
+    sendResultToPatient(savedOrder);
 
     return savedOrder;
   }
 
+  /**
+   * Record results for many patients in the testing queue at once. Each entry is checked on its
+   * own, and rejected (with the reason in its outcome) if it cannot be applied; all the others are
+   * saved together. Queue entries and device/specimen types are each looked up in a single query,
+   * and the test events are inserted in JDBC batches, rather than all of that being done once per
+   * entry.
+   *
+   * @return one outcome per entry, in the same order as the entries.
+   */
+  @AuthorizationConfiguration.RequirePermissionSubmitTest
+  public List<AddTestResultOutcome> addTestResults(List<TestResultEntry> entries) {
+    Organization org = _os.getCurrentOrganization();
+    Map<UUID, Long> entriesPerPatient =
+        entries.stream()
+            .collect(Collectors.groupingBy(TestResultEntry::getPatientId, Collectors.counting()));
+    Map<UUID, List<TestOrder>> queueItems =
+        _repo.fetchQueueItemsByPatientIds(org, entriesPerPatient.keySet()).stream()
+            .collect(Collectors.groupingBy(o -> o.getPatient().getInternalId()));
+    Set<TestOrder> submittable =
+        _authVerifier.queueItemsUserCanView(
+            queueItems.values().stream().flatMap(List::stream).collect(Collectors.toList()));
+    Map<UUID, DeviceSpecimenType> deviceSpecimens =
+        _dts.getDeviceSpecimenTypes(
+            entries.stream()
+                .map(TestResultEntry::getDeviceSpecimenTypeId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+
+    List<AddTestResultOutcome> outcomes = new ArrayList<>();
+    List<TestOrder> completed = new ArrayList<>();
+    List<TestEvent> events = new ArrayList<>();
+    for (TestResultEntry entry : entries) {
+      UUID patientId = entry.getPatientId();
+      try {
+        if (entriesPerPatient.get(patientId) > 1) {
+          throw new IllegalGraphqlArgumentException(
+              "Cannot submit more than one result for the same patient");
+        }
+        List<TestOrder> patientOrders = queueItems.getOrDefault(patientId, List.of());
+        if (patientOrders.size() != 1 || !submittable.contains(patientOrders.get(0))) {
+          throw noSuchOrderFound();
+        }
+        TestOrder order = patientOrders.get(0);
+        TestResult result = parseTestResult(entry.getResult());
+        DeviceSpecimenType deviceSpecimen = deviceSpecimens.get(entry.getDeviceSpecimenTypeId());
+        if (deviceSpecimen == null) {
+          throw new IllegalGraphqlArgumentException("Invalid device/specimen type ID");
+        }
+
+        order.setDeviceSpecimen(deviceSpecimen);
+        order.setResult(result);
+        order.setDateTestedBackdate(entry.getDateTested());
+        order.markComplete();
+        events.add(new TestEvent(order));
+        completed.add(order);
+        outcomes.add(AddTestResultOutcome.success(patientId, order));
+      } catch (IllegalArgumentException e) {
+        outcomes.add(AddTestResultOutcome.error(patientId, e.getMessage()));
+      }
+    }
+    if (events.isEmpty()) {
+      return outcomes;
+    }
+
+    _terepo.saveAll(events);
+    for (int i = 0; i < completed.size(); i++) {
+      completed.get(i).setTestEventRef(events.get(i));
+    }
+    _repo.saveAll(completed);
+    _terepo.recordCurrentResults(
+        events.stream().map(TestEvent::getInternalId).collect(Collectors.toList()));
+    completed.forEach(this::sendResultToPatient);
+    return outcomes;
+  }
+
+  private static TestResult parseTestResult(String result) {
+    try {
+      return TestResult.valueOf(String.valueOf(result));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalGraphqlArgumentException("Invalid test result: " + result);
+    }
+  }
+
+  /**
+   * If the patient wants their result by text, create a new patient link and queue a text to the
+   * patient (sent once this transaction commits).
+   */
+  private void sendResultToPatient(TestOrder completedOrder) {
+    if (TestResultDeliveryPreference.SMS == completedOrder.getPatient().getTestResultDelivery()) {
+      PatientLink patientLink = _pls.createPatientLink(completedOrder.getInternalId());
+      UUID internalId = patientLink.getInternalId();
+      _smsOutbox.enqueue(
+          patientLink,
+          "Your Covid-19 test result is ready to view: " + patientLinkUrl + internalId);
+      completedOrder.setPatientLink(patientLink);
+    }
+  }
+
   @AuthorizationConfiguration.RequirePermissionStartTestAtFacility
   public TestOrder addPatientToQueue(
       UUID facilityId,
@@ -341,6 +502,7 @@ public class TestOrderService {
     // correction,
     // what date should be shown if the original test being corrected was backdated?
     _repo.save(order);
+    _terepo.recordCurrentResult(newRemoveEvent.getInternalId());
 
     return newRemoveEvent;
   }
@@ -16,32 +16,89 @@ import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
 import com.fasterxml.jackson.dataformat.csv.CsvMapper;
 import com.fasterxml.jackson.dataformat.csv.CsvParser;
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.smartystreets.api.us_street.Lookup;
 import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentException;
 import gov.cdc.usds.simplereport.config.AuthorizationConfiguration;
+import gov.cdc.usds.simplereport.db.model.Facility;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.model.Person;
+import gov.cdc.usds.simplereport.db.model.auxiliary.PersonRole;
 import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
+import gov.cdc.usds.simplereport.service.model.PatientImportResult;
+import gov.cdc.usds.simplereport.service.model.PatientImportResult.RowError;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import javax.persistence.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /** Created by nickrobison on 11/21/20 */
 @Service
 @Transactional
 public class UploadService {
+  private static final Logger LOG = LoggerFactory.getLogger(UploadService.class);
   private static final String FACILITY_ID = "facilityId";
   private static final int MAX_LINE_LENGTH = 1024 * 6;
 
   private final PersonService _ps;
   private final AddressValidationService _avs;
+  private final OrganizationService _os;
+  private final int _importChunkSize;
+  private final ExecutorService _addressValidationExecutor;
+  private final long _addressValidationIntervalNanos;
+  private long _nextAddressValidationAt = System.nanoTime();
   private boolean hasHeaderRow = false;
 
-  public UploadService(PersonService ps, AddressValidationService avs) {
+  public UploadService(
+      PersonService ps,
+      AddressValidationService avs,
+      OrganizationService os,
+      @Value("${simple-report.patient-import.chunk-size:500}") int importChunkSize,
+      @Value("${simple-report.patient-import.address-validation-concurrency:4}")
+          int addressValidationConcurrency,
+      @Value("${simple-report.patient-import.address-validations-per-second:10}")
+          double addressValidationsPerSecond) {
     this._ps = ps;
     this._avs = avs;
+    this._os = os;
+    this._importChunkSize = importChunkSize;
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("address-validation-");
+    threadFactory.setDaemon(true);
+    this._addressValidationExecutor =
+        Executors.newFixedThreadPool(addressValidationConcurrency, threadFactory);
+    this._addressValidationIntervalNanos =
+        (long) (TimeUnit.SECONDS.toNanos(1) / addressValidationsPerSecond);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    _addressValidationExecutor.shutdownNow();
   }
 
   private MappingIterator<Map<String, String>> getIteratorForCsv(InputStream csvStream)
@@ -134,6 +191,227 @@ public class UploadService {
     return "Successfully uploaded " + rowNumber + " record(s)";
   }
 
+  /**
+   * Imports patients from a CSV file, saving every valid row rather than stopping at the first
+   * invalid one. Rows are parsed as they are read; each chunk of rows then has its addresses
+   * validated in batches (several batches at once, and no more batches per second than configured)
+   * and is saved in its own transaction, so a large file neither holds one transaction open for the
+   * whole import nor waits on one address lookup at a time. If a chunk cannot be saved, its rows
+   * are saved one at a time, so that one bad row does not cost the whole chunk.
+   *
+   * @return the number of patients saved, and the reason each other row was not
+   * @throws IllegalGraphqlArgumentException if the file is empty or is not a CSV file at all
+   */
+  @AuthorizationConfiguration.RequireGlobalAdminUser
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public PatientImportResult importPersonCSV(InputStream csvStream) {
+    final MappingIterator<Map<String, String>> valueIterator = getIteratorForCsv(csvStream);
+    if (hasHeaderRow && !valueIterator.hasNext()) {
+      throw new IllegalGraphqlArgumentException("Empty or invalid CSV submitted");
+    }
+
+    int imported = 0;
+    List<RowError> errors = new ArrayList<>();
+    Organization org = _os.getCurrentOrganization();
+    Map<UUID, Optional<Facility>> facilities = new HashMap<>();
+    List<PendingPatient> chunk = new ArrayList<>(_importChunkSize);
+    int rowNumber = 0;
+    while (valueIterator.hasNext()) {
+      rowNumber++;
+      try {
+        chunk.add(parsePatientRow(rowNumber, getNextRow(valueIterator)));
+      } catch (IllegalArgumentException e) {
+        errors.add(new RowError(rowNumber, e.getMessage()));
+      }
+      if (chunk.size() == _importChunkSize) {
+        imported += importChunk(chunk, org, facilities, errors);
+        chunk.clear();
+      }
+    }
+    if (!chunk.isEmpty()) {
+      imported += importChunk(chunk, org, facilities, errors);
+    }
+    return new PatientImportResult(imported, errors);
+  }
+
+  private PendingPatient parsePatientRow(int rowNumber, Map<String, String> row) {
+    Lookup lookup =
+        AddressValidationService.getStrictLookup(
+            getRow(row, "Street", true),
+            getRow(row, "Street2", false),
+            getRow(row, "City", false),
+            getRow(row, "State", true),
+            getRow(row, "ZipCode", true));
+    UUID facilityId = parseUUID(getRow(row, FACILITY_ID, false));
+    String firstName = parseString(getRow(row, "FirstName", true));
+    String middleName = parseString(getRow(row, "MiddleName", false));
+    String lastName = parseString(getRow(row, "LastName", true));
+    String suffix = parseString(getRow(row, "Suffix", false));
+    LocalDate birthDate = parseUserShortDate(getRow(row, "DOB", true));
+    String telephone = parsePhoneNumber(getRow(row, "PhoneNumber", true));
+    PersonRole role = parsePersonRole(getRow(row, "Role", false));
+    String email = parseEmail(getRow(row, "Email", false));
+    String race = parseRaceDisplayValue(getRow(row, "Race", false));
+    String ethnicity = parseEthnicity(getRow(row, "Ethnicity", false));
+    String gender = parseGender(getRow(row, "biologicalSex", false));
+    Boolean residentCongregateSetting = parseYesNo(getRow(row, "residentCongregateSetting", true));
+    Boolean employedInHealthcare = parseYesNo(getRow(row, "employedInHealthcare", true));
+    return new PendingPatient(
+        rowNumber,
+        facilityId,
+        lookup,
+        (org, address) ->
+            new Person(
+                org,
+                null, // lookupID. this field is deprecated
+                firstName,
+                middleName,
+                lastName,
+                suffix,
+                birthDate,
+                address,
+                telephone,
+                role,
+                email,
+                race,
+                ethnicity,
+                gender,
+                residentCongregateSetting,
+                employedInHealthcare));
+  }
+
+  /** @return the number of patients saved */
+  private int importChunk(
+      List<PendingPatient> chunk,
+      Organization org,
+      Map<UUID, Optional<Facility>> facilities,
+      List<RowError> errors) {
+    int batchSize = AddressValidationService.MAX_BATCH_SIZE;
+    List<CompletableFuture<List<Optional<StreetAddress>>>> validations = new ArrayList<>();
+    for (int start = 0; start < chunk.size(); start += batchSize) {
+      List<Lookup> lookups =
+          batch(chunk, start, batchSize).stream().map(p -> p.lookup).collect(Collectors.toList());
+      validations.add(
+          CompletableFuture.supplyAsync(
+              () -> {
+                awaitAddressValidationSlot();
+                return _avs.getValidatedAddresses(lookups);
+              },
+              _addressValidationExecutor));
+    }
+
+    // each patient is made afresh when it is saved, so that it can be saved again on its own if
+    // saving the whole chunk fails (which, depending on where the database rejects a row, comes
+    // back as a translated DataAccessException, a raw PersistenceException, or a failed commit)
+    List<Supplier<Person>> toSave = new ArrayList<>(chunk.size());
+    List<Integer> toSaveRows = new ArrayList<>(chunk.size());
+    for (int b = 0; b < validations.size(); b++) {
+      List<PendingPatient> batch = batch(chunk, b * batchSize, batchSize);
+      List<Optional<StreetAddress>> addresses;
+      try {
+        addresses = validations.get(b).join();
+      } catch (CompletionException e) {
+        batch.forEach(p -> errors.add(new RowError(p.rowNumber, e.getCause().getMessage())));
+        continue;
+      }
+      for (int i = 0; i < batch.size(); i++) {
+        PendingPatient pending = batch.get(i);
+        if (addresses.get(i).isEmpty()) {
+          errors.add(
+              new RowError(pending.rowNumber, "The address you entered could not be verified"));
+          continue;
+        }
+        Optional<Facility> facility = Optional.empty();
+        if (pending.facilityId != null) {
+          facility = facilities.computeIfAbsent(pending.facilityId, this::findFacility);
+          if (facility.isEmpty()) {
+            errors.add(new RowError(pending.rowNumber, "facility could not be found"));
+            continue;
+          }
+        }
+        StreetAddress address = addresses.get(i).get();
+        Facility patientFacility = facility.orElse(null);
+        toSave.add(
+            () -> {
+              Person person = pending.toPerson.apply(org, address);
+              person.setFacility(patientFacility);
+              return person;
+            });
+        toSaveRows.add(pending.rowNumber);
+      }
+    }
+
+    if (toSave.isEmpty()) {
+      return 0;
+    }
+    try {
+      _ps.addPatients(toSave.stream().map(Supplier::get).collect(Collectors.toList()));
+      return toSave.size();
+    } catch (DataAccessException | PersistenceException | TransactionException e) {
+      LOG.warn("Failed to save a chunk of imported patients: saving them one at a time", e);
+    }
+    int saved = 0;
+    for (int i = 0; i < toSave.size(); i++) {
+      try {
+        _ps.addPatients(List.of(toSave.get(i).get()));
+        saved++;
+      } catch (DataAccessException | PersistenceException | TransactionException e) {
+        LOG.error("Failed to save imported patient on row {}", toSaveRows.get(i), e);
+        errors.add(new RowError(toSaveRows.get(i), "The patient could not be saved"));
+      }
+    }
+    return saved;
+  }
+
+  /**
+   * Wait until this server may send another address validation request without going over the
+   * configured rate.
+   */
+  private void awaitAddressValidationSlot() {
+    long slot;
+    synchronized (this) {
+      slot = Math.max(System.nanoTime(), _nextAddressValidationAt);
+      _nextAddressValidationAt = slot + _addressValidationIntervalNanos;
+    }
+    try {
+      TimeUnit.NANOSECONDS.sleep(slot - System.nanoTime());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted waiting to validate addresses", e);
+    }
+  }
+
+  private Optional<Facility> findFacility(UUID facilityId) {
+    try {
+      return Optional.of(_os.getFacilityInCurrentOrg(facilityId));
+    } catch (IllegalGraphqlArgumentException e) {
+      return Optional.empty();
+    }
+  }
+
+  private static <T> List<T> batch(List<T> list, int start, int batchSize) {
+    return list.subList(start, Math.min(start + batchSize, list.size()));
+  }
+
+  /** A parsed row whose address has not yet been validated. */
+  private static class PendingPatient {
+    private final int rowNumber;
+    private final UUID facilityId;
+    private final Lookup lookup;
+    private final BiFunction<Organization, StreetAddress, Person> toPerson;
+
+    PendingPatient(
+        int rowNumber,
+        UUID facilityId,
+        Lookup lookup,
+        BiFunction<Organization, StreetAddress, Person> toPerson) {
+      this.rowNumber = rowNumber;
+      this.facilityId = facilityId;
+      this.lookup = lookup;
+      this.toPerson = toPerson;
+    }
+  }
+
   private static CsvSchema personSchema(boolean hasHeaderRow) {
     // using both addColumn and setUseHeader() causes offset issues (columns don't align). use one
     // or the other.
@@ -0,0 +1,47 @@
+package gov.cdc.usds.simplereport.service.model;
+
+import gov.cdc.usds.simplereport.db.model.TestOrder;
+import java.util.UUID;
+
+/**
+ * What happened to one entry of a batch of test results: either the completed test order, or why
+ * the entry was rejected.
+ */
+public class AddTestResultOutcome {
+
+  private final UUID _patientId;
+  private final TestOrder _testOrder;
+  private final String _error;
+
+  private AddTestResultOutcome(UUID patientId, TestOrder testOrder, String error) {
+    _patientId = patientId;
+    _testOrder = testOrder;
+    _error = error;
+  }
+
+  public static AddTestResultOutcome success(UUID patientId, TestOrder testOrder) {
+    return new AddTestResultOutcome(patientId, testOrder, null);
+  }
+
+  public static AddTestResultOutcome error(UUID patientId, String error) {
+    return new AddTestResultOutcome(patientId, null, error);
+  }
+
+  public UUID getPatientId() {
+    return _patientId;
+  }
+
+  /** The completed test order, or null if this entry was rejected. */
+  public TestOrder getTestOrder() {
+    return _testOrder;
+  }
+
+  /** Why this entry was rejected, or null if it was not. */
+  public String getError() {
+    return _error;
+  }
+
+  public boolean isSuccess() {
+    return _error == null;
+  }
+}
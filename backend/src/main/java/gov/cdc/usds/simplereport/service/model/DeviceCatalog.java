@@ -0,0 +1,44 @@
+package gov.cdc.usds.simplereport.service.model;
+
+import gov.cdc.usds.simplereport.db.model.DeviceSpecimenType;
+import gov.cdc.usds.simplereport.db.model.DeviceType;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * An immutable snapshot of the device-type reference list. The entities it holds are detached and
+ * shared between requests: they may be read, but must not be modified or attached to a session.
+ */
+public final class DeviceCatalog {
+
+  private final List<DeviceType> _deviceTypes;
+  private final Map<UUID, UUID> _defaultDeviceSpecimenIds;
+
+  /**
+   * @param deviceTypes the device types that have not been deleted.
+   * @param deviceSpecimenTypes every device/specimen type combination (deleted or not), oldest
+   *     first.
+   */
+  public DeviceCatalog(List<DeviceType> deviceTypes, List<DeviceSpecimenType> deviceSpecimenTypes) {
+    _deviceTypes = List.copyOf(deviceTypes);
+    Map<UUID, UUID> defaults = new HashMap<>();
+    deviceSpecimenTypes.forEach(
+        dst -> defaults.putIfAbsent(dst.getDeviceType().getInternalId(), dst.getInternalId()));
+    _defaultDeviceSpecimenIds = Map.copyOf(defaults);
+  }
+
+  public List<DeviceType> getDeviceTypes() {
+    return _deviceTypes;
+  }
+
+  /**
+   * The ID of the original device/specimen type combination created for this device type, if there
+   * is one.
+   */
+  public Optional<UUID> getDefaultDeviceSpecimenId(UUID deviceTypeId) {
+    return Optional.ofNullable(_defaultDeviceSpecimenIds.get(deviceTypeId));
+  }
+}
@@ -0,0 +1,45 @@
+package gov.cdc.usds.simplereport.service.model;
+
+import gov.cdc.usds.simplereport.db.model.AuditedEntity;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One page of a keyset-paginated list: rather than skipping some number of rows, the next page is
+ * fetched by asking for the rows that sort after the last one on this page, so later pages cost no
+ * more than the first and are not shifted by rows added in the meantime.
+ *
+ * @param <T> the type of entity being paged through.
+ */
+public abstract class KeysetPage<T extends AuditedEntity> {
+
+  private final List<T> _items;
+  private final UUID _nextCursor;
+
+  /**
+   * @param fetched the result of a query for up to {@code pageSize + 1} rows: the extra row, if it
+   *     was found, is not part of this page and only shows that there is another one.
+   * @param pageSize the number of rows requested.
+   */
+  protected KeysetPage(List<T> fetched, int pageSize) {
+    if (fetched.size() > pageSize) {
+      _items = List.copyOf(fetched.subList(0, pageSize));
+      _nextCursor = _items.get(pageSize - 1).getInternalId();
+    } else {
+      _items = List.copyOf(fetched);
+      _nextCursor = null;
+    }
+  }
+
+  protected List<T> getItems() {
+    return _items;
+  }
+
+  /**
+   * The cursor to pass back to fetch the following page (the ID of the last row on this one), or
+   * null if this is the last page.
+   */
+  public UUID getNextCursor() {
+    return _nextCursor;
+  }
+}
@@ -4,21 +4,26 @@ import gov.cdc.usds.simplereport.config.authorization.OrganizationRole;
 import gov.cdc.usds.simplereport.config.authorization.PermissionHolder;
 import gov.cdc.usds.simplereport.db.model.Facility;
 import gov.cdc.usds.simplereport.db.model.Organization;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Set;
 
+/**
+ * The organization, facilities and roles that a user has been granted. Instances are shared across
+ * the permission checks of an entire request, so they are not modifiable once created.
+ */
 public class OrganizationRoles implements PermissionHolder {
 
-  private Organization _organization;
-  private Set<Facility> _facilities;
-  private Set<OrganizationRole> _roles;
+  private final Organization _organization;
+  private final Set<Facility> _facilities;
+  private final Set<OrganizationRole> _roles;
 
   public OrganizationRoles(
       Organization organization, Set<Facility> facilities, Set<OrganizationRole> roles) {
     super();
     this._organization = organization;
-    this._facilities = facilities;
-    this._roles = EnumSet.copyOf(roles);
+    this._facilities = Collections.unmodifiableSet(facilities);
+    this._roles = Collections.unmodifiableSet(EnumSet.copyOf(roles));
   }
 
   public Organization getOrganization() {
@@ -0,0 +1,49 @@
+package gov.cdc.usds.simplereport.service.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/** The outcome of a bulk patient import: how many rows were saved, and why the others were not. */
+public class PatientImportResult {
+
+  private final int _importedCount;
+  private final List<RowError> _errors;
+
+  public PatientImportResult(int importedCount, Collection<RowError> errors) {
+    _importedCount = importedCount;
+    List<RowError> sorted = new ArrayList<>(errors);
+    sorted.sort(Comparator.comparingInt(RowError::getRow));
+    _errors = Collections.unmodifiableList(sorted);
+  }
+
+  public int getImportedCount() {
+    return _importedCount;
+  }
+
+  /** The rows that were not imported, in file order. */
+  public List<RowError> getErrors() {
+    return _errors;
+  }
+
+  /** A row of the uploaded file (numbered from 1, not counting any header) that was rejected. */
+  public static class RowError {
+    private final int _row;
+    private final String _message;
+
+    public RowError(int row, String message) {
+      _row = row;
+      _message = message;
+    }
+
+    public int getRow() {
+      return _row;
+    }
+
+    public String getMessage() {
+      return _message;
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package gov.cdc.usds.simplereport.service.model;
+
+import gov.cdc.usds.simplereport.db.model.Person;
+import java.util.List;
+
+/** A page of patients, in name order. */
+public class PatientPage extends KeysetPage<Person> {
+
+  public PatientPage(List<Person> fetched, int pageSize) {
+    super(fetched, pageSize);
+  }
+
+  public List<Person> getPatients() {
+    return getItems();
+  }
+}
@@ -0,0 +1,44 @@
+package gov.cdc.usds.simplereport.service.model;
+
+import java.util.Date;
+import java.util.UUID;
+
+/** One test result, for a patient in the testing queue, as submitted in a batch. */
+public class TestResultEntry {
+
+  private final UUID _patientId;
+  private final UUID _deviceSpecimenTypeId;
+  private final String _result;
+  private final Date _dateTested;
+
+  /**
+   * @param patientId the patient whose queued test order this result completes.
+   * @param deviceSpecimenTypeId the ID of the device/specimen type combination used.
+   * @param result the name of a {@link gov.cdc.usds.simplereport.db.model.auxiliary.TestResult}, as
+   *     given by the client (so that a bad value fails just this entry).
+   * @param dateTested when the test was performed, if it was not just now.
+   */
+  public TestResultEntry(
+      UUID patientId, UUID deviceSpecimenTypeId, String result, Date dateTested) {
+    _patientId = patientId;
+    _deviceSpecimenTypeId = deviceSpecimenTypeId;
+    _result = result;
+    _dateTested = dateTested;
+  }
+
+  public UUID getPatientId() {
+    return _patientId;
+  }
+
+  public UUID getDeviceSpecimenTypeId() {
+    return _deviceSpecimenTypeId;
+  }
+
+  public String getResult() {
+    return _result;
+  }
+
+  public Date getDateTested() {
+    return _dateTested;
+  }
+}
@@ -0,0 +1,16 @@
+package gov.cdc.usds.simplereport.service.model;
+
+import gov.cdc.usds.simplereport.db.model.TestEvent;
+import java.util.List;
+
+/** A page of test results, most recent first. */
+public class TestResultPage extends KeysetPage<TestEvent> {
+
+  public TestResultPage(List<TestEvent> fetched, int pageSize) {
+    super(fetched, pageSize);
+  }
+
+  public List<TestEvent> getTestResults() {
+    return getItems();
+  }
+}
@@ -0,0 +1,230 @@
+package gov.cdc.usds.simplereport.service.sms;
+
+import com.google.i18n.phonenumbers.NumberParseException;
+import gov.cdc.usds.simplereport.db.model.PatientLink;
+import gov.cdc.usds.simplereport.db.model.SmsOutboxMessage;
+import gov.cdc.usds.simplereport.db.repository.SmsOutboxMessageRepository;
+import gov.cdc.usds.simplereport.properties.SmsOutboxProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * A transactional outbox for text messages to patients. Callers {@link #enqueue} a message as part
+ * of their own transaction, so it is recorded if and only if that transaction commits, and never
+ * waits on (or fails because of) the SMS provider.
+ *
+ * <p>Queued messages are sent by a small pool of worker threads, as soon as the queueing
+ * transaction commits and on a fixed schedule thereafter. Messages are claimed with {@code SELECT
+ * ... FOR UPDATE SKIP LOCKED}, so any number of servers can work through the outbox at once. Failed
+ * sends are retried with exponential backoff, up to a maximum number of attempts. Sends are paced
+ * to stay under the provider's rate limit: each one first reserves a slot from a next-send time
+ * kept in the database, so the limit holds across all servers, not just within one.
+ */
+@Service
+@SuppressWarnings("checkstyle:IllegalCatch")
+public class SmsOutboxService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SmsOutboxService.class);
+  private static final double MILLIS_PER_SECOND = 1000;
+
+  private final SmsOutboxMessageRepository _repo;
+  private final SmsService _smsService;
+  private final SmsOutboxProperties _props;
+  private final TransactionTemplate _txTemplate;
+  private final ExecutorService _dispatcher;
+  private final ExecutorService _senders;
+  private final AtomicBoolean _deliveryQueued = new AtomicBoolean();
+  private final double _sendIntervalMillis;
+
+  private final Counter _sent;
+  private final Counter _retried;
+  private final Counter _failed;
+
+  public SmsOutboxService(
+      SmsOutboxMessageRepository repo,
+      SmsService smsService,
+      SmsOutboxProperties props,
+      PlatformTransactionManager txManager,
+      MeterRegistry meterRegistry) {
+    _repo = repo;
+    _smsService = smsService;
+    _props = props;
+    _txTemplate = new TransactionTemplate(txManager);
+    _dispatcher = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("sms-outbox-"));
+    _senders =
+        Executors.newFixedThreadPool(
+            props.getConcurrency(), new CustomizableThreadFactory("sms-outbox-send-"));
+    _sendIntervalMillis = MILLIS_PER_SECOND / props.getMaxPerSecond();
+    _sent = meterRegistry.counter("sms.outbox.attempts", "result", "sent");
+    _retried = meterRegistry.counter("sms.outbox.attempts", "result", "retry");
+    _failed = meterRegistry.counter("sms.outbox.attempts", "result", "failed");
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    _dispatcher.shutdownNow();
+    _senders.shutdownNow();
+  }
+
+  /**
+   * Queue a text message to the patient behind a patient link. It will be sent once the current
+   * transaction commits.
+   */
+  @Transactional
+  public SmsOutboxMessage enqueue(PatientLink patientLink, String text) {
+    SmsOutboxMessage queued = _repo.save(new SmsOutboxMessage(patientLink, text));
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              requestDelivery();
+            }
+          });
+    }
+    return queued;
+  }
+
+  @Scheduled(fixedDelayString = "${simple-report.sms-outbox.poll-interval:PT5S}")
+  public void requestDelivery() {
+    // at most one delivery run waiting to start: any more would find nothing left to do
+    if (_props.getWorkerEnabled() && _deliveryQueued.compareAndSet(false, true)) {
+      _dispatcher.execute(
+          () -> {
+            _deliveryQueued.set(false);
+            try {
+              deliverDueMessages();
+            } catch (RuntimeException e) {
+              LOG.error("SMS outbox delivery run failed", e);
+            }
+          });
+    }
+  }
+
+  /**
+   * Send every message that is currently due, waiting until each attempt has finished.
+   *
+   * @return the number of messages for which a send was attempted.
+   */
+  public int deliverDueMessages() {
+    int attempted = 0;
+    List<UUID> claimed;
+    do {
+      claimed = claimDueMessages();
+      CompletableFuture.allOf(
+              claimed.stream()
+                  .map(id -> CompletableFuture.runAsync(() -> deliver(id), _senders))
+                  .toArray(CompletableFuture[]::new))
+          .join();
+      attempted += claimed.size();
+    } while (claimed.size() == _props.getBatchSize());
+    return attempted;
+  }
+
+  private List<UUID> claimDueMessages() {
+    return _txTemplate.execute(
+        status -> {
+          Instant now = Instant.now();
+          Date leaseExpiresAt = Date.from(now.plus(_props.getClaimTimeout()));
+          List<SmsOutboxMessage> due = _repo.lockDueMessages(Date.from(now), _props.getBatchSize());
+          due.forEach(m -> m.startAttempt(leaseExpiresAt));
+          return due.stream().map(SmsOutboxMessage::getInternalId).collect(Collectors.toList());
+        });
+  }
+
+  private void deliver(UUID messageId) {
+    Optional<Recipient> recipient =
+        _txTemplate.execute(
+            status ->
+                _repo.findById(messageId).map(m -> new Recipient(m, _props.getMaxAttempts())));
+    if (recipient.isEmpty()) {
+      return;
+    }
+    Recipient r = recipient.get();
+    try {
+      awaitSendSlot();
+      String providerId = _smsService.sendToNumber(r.telephone, r.text);
+      update(messageId, m -> m.markSent(providerId));
+      _sent.increment();
+    } catch (NumberParseException e) {
+      // no point trying again
+      update(messageId, m -> m.markFailed("Invalid phone number"));
+      _failed.increment();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      // leave it claimed: it will be picked up again once the claim times out
+    } catch (RuntimeException e) {
+      LOG.warn("Failed to send SMS outbox message {} (attempt {})", messageId, r.attempt, e);
+      String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+      if (r.isLastAttempt) {
+        update(messageId, m -> m.markFailed(error));
+        _failed.increment();
+      } else {
+        Duration wait = backoff(r.attempt, _props.getInitialBackoff(), _props.getMaxBackoff());
+        update(messageId, m -> m.retryAt(Date.from(Instant.now().plus(wait)), error));
+        _retried.increment();
+      }
+    }
+  }
+
+  private void update(UUID messageId, Consumer<SmsOutboxMessage> change) {
+    _txTemplate.executeWithoutResult(status -> _repo.findById(messageId).ifPresent(change));
+  }
+
+  /** Reserve, and wait for, the next send slot permitted by the (all-server) rate limit. */
+  private void awaitSendSlot() throws InterruptedException {
+    // in a transaction of its own, so the shared row is only locked for as long as the update takes
+    double wait = _repo.reserveSendSlot(_sendIntervalMillis);
+    if (wait > 0) {
+      TimeUnit.MILLISECONDS.sleep((long) Math.ceil(wait));
+    }
+  }
+
+  /** How long to wait before retrying after the given (1-based) attempt failed. */
+  static Duration backoff(int attempt, Duration initial, Duration max) {
+    Duration wait = initial;
+    for (int i = 1; i < attempt && wait.compareTo(max) < 0; i++) {
+      wait = wait.multipliedBy(2);
+    }
+    return wait.compareTo(max) < 0 ? wait : max;
+  }
+
+  /** What is needed to send a message, read in a short transaction before the (slow) send. */
+  private static final class Recipient {
+    private final String telephone;
+    private final String text;
+    private final int attempt;
+    private final boolean isLastAttempt;
+
+    Recipient(SmsOutboxMessage message, int maxAttempts) {
+      this.telephone = message.getPatientLink().getTestOrder().getPatient().getTelephone();
+      this.text = message.getMessage();
+      this.attempt = message.getAttempts();
+      this.isLastAttempt = attempt >= maxAttempts;
+    }
+  }
+}
@@ -46,8 +46,16 @@ public class SmsService {
   }
 
   private String sendToPerson(Person p, String text) throws NumberParseException {
+    return sendToNumber(p.getTelephone(), text);
+  }
+
+  /**
+   * Send a text message to a phone number. This performs no permission checks: it is for the use of
+   * the {@link SmsOutboxService}, which only sends messages that were queued by a permitted user.
+   */
+  public String sendToNumber(String telephone, String text) throws NumberParseException {
     try {
-      String msgId = sms.send(new PhoneNumber(formatNumber(p.getTelephone())), fromNumber, text);
+      String msgId = sms.send(new PhoneNumber(formatNumber(telephone)), fromNumber, text);
       LOG.debug("SMS send initiated {}", msgId);
       return msgId;
     } catch (NumberParseException npe) {
@@ -211,13 +211,37 @@ public abstract class BaseApiTest extends BaseFullStackTest {
    */
   protected ObjectNode runQuery(
       String queryFileName, String operationName, ObjectNode variables, String expectedError) {
+    JsonNode responseBody = runQueryForResponse(queryFileName, operationName, variables);
+    assertGraphQLOutcome(responseBody, expectedError);
+    return (ObjectNode) responseBody.get("data");
+  }
+
+  /**
+   * Run the query in the given resource file and return the whole response body (including any
+   * {@code errors} or {@code extensions}), checking only that the HTTP request succeeded.
+   */
+  protected JsonNode runQueryForResponse(
+      String queryFileName, String operationName, ObjectNode variables) {
     try {
       setQueryHeaders();
       GraphQLResponse response = _template.perform(queryFileName, operationName, variables);
       assertEquals(HttpStatus.OK, response.getStatusCode(), "Servlet response should be OK");
-      JsonNode responseBody = response.readTree();
-      assertGraphQLOutcome(responseBody, expectedError);
-      return (ObjectNode) responseBody.get("data");
+      return response.readTree();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Post the given request body as it is (for requests that a query file and variables cannot
+   * describe), and return the whole response body, checking only that the HTTP request succeeded.
+   */
+  protected JsonNode runRequestForResponse(ObjectNode requestBody) {
+    try {
+      setQueryHeaders();
+      GraphQLResponse response = _template.post(objectMapper.writeValueAsString(requestBody));
+      assertEquals(HttpStatus.OK, response.getStatusCode(), "Servlet response should be OK");
+      return response.readTree();
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
@@ -0,0 +1,78 @@
+package gov.cdc.usds.simplereport.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import gov.cdc.usds.simplereport.test_util.TestUserIdentities;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+/** Automatic persisted queries: the query hash in place of (or as well as) the query text. */
+class PersistedQueryTest extends BaseApiTest {
+
+  private static final String NOT_FOUND = "PersistedQueryNotFound";
+
+  private String _query;
+
+  @BeforeEach
+  void loadQuery() throws IOException {
+    try (InputStream in = new ClassPathResource("current-user-query").getInputStream()) {
+      _query = StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+    }
+  }
+
+  @Test
+  void hashOnly_unknownHash_persistedQueryNotFound() {
+    String neverSent = "query neverSent { whoami { id } }";
+    JsonNode response = runRequestForResponse(request(null, DigestUtils.sha256Hex(neverSent)));
+    assertEquals(NOT_FOUND, response.path("errors").path(0).path("message").asText());
+  }
+
+  @Test
+  void hashOnly_afterQueryAndHash_sameQueryRun() {
+    String hash = DigestUtils.sha256Hex(_query);
+    JsonNode first = runRequestForResponse(request(_query, hash));
+    assertGraphQLOutcome(first, null);
+
+    JsonNode second = runRequestForResponse(request(null, hash));
+    assertGraphQLOutcome(second, null);
+    assertEquals(
+        TestUserIdentities.STANDARD_USER,
+        second.path("data").path("whoami").path("email").asText());
+    assertEquals(first.path("data"), second.path("data"));
+  }
+
+  @Test
+  void hashOnly_afterQueryWithWrongHash_persistedQueryNotFound() {
+    String wrongHash = DigestUtils.sha256Hex("query somethingElse { whoami { email } }");
+    JsonNode first = runRequestForResponse(request(_query, wrongHash));
+    assertGraphQLOutcome(first, null); // the query that was sent is the one that runs
+    assertTrue(first.path("data").path("whoami").has("email"));
+
+    JsonNode second = runRequestForResponse(request(null, wrongHash));
+    assertEquals(NOT_FOUND, second.path("errors").path(0).path("message").asText());
+  }
+
+  private static ObjectNode request(String query, String hash) {
+    ObjectNode request = JsonNodeFactory.instance.objectNode();
+    if (query != null) {
+      request.put("query", query);
+    }
+    request.put("operationName", "whoDat");
+    request
+        .putObject("extensions")
+        .putObject("persistedQuery")
+        .put("version", 1)
+        .put("sha256Hash", hash);
+    return request;
+  }
+}
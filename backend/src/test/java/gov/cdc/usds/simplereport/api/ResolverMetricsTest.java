@@ -0,0 +1,78 @@
+package gov.cdc.usds.simplereport.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import gov.cdc.usds.simplereport.logging.ResolverMetricsInstrumentation;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/** Resolver metrics, with every request sampled (see the test application-default.yaml). */
+class ResolverMetricsTest extends BaseApiTest {
+
+  private static final String QUERY = "person-with-last-test-result-query";
+
+  @Autowired private MeterRegistry _registry;
+
+  @BeforeEach
+  void addPatients() throws IOException {
+    executeAddPersonMutation(
+        "Arya", "Stark", "2001-01-01", "202-555-1212", "A", Optional.empty(), Optional.empty());
+    executeAddPersonMutation(
+        "Sansa", "Stark", "1999-02-02", "202-555-1213", "S", Optional.empty(), Optional.empty());
+  }
+
+  @Test
+  void patientsQuery_sampled_resolverMetersRecorded() {
+    long before = patientsTimer().map(Timer::count).orElse(0L);
+    runQuery(QUERY);
+
+    assertEquals(before + 1, patientsTimer().orElseThrow().count());
+    DistributionSummary statements =
+        _registry.find("graphql.resolver.statements").tag("field", "Query.patients").summary();
+    assertNotNull(statements);
+    assertThat(statements.max()).isPositive();
+    Timer lastTest = _registry.find("graphql.resolver").tag("field", "Patient.lastTest").timer();
+    assertNotNull(lastTest);
+    // plain getters are not worth timing
+    assertNull(_registry.find("graphql.resolver").tag("field", "Patient.firstName").timer());
+  }
+
+  @Test
+  void patientsQuery_noHeader_noExtension() {
+    JsonNode response = runQueryForResponse(QUERY, null, null);
+    assertTrue(response.path("extensions").path("resolverMetrics").isMissingNode());
+  }
+
+  @Test
+  void patientsQuery_headerSent_extensionReturned() {
+    addHeader(ResolverMetricsInstrumentation.RESPONSE_EXTENSION_HEADER, "true");
+    JsonNode metrics =
+        runQueryForResponse(QUERY, null, null)
+            .path("extensions")
+            .path(ResolverMetricsInstrumentation.EXTENSION_KEY);
+
+    JsonNode patients = metrics.path("resolvers").path("Query.patients");
+    assertEquals(1, patients.path("calls").asInt());
+    assertThat(patients.path("statements").asLong()).isPositive();
+    assertEquals(2, metrics.path("resolvers").path("Patient.lastTest").path("calls").asInt());
+    assertTrue(metrics.path("resolvers").path("Patient.firstName").isMissingNode());
+    assertThat(metrics.path("statements").asLong())
+        .isGreaterThanOrEqualTo(patients.path("statements").asLong());
+  }
+
+  private Optional<Timer> patientsTimer() {
+    return Optional.ofNullable(
+        _registry.find("graphql.resolver").tag("field", "Query.patients").timer());
+  }
+}
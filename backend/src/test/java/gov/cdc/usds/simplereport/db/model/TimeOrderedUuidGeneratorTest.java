@@ -0,0 +1,67 @@
+package gov.cdc.usds.simplereport.db.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("checkstyle:MagicNumber")
+class TimeOrderedUuidGeneratorTest {
+
+  private static final Instant NOW = Instant.parse("2021-02-03T04:05:06.789Z");
+
+  @Test
+  void next_versionAndVariant_version7() {
+    UUID id = generator(NOW).next();
+    assertEquals(7, id.version());
+    assertEquals(2, id.variant());
+  }
+
+  @Test
+  void next_timestamp_millisecondsInTopBits() {
+    UUID id = generator(NOW).next();
+    assertEquals(NOW.toEpochMilli(), id.getMostSignificantBits() >>> 16);
+  }
+
+  @Test
+  void next_sameMillisecond_increasing() {
+    TimeOrderedUuidGenerator generator = generator(NOW);
+    UUID previous = generator.next();
+    for (int i = 0; i < 10_000; i++) { // more than fit in one millisecond
+      UUID next = generator.next();
+      assertThat(next).isGreaterThan(previous);
+      assertThat(next.toString()).isGreaterThan(previous.toString()); // as Postgres sorts them
+      previous = next;
+    }
+  }
+
+  @Test
+  void next_clockStepsBack_stillIncreasing() {
+    AtomicLong state = new AtomicLong();
+    UUID before = new TimeOrderedUuidGenerator(fixed(NOW), state).next();
+    UUID after = new TimeOrderedUuidGenerator(fixed(NOW.minusSeconds(1)), state).next();
+    assertThat(after.toString()).isGreaterThan(before.toString());
+  }
+
+  @Test
+  void next_laterMillisecond_startsFromClock() {
+    AtomicLong state = new AtomicLong();
+    new TimeOrderedUuidGenerator(fixed(NOW), state).next();
+    UUID later = new TimeOrderedUuidGenerator(fixed(NOW.plusMillis(5)), state).next();
+    assertEquals(NOW.toEpochMilli() + 5, later.getMostSignificantBits() >>> 16);
+    assertEquals(0, later.getMostSignificantBits() & 0xFFF);
+  }
+
+  private static TimeOrderedUuidGenerator generator(Instant now) {
+    return new TimeOrderedUuidGenerator(fixed(now), new AtomicLong());
+  }
+
+  private static Clock fixed(Instant now) {
+    return Clock.fixed(now, ZoneOffset.UTC);
+  }
+}
@@ -3,6 +3,7 @@ package gov.cdc.usds.simplereport.db.model.auxiliary;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.io.IOException;
 import java.util.Map;
@@ -32,6 +33,15 @@ class GraphqlInputsSerializationTest {
     assertThat(written).extractingJsonPathNumberValue("variables.price").isEqualTo(3.99);
   }
 
+  @Test
+  void serialize_queryHash_queryLeftOut() throws IOException {
+    JsonContent<GraphQlInputs> written =
+        _tester.write(GraphQlInputs.withQueryHash("multiplication", "abc123", Map.of("x", 1)));
+    assertThat(written).extractingJsonPathStringValue("queryHash").isEqualTo("abc123");
+    assertThat(written).extractingJsonPathStringValue("operationName").isEqualTo("multiplication");
+    assertThat(written).doesNotHaveJsonPath("query");
+  }
+
   @Test
   // IF THIS TEST BREAKS YOU HAVE BROKEN THE DATABASE AUDIT LOG. FIX THE MODEL, NOT THE TEST.
   void deserialize_fullObject_allFieldsSet() throws IOException {
@@ -41,4 +51,16 @@ class GraphqlInputsSerializationTest {
     assertEquals("what is this thing called love?", object.getQuery());
     assertEquals(Map.of("eenie", 1, "meeney", 3, "miney", "Moe"), object.getVariables());
   }
+
+  @Test
+  // IF THIS TEST BREAKS YOU HAVE BROKEN THE DATABASE AUDIT LOG. FIX THE MODEL, NOT THE TEST.
+  void deserialize_hashedObject_allFieldsSet() throws IOException {
+    GraphQlInputs object = _tester.read("/deserialization/graphql-inputs/hashed.json").getObject();
+    assertNotNull(object);
+    assertEquals("thoracotomy", object.getOperationName());
+    assertNull(object.getQuery());
+    assertEquals(
+        "0c1a7f6ad3ccbe6a8d0b6a36fbbf5a0bd0ae5c0c96f3e56b1f24e8a0b4f2e9d7", object.getQueryHash());
+    assertEquals(Map.of("eenie", 1), object.getVariables());
+  }
 }
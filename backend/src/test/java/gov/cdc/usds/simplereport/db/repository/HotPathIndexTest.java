@@ -0,0 +1,123 @@
+package gov.cdc.usds.simplereport.db.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.cdc.usds.simplereport.db.model.Facility;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.model.Person;
+import gov.cdc.usds.simplereport.test_util.TestDataFactory;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Checks that each of our hottest queries has an index it can use. The test database is far too
+ * small for the planner to choose an index on its own, so sequential scans are disabled for the
+ * duration of each test: if a query still plans to a sequential scan, no usable index exists.
+ */
+class HotPathIndexTest extends BaseRepositoryTest {
+
+  private static final Logger LOG = LoggerFactory.getLogger(HotPathIndexTest.class);
+
+  @Autowired private EntityManager _entityManager;
+  @Autowired private TestDataFactory _dataFactory;
+
+  private Organization _org;
+  private Facility _facility;
+  private Person _patient;
+
+  @BeforeEach
+  void seed() {
+    _org = _dataFactory.createValidOrg();
+    _facility = _dataFactory.createValidFacility(_org);
+    _patient = _dataFactory.createMinimalPerson(_org);
+    _dataFactory.createTestOrder(_patient, _facility);
+    _dataFactory.createTestEvent(_dataFactory.createMinimalPerson(_org), _facility);
+    flush();
+    _entityManager.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+  }
+
+  @Test
+  void testQueue_usesIndex() {
+    assertUsesIndex(
+        "SELECT * FROM {h-schema}test_order q WHERE q.facility_id = "
+            + literal(_facility.getInternalId())
+            + " AND q.order_status = 'PENDING' ORDER BY q.created_at",
+        "idx__test_order__facility_status_created");
+  }
+
+  @Test
+  void currentTestResults_usesIndex() {
+    assertUsesIndex(
+        "SELECT * FROM {h-schema}current_test_result r WHERE r.facility_id = "
+            + literal(_facility.getInternalId())
+            + " ORDER BY r.test_event_created_at DESC, r.test_event_id DESC LIMIT 20",
+        "idx__current_test_result__facility_created");
+  }
+
+  @Test
+  void latestTestEventForPatients_usesIndex() {
+    assertUsesIndex(
+        "SELECT DISTINCT ON (te.patient_id) * FROM {h-schema}test_event te"
+            + " WHERE te.patient_id IN ("
+            + literal(_patient.getInternalId())
+            + ")"
+            + " ORDER BY te.patient_id, te.created_at DESC",
+        "idx__test_event__patient_created");
+  }
+
+  @Test
+  void testEventsBetweenDates_usesIndex() {
+    assertUsesIndex(
+        "SELECT * FROM {h-schema}test_event q WHERE q.created_at > now() - interval '1 day'"
+            + " AND q.created_at <= now() ORDER BY q.created_at",
+        "idx__test_event__created");
+  }
+
+  @Test
+  void patientNamePrefixSearch_usesIndexes() {
+    String plan =
+        explain(
+            "SELECT * FROM {h-schema}person p WHERE p.organization_id = "
+                + literal(_org.getInternalId())
+                + " AND (lower(p.first_name) LIKE 'fr%' OR lower(p.middle_name) LIKE 'fr%'"
+                + " OR lower(p.last_name) LIKE 'fr%')");
+    assertFalse(plan.contains("Seq Scan"), plan);
+    assertTrue(plan.contains("idx__person__organization_lower_first_name"), plan);
+    assertTrue(plan.contains("idx__person__organization_lower_middle_name"), plan);
+    assertTrue(plan.contains("idx__person__organization_lower_last_name"), plan);
+  }
+
+  @Test
+  void patientNameSearch_usesIndex() {
+    assertUsesIndex(
+        "SELECT * FROM {h-schema}person p"
+            + " WHERE p.name_search @@ to_tsquery('simple', 'fr:* & jo:*')",
+        "idx__person__name_search");
+  }
+
+  private void assertUsesIndex(String sql, String indexName) {
+    String plan = explain(sql);
+    assertFalse(plan.contains("Seq Scan"), plan);
+    assertTrue(plan.contains(indexName), plan);
+  }
+
+  @SuppressWarnings("unchecked")
+  private String explain(String sql) {
+    List<Object> rows = _entityManager.createNativeQuery("EXPLAIN " + sql).getResultList();
+    String plan = rows.stream().map(Object::toString).collect(Collectors.joining("\n"));
+    LOG.info("Query plan for [{}]:\n{}", sql, plan);
+    return plan;
+  }
+
+  private static String literal(UUID id) {
+    return "'" + id + "'::uuid";
+  }
+}
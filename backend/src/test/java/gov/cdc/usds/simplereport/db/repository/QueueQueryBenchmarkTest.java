@@ -0,0 +1,123 @@
+package gov.cdc.usds.simplereport.db.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.cdc.usds.simplereport.db.model.Facility;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.model.TestOrder;
+import gov.cdc.usds.simplereport.test_util.TestDataFactory;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.persistence.EntityManager;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StringType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Compares the cost of loading a facility's test queue (along with each order's current patient
+ * link) the way it used to be done, with a correlated subquery per order, to the way it is done
+ * now, by following test_order.current_patient_link_id. Both plans and their execution times are
+ * logged.
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+class QueueQueryBenchmarkTest extends BaseRepositoryTest {
+
+  private static final Logger LOG = LoggerFactory.getLogger(QueueQueryBenchmarkTest.class);
+  private static final int QUEUE_SIZE = 200;
+  private static final int LINKS_PER_ORDER = 3;
+
+  // what TestOrderRepository.fetchQueue compiled to when TestOrder.patientLink was a @JoinFormula
+  private static final String FORMULA_QUEUE_QUERY =
+      "SELECT q.*, pl.* FROM {h-schema}test_order q"
+          + " LEFT OUTER JOIN {h-schema}patient_link pl ON ("
+          + "  SELECT l.internal_id FROM {h-schema}patient_link l"
+          + "  WHERE l.test_order_id = q.internal_id ORDER BY l.created_at DESC LIMIT 1"
+          + " ) = pl.internal_id"
+          + " WHERE q.facility_id = %1$s AND q.order_status = 'PENDING' ORDER BY q.created_at";
+  private static final String CURRENT_LINK_QUEUE_QUERY =
+      "SELECT q.*, pl.* FROM {h-schema}test_order q"
+          + " LEFT OUTER JOIN {h-schema}patient_link pl ON pl.internal_id = q.current_patient_link_id"
+          + " WHERE q.facility_id = %1$s AND q.order_status = 'PENDING' ORDER BY q.created_at";
+
+  @Autowired private EntityManager _entityManager;
+  @Autowired private TestDataFactory _dataFactory;
+  @Autowired private TestOrderRepository _repo;
+
+  private Organization _org;
+  private Facility _facility;
+  private final Map<UUID, UUID> _latestLinks = new HashMap<>();
+
+  @BeforeEach
+  void seed() {
+    _org = _dataFactory.createValidOrg();
+    _facility = _dataFactory.createValidFacility(_org);
+    for (int i = 0; i < QUEUE_SIZE; i++) {
+      TestOrder order =
+          _dataFactory.createTestOrder(_dataFactory.createMinimalPerson(_org), _facility);
+      for (int j = 0; j < LINKS_PER_ORDER; j++) {
+        _latestLinks.put(
+            order.getInternalId(), _dataFactory.createPatientLink(order).getInternalId());
+      }
+    }
+    flush();
+    _entityManager.createNativeQuery("ANALYZE").executeUpdate();
+  }
+
+  @Test
+  void fetchQueue_followsCurrentLinkPointer() {
+    _entityManager.clear();
+    List<TestOrder> queue = _repo.fetchQueue(_org, _facility);
+    assertEquals(QUEUE_SIZE, queue.size());
+    for (TestOrder order : queue) {
+      assertEquals(_latestLinks.get(order.getInternalId()), order.getPatientLink().getInternalId());
+    }
+  }
+
+  @Test
+  void queueQuery_cheaperThanFormula() throws IOException {
+    JsonNode formulaPlan = explainAnalyze(FORMULA_QUEUE_QUERY);
+    JsonNode currentLinkPlan = explainAnalyze(CURRENT_LINK_QUEUE_QUERY);
+
+    assertTrue(formulaPlan.toString().contains("SubPlan"), formulaPlan::toString);
+    assertFalse(currentLinkPlan.toString().contains("SubPlan"), currentLinkPlan::toString);
+    double formulaCost = formulaPlan.at("/Plan/Total Cost").asDouble();
+    double currentLinkCost = currentLinkPlan.at("/Plan/Total Cost").asDouble();
+    LOG.info(
+        "Queue of {} orders: formula cost={} time={}ms; current link cost={} time={}ms",
+        QUEUE_SIZE,
+        formulaCost,
+        formulaPlan.at("/Execution Time").asDouble(),
+        currentLinkCost,
+        currentLinkPlan.at("/Execution Time").asDouble());
+    assertTrue(
+        currentLinkCost < formulaCost,
+        "expected " + currentLinkCost + " to be less than " + formulaCost);
+  }
+
+  private JsonNode explainAnalyze(String queryTemplate) throws IOException {
+    String sql = String.format(queryTemplate, literal(_facility.getInternalId()));
+    Object plan =
+        _entityManager
+            .createNativeQuery("EXPLAIN (ANALYZE, FORMAT JSON) " + sql)
+            .unwrap(NativeQuery.class)
+            .addScalar("QUERY PLAN", StringType.INSTANCE)
+            .getSingleResult();
+    LOG.info("Query plan for [{}]:\n{}", sql, plan);
+    return new ObjectMapper().readTree(plan.toString()).get(0);
+  }
+
+  private static String literal(UUID id) {
+    return "'" + id + "'::uuid";
+  }
+}
@@ -20,7 +20,10 @@ import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
@@ -77,6 +80,33 @@ class TestEventRepositoryTest extends BaseRepositoryTest {
         order, first); // just leverage existing order, event to test on newer columns
   }
 
+  @Test
+  void streamAllBetweenDates_matchesListQuery() {
+    Date d1 = Date.from(Instant.parse("2000-01-01T00:00:00Z"));
+    Date future = new Date(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(3));
+    Organization org = _dataFactory.createValidOrg();
+    Facility place = _dataFactory.createValidFacility(org);
+    Person patient = _dataFactory.createMinimalPerson(org);
+    TestOrder order = _dataFactory.createTestOrder(patient, place);
+    _repo.save(
+        new TestEvent(
+            TestResult.POSITIVE, place.getDefaultDeviceSpecimen(), patient, place, order));
+    _repo.save(
+        new TestEvent(
+            TestResult.NEGATIVE, place.getDefaultDeviceSpecimen(), patient, place, order));
+    flush();
+
+    List<TestEvent> listed = _repo.queryMatchAllBetweenDates(d1, future, Pageable.unpaged());
+    List<TestEvent> streamed;
+    try (Stream<TestEvent> events = _repo.streamAllBetweenDates(d1, future)) {
+      streamed = events.collect(Collectors.toList());
+    }
+    assertTrue(streamed.size() >= 2);
+    assertEquals(
+        listed.stream().map(TestEvent::getInternalId).collect(Collectors.toList()),
+        streamed.stream().map(TestEvent::getInternalId).collect(Collectors.toList()));
+  }
+
   @Test
   void fetchResults_multipleEntries_sortedLifo() throws InterruptedException {
     Organization org = _dataFactory.createValidOrg();
@@ -109,6 +139,53 @@ class TestEventRepositoryTest extends BaseRepositoryTest {
     assertEquals("Bradley", results.get(2).getPatient().getFirstName());
   }
 
+  @Test
+  void recordCurrentResult_olderEventAfterNewer_newerKept() {
+    Organization org = _dataFactory.createValidOrg();
+    Facility place = _dataFactory.createValidFacility(org);
+    Person patient = _dataFactory.createMinimalPerson(org);
+    TestOrder order = _dataFactory.createTestOrder(patient, place);
+    TestEvent older = saveEvent(order, TestResult.POSITIVE);
+    pause();
+    TestEvent newer = saveEvent(order, TestResult.NEGATIVE);
+
+    _repo.recordCurrentResult(newer.getInternalId());
+    _repo.recordCurrentResult(older.getInternalId());
+
+    assertEquals(List.of(newer.getInternalId()), currentResultIds(place));
+  }
+
+  @Test
+  void recordCurrentResults_twoEventsForOneOrder_latestRecorded() {
+    Organization org = _dataFactory.createValidOrg();
+    Facility place = _dataFactory.createValidFacility(org);
+    Person patient = _dataFactory.createMinimalPerson(org);
+    TestOrder order = _dataFactory.createTestOrder(patient, place);
+    TestEvent older = saveEvent(order, TestResult.POSITIVE);
+    pause();
+    TestEvent newer = saveEvent(order, TestResult.NEGATIVE);
+
+    _repo.recordCurrentResults(List.of(newer.getInternalId(), older.getInternalId()));
+
+    assertEquals(List.of(newer.getInternalId()), currentResultIds(place));
+  }
+
+  private TestEvent saveEvent(TestOrder order, TestResult result) {
+    Facility place = order.getFacility();
+    TestEvent event =
+        _repo.save(
+            new TestEvent(
+                result, place.getDefaultDeviceSpecimen(), order.getPatient(), place, order));
+    flush();
+    return event;
+  }
+
+  private List<UUID> currentResultIds(Facility place) {
+    return _repo.getTestEventResults(place.getInternalId(), PageRequest.of(0, 10)).stream()
+        .map(TestEvent::getInternalId)
+        .collect(Collectors.toList());
+  }
+
   private void compareAskOnEntrySurvey(AskOnEntrySurvey a1, AskOnEntrySurvey a2) {
     assertEquals(a1.getFirstTest(), a2.getFirstTest());
     assertEquals(a1.getNoSymptoms(), a2.getNoSymptoms());
@@ -8,6 +8,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import gov.cdc.usds.simplereport.db.model.DeviceType;
 import gov.cdc.usds.simplereport.db.model.Facility;
 import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.model.PatientLink;
 import gov.cdc.usds.simplereport.db.model.Person;
 import gov.cdc.usds.simplereport.db.model.TestEvent;
 import gov.cdc.usds.simplereport.db.model.TestOrder;
@@ -69,6 +70,24 @@ class TestOrderRepositoryTest extends BaseRepositoryTest {
     assertEquals(1, _repo.fetchPastResults(gtown, site).size());
   }
 
+  @Test
+  void save_appendedEntities_timeOrderedIds() {
+    Organization org = _dataFactory.createValidOrg();
+    Facility site = _dataFactory.createValidFacility(org);
+    Person patient = _dataFactory.createMinimalPerson(org, site);
+    TestOrder order = _dataFactory.createTestOrder(patient, site);
+    TestEvent event = _dataFactory.doTest(order, TestResult.NEGATIVE);
+    PatientLink link = _dataFactory.createPatientLink(order);
+
+    assertEquals(7, order.getInternalId().version());
+    assertEquals(7, order.getAskOnEntrySurvey().getInternalId().version());
+    assertEquals(7, event.getInternalId().version());
+    assertEquals(-1, order.getInternalId().compareTo(event.getInternalId()));
+    // patient links are handed out to patients, and should stay unguessable
+    assertEquals(4, link.getInternalId().version());
+    assertEquals(4, patient.getInternalId().version());
+  }
+
   @Test
   void testLifeCycle() {
     DeviceType device = _dataFactory.getGenericDevice();
@@ -0,0 +1,182 @@
+package gov.cdc.usds.simplereport.idp.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import gov.cdc.usds.simplereport.config.authorization.OrganizationRole;
+import gov.cdc.usds.simplereport.config.authorization.OrganizationRoleClaims;
+import gov.cdc.usds.simplereport.db.model.Facility;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.service.model.IdentityAttributes;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CachingOktaRepositoryTest {
+
+  private static final Duration TTL = Duration.ofMinutes(1);
+
+  private static final IdentityAttributes AMOS =
+      new IdentityAttributes("aquint@gmail.com", "Amos", null, "Quint", null);
+  private static final IdentityAttributes BRAD =
+      new IdentityAttributes("bzj@msn.com", "Bradley", "Z.", "Jones", "Jr.");
+
+  private static final Organization ABC = new Organization("ABC General", "ABC");
+  private static final Facility ABC_1 = getFacility(UUID.randomUUID(), ABC);
+
+  private DemoOktaRepository _delegate;
+  private SimpleMeterRegistry _registry;
+  private MutableClock _clock;
+  private CachingOktaRepository _repo;
+
+  @BeforeEach
+  void setup() {
+    _delegate = spy(new DemoOktaRepository());
+    _registry = new SimpleMeterRegistry();
+    _clock = new MutableClock();
+    _repo = new CachingOktaRepository(_delegate, TTL, _registry, _clock);
+    _delegate.createOrganization(ABC, Set.of(ABC_1), false);
+    _delegate.createUser(AMOS, ABC, Set.of(ABC_1), Set.of(OrganizationRole.USER));
+  }
+
+  @Test
+  void getAllUsersForOrganization_repeated_servedFromCache() {
+    _repo.getAllUsersForOrganization(ABC);
+    _repo.getAllUsersForOrganization(ABC);
+    assertEquals(Set.of(AMOS.getUsername()), _repo.getAllUsersForOrganization(ABC).keySet());
+
+    verify(_delegate, times(1)).getAllUsersForOrganization(ABC);
+    assertEquals(2, cacheCount(CachingOktaRepository.ORG_USERS_CACHE, "hit"));
+    assertEquals(1, cacheCount(CachingOktaRepository.ORG_USERS_CACHE, "miss"));
+    assertEquals(
+        1,
+        _registry
+            .get("okta.requests")
+            .tag("operation", "getAllUsersForOrganization")
+            .timer()
+            .count());
+  }
+
+  @Test
+  void getAllUsersForOrganization_afterTtl_reloaded() {
+    _repo.getAllUsersForOrganization(ABC);
+    _clock.advance(TTL);
+    _repo.getAllUsersForOrganization(ABC);
+
+    verify(_delegate, times(2)).getAllUsersForOrganization(ABC);
+  }
+
+  @Test
+  void createUser_evictsOrganizationUsers() {
+    _repo.getAllUsersForOrganization(ABC);
+    _repo.createUser(BRAD, ABC, Set.of(), Set.of(OrganizationRole.ENTRY_ONLY));
+
+    assertEquals(
+        Set.of(AMOS.getUsername(), BRAD.getUsername()),
+        _repo.getAllUsersForOrganization(ABC).keySet());
+    verify(_delegate, times(2)).getAllUsersForOrganization(ABC);
+  }
+
+  @Test
+  void updateUserPrivileges_evictsUserClaims() {
+    Optional<OrganizationRoleClaims> before =
+        _repo.getOrganizationRoleClaimsForUser(AMOS.getUsername());
+    assertEquals(Set.of(ABC_1.getInternalId()), before.orElseThrow().getFacilities());
+    _repo.getOrganizationRoleClaimsForUser(AMOS.getUsername());
+    verify(_delegate, times(1)).getOrganizationRoleClaimsForUser(AMOS.getUsername());
+
+    _repo.updateUserPrivileges(
+        AMOS.getUsername(), ABC, Set.of(), Set.of(OrganizationRole.ALL_FACILITIES));
+
+    Optional<OrganizationRoleClaims> after =
+        _repo.getOrganizationRoleClaimsForUser(AMOS.getUsername());
+    assertTrue(after.orElseThrow().grantsAllFacilityAccess());
+    assertEquals(
+        after.get().getFacilities(),
+        _repo.getAllUsersForOrganization(ABC).get(AMOS.getUsername()).getFacilities());
+    verify(_delegate, times(2)).getOrganizationRoleClaimsForUser(AMOS.getUsername());
+  }
+
+  @Test
+  void setUserIsActive_evictsUserAndOrganization() {
+    _repo.getAllUsersForOrganization(ABC);
+    _repo.getOrganizationRoleClaimsForUser(AMOS.getUsername());
+
+    _repo.setUserIsActive(AMOS.getUsername(), false);
+
+    assertEquals(Set.of(), _repo.getAllUsersForOrganization(ABC).keySet());
+    assertEquals(Optional.empty(), _repo.getOrganizationRoleClaimsForUser(AMOS.getUsername()));
+  }
+
+  @Test
+  void deleteFacility_evictsClaimsForOrganization() {
+    _repo.getOrganizationRoleClaimsForUser(AMOS.getUsername());
+
+    _repo.deleteFacility(ABC_1);
+
+    assertEquals(
+        Set.of(), _repo.getOrganizationRoleClaimsForUser(AMOS.getUsername()).get().getFacilities());
+  }
+
+  @Test
+  void zeroTtl_neverCaches() {
+    CachingOktaRepository uncached =
+        new CachingOktaRepository(_delegate, Duration.ZERO, _registry, _clock);
+    uncached.getAllUsersForOrganization(ABC);
+    uncached.getAllUsersForOrganization(ABC);
+
+    verify(_delegate, times(2)).getAllUsersForOrganization(ABC);
+  }
+
+  private double cacheCount(String cache, String result) {
+    return _registry
+        .get("okta.cache.requests")
+        .tag("cache", cache)
+        .tag("result", result)
+        .counter()
+        .count();
+  }
+
+  private static Facility getFacility(UUID uuid, Organization org) {
+    Facility facility = mock(Facility.class);
+    when(facility.getInternalId()).thenReturn(uuid);
+    when(facility.getOrganization()).thenReturn(org);
+    return facility;
+  }
+
+  private static class MutableClock extends Clock {
+    private Instant _now = Instant.now();
+
+    void advance(Duration duration) {
+      _now = _now.plus(duration);
+    }
+
+    @Override
+    public Instant instant() {
+      return _now;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package gov.cdc.usds.simplereport.idp.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("checkstyle:MagicNumber")
+class GroupMemberFetcherTest {
+
+  private GroupMemberFetcher _fetcher;
+
+  @AfterEach
+  void cleanup() {
+    _fetcher.close();
+  }
+
+  @Test
+  void membersToGroupNames_mergesAllGroups() {
+    _fetcher = new GroupMemberFetcher(4, Duration.ofSeconds(5));
+    Map<String, List<String>> groups =
+        Map.of(
+            "ORG:USER", List.of("amos", "brad", "charles"),
+            "ORG:ADMIN", List.of("brad"),
+            "ORG:FACILITY_ACCESS:1", List.of("amos", "charles"),
+            "ORG:FACILITY_ACCESS:2", List.of());
+
+    Map<String, Set<String>> result =
+        _fetcher.membersToGroupNames(groups.keySet(), Function.identity(), groups::get);
+
+    assertEquals(
+        Map.of(
+            "amos", Set.of("ORG:USER", "ORG:FACILITY_ACCESS:1"),
+            "brad", Set.of("ORG:USER", "ORG:ADMIN"),
+            "charles", Set.of("ORG:USER", "ORG:FACILITY_ACCESS:1")),
+        result);
+  }
+
+  @Test
+  void membersToGroupNames_manyGroups_neverExceedsConcurrencyCap() {
+    int cap = 3;
+    _fetcher = new GroupMemberFetcher(cap, Duration.ofSeconds(5));
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    List<String> groups =
+        IntStream.range(0, 20).mapToObj(i -> "G" + i).collect(Collectors.toList());
+
+    Map<String, Set<String>> result =
+        _fetcher.membersToGroupNames(
+            groups,
+            Function.identity(),
+            g -> {
+              maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+              sleep(20);
+              inFlight.decrementAndGet();
+              return List.of("member");
+            });
+
+    assertEquals(Set.copyOf(groups), result.get("member"));
+    assertTrue(maxInFlight.get() <= cap, "max in flight was " + maxInFlight.get());
+    assertTrue(maxInFlight.get() > 1, "groups were never fetched in parallel");
+  }
+
+  @Test
+  void membersToGroupNames_slowGroup_timesOut() {
+    _fetcher = new GroupMemberFetcher(2, Duration.ofMillis(50));
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            _fetcher.membersToGroupNames(
+                List.of("fast", "slow"),
+                Function.identity(),
+                g -> {
+                  if (g.equals("slow")) {
+                    sleep(1000);
+                  }
+                  return List.of("amos");
+                }));
+  }
+
+  @Test
+  void membersToGroupNames_manyGroupsTakingLongerThanTimeoutInTotal_succeeds() {
+    _fetcher = new GroupMemberFetcher(1, Duration.ofMillis(150));
+    List<String> groups = IntStream.range(0, 6).mapToObj(i -> "G" + i).collect(Collectors.toList());
+
+    Map<String, Set<String>> result =
+        _fetcher.membersToGroupNames(
+            groups,
+            Function.identity(),
+            g -> {
+              sleep(50);
+              return List.of("member");
+            });
+
+    assertEquals(Set.copyOf(groups), result.get("member"));
+  }
+
+  @Test
+  void membersToGroupNames_slowGroup_interruptedAndSlotFreed() throws InterruptedException {
+    _fetcher = new GroupMemberFetcher(1, Duration.ofMillis(50));
+    CountDownLatch interrupted = new CountDownLatch(1);
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            _fetcher.membersToGroupNames(
+                List.of("slow"),
+                Function.identity(),
+                g -> {
+                  try {
+                    Thread.sleep(5000);
+                  } catch (InterruptedException e) {
+                    interrupted.countDown();
+                  }
+                  return List.of("amos");
+                }));
+    assertTrue(interrupted.await(1, TimeUnit.SECONDS), "slow fetch was never interrupted");
+
+    Map<String, Set<String>> result =
+        _fetcher.membersToGroupNames(List.of("fast"), Function.identity(), g -> List.of("brad"));
+    assertEquals(Map.of("brad", Set.of("fast")), result);
+  }
+
+  @Test
+  void membersToGroupNames_failedGroup_rethrows() {
+    _fetcher = new GroupMemberFetcher(2, Duration.ofSeconds(5));
+    IllegalArgumentException e =
+        assertThrows(
+            IllegalArgumentException.class,
+            () ->
+                _fetcher.membersToGroupNames(
+                    List.of("ok", "broken"),
+                    Function.identity(),
+                    g -> {
+                      if (g.equals("broken")) {
+                        throw new IllegalArgumentException("nope");
+                      }
+                      return List.of("amos");
+                    }));
+    assertEquals("nope", e.getMessage());
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
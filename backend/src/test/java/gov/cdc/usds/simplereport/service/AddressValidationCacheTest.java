@@ -0,0 +1,118 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.smartystreets.api.us_street.Lookup;
+import gov.cdc.usds.simplereport.service.AddressValidationCache.ValidationResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AddressValidationCacheTest {
+
+  private static final Duration TTL = Duration.ofHours(1);
+  private static final Instant NOW = Instant.parse("2021-02-01T12:00:00Z");
+
+  private SimpleMeterRegistry _registry;
+  private Clock _clock;
+
+  @BeforeEach
+  void setup() {
+    _registry = new SimpleMeterRegistry();
+    _clock = mock(Clock.class);
+    when(_clock.instant()).thenReturn(NOW);
+  }
+
+  @Test
+  void get_sameAddressDifferentlyTyped_hit() {
+    AddressValidationCache cache = cache(10);
+    cache.put(
+        lookup("123 Main St", null, "Washington", "DC", "20008"),
+        ValidationResult.verified("District of Columbia"));
+
+    ValidationResult result =
+        cache.get(lookup("  123  main st ", "", "WASHINGTON", "dc", "20008")).orElseThrow();
+
+    assertTrue(result.isVerified());
+    assertEquals("District of Columbia", result.getCounty());
+    assertEquals(1, count("hit"));
+  }
+
+  @Test
+  void get_unverifiedAddress_remembered() {
+    AddressValidationCache cache = cache(10);
+    Lookup lookup = lookup("1 Nowhere Rd", null, "Nowhere", "ZZ", "00000");
+    cache.put(lookup, ValidationResult.unverified());
+
+    assertFalse(cache.get(lookup).orElseThrow().isVerified());
+  }
+
+  @Test
+  void get_afterTtl_miss() {
+    AddressValidationCache cache = cache(10);
+    Lookup lookup = lookup("123 Main St", null, "Washington", "DC", "20008");
+    cache.put(lookup, ValidationResult.verified("District of Columbia"));
+    when(_clock.instant()).thenReturn(NOW.plus(TTL).minusSeconds(1));
+    assertTrue(cache.get(lookup).isPresent());
+
+    when(_clock.instant()).thenReturn(NOW.plus(TTL));
+    assertFalse(cache.get(lookup).isPresent());
+    assertEquals(1, count("miss"));
+  }
+
+  @Test
+  void put_overMaxSize_evictsLeastRecentlyUsed() {
+    AddressValidationCache cache = cache(2);
+    Lookup first = lookup("1 First St", null, "Washington", "DC", "20008");
+    Lookup second = lookup("2 Second St", null, "Washington", "DC", "20008");
+    Lookup third = lookup("3 Third St", null, "Washington", "DC", "20008");
+    cache.put(first, ValidationResult.verified("A"));
+    cache.put(second, ValidationResult.verified("B"));
+    cache.get(first); // first is now more recently used than second
+    cache.put(third, ValidationResult.verified("C"));
+
+    assertEquals(2, cache.size());
+    assertTrue(cache.get(first).isPresent());
+    assertFalse(cache.get(second).isPresent());
+    assertTrue(cache.get(third).isPresent());
+  }
+
+  @Test
+  void get_disabled_alwaysMiss() {
+    AddressValidationCache cache = cache(0);
+    Lookup lookup = lookup("123 Main St", null, "Washington", "DC", "20008");
+    cache.put(lookup, ValidationResult.verified("District of Columbia"));
+
+    assertFalse(cache.get(lookup).isPresent());
+    assertEquals(0, cache.size());
+  }
+
+  private AddressValidationCache cache(int maxSize) {
+    return new AddressValidationCache(maxSize, TTL, _registry, _clock);
+  }
+
+  private double count(String result) {
+    return _registry
+        .get("address.validation.cache.requests")
+        .tag("result", result)
+        .counter()
+        .count();
+  }
+
+  static Lookup lookup(String street, String secondary, String city, String state, String zip) {
+    Lookup lookup = mock(Lookup.class);
+    when(lookup.getStreet()).thenReturn(street);
+    when(lookup.getSecondary()).thenReturn(secondary);
+    when(lookup.getCity()).thenReturn(city);
+    when(lookup.getState()).thenReturn(state);
+    when(lookup.getZipCode()).thenReturn(zip);
+    return lookup;
+  }
+}
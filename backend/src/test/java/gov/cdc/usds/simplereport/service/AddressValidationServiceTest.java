@@ -5,28 +5,38 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.smartystreets.api.exceptions.SmartyException;
+import com.smartystreets.api.us_street.Batch;
 import com.smartystreets.api.us_street.Candidate;
 import com.smartystreets.api.us_street.Client;
 import com.smartystreets.api.us_street.Lookup;
 import com.smartystreets.api.us_street.Metadata;
 import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentException;
 import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 class AddressValidationServiceTest {
 
+  private Client client;
   private AddressValidationService s;
 
   @BeforeEach
   public void setup() throws SmartyException, IOException {
-    Client client = mock(Client.class);
+    client = mock(Client.class);
     doNothing().when(client).send(isA(Lookup.class));
+    doNothing().when(client).send(isA(Batch.class));
     s = new AddressValidationService(client);
   }
 
@@ -69,6 +79,67 @@ class AddressValidationServiceTest {
     assertEquals("User entered street", address.getStreetOne());
   }
 
+  @Test
+  void getValidatedAddresses_mixedResults_emptyForUnverified() {
+    ArrayList<Candidate> results = new ArrayList<Candidate>();
+    results.add(getMockResult());
+    Lookup found = mock(Lookup.class);
+    when(found.getStreet()).thenReturn("123 Main St");
+    when(found.getResult()).thenReturn(results);
+    Lookup notFound = mock(Lookup.class);
+    when(notFound.getResult()).thenReturn(new ArrayList<Candidate>());
+
+    List<Optional<StreetAddress>> addresses = s.getValidatedAddresses(List.of(found, notFound));
+
+    assertEquals(2, addresses.size());
+    assertEquals("123 Main St", addresses.get(0).orElseThrow().getStreetOne());
+    assertEquals("District of Columbia", addresses.get(0).orElseThrow().getCounty());
+    assertEquals(Optional.empty(), addresses.get(1));
+  }
+
+  @Test
+  void getValidatedAddress_sameAddressTwice_sentOnce() throws SmartyException, IOException {
+    AddressValidationService cached =
+        new AddressValidationService(
+            client, new AddressValidationCache(10, Duration.ofHours(1), new SimpleMeterRegistry()));
+    ArrayList<Candidate> results = new ArrayList<Candidate>();
+    results.add(getMockResult());
+    Lookup first = AddressValidationCacheTest.lookup("123 Main St", null, "Washington", "DC", "");
+    when(first.getResult()).thenReturn(results);
+    Lookup second = AddressValidationCacheTest.lookup("123 MAIN ST", null, "Washington", "DC", "");
+
+    cached.getValidatedAddress(first, null);
+    StreetAddress address = cached.getValidatedAddress(second, null);
+
+    assertEquals("123 MAIN ST", address.getStreetOne());
+    assertEquals("District of Columbia", address.getCounty());
+    verify(client, times(1)).send(isA(Lookup.class));
+  }
+
+  @Test
+  void getValidatedAddresses_sameAddressOnSeveralRows_sentOnce()
+      throws SmartyException, IOException {
+    ArrayList<Candidate> results = new ArrayList<Candidate>();
+    results.add(getMockResult());
+    Lookup first = AddressValidationCacheTest.lookup("1 Group Home Rd", null, "Town", "DC", "");
+    when(first.getResult()).thenReturn(results);
+    Lookup second = AddressValidationCacheTest.lookup("1 GROUP HOME RD", null, "Town", "DC", "");
+    Lookup third = AddressValidationCacheTest.lookup(" 1 Group  Home Rd", null, "TOWN", "dc", "");
+    Lookup other = AddressValidationCacheTest.lookup("2 Elsewhere Ave", null, "Town", "DC", "");
+    when(other.getResult()).thenReturn(new ArrayList<Candidate>());
+
+    List<Optional<StreetAddress>> addresses =
+        s.getValidatedAddresses(List.of(first, second, other, third));
+
+    ArgumentCaptor<Batch> sent = ArgumentCaptor.forClass(Batch.class);
+    verify(client).send(sent.capture());
+    assertEquals(2, sent.getValue().size());
+    assertEquals("1 Group Home Rd", addresses.get(0).orElseThrow().getStreetOne());
+    assertEquals("1 GROUP HOME RD", addresses.get(1).orElseThrow().getStreetOne());
+    assertEquals(Optional.empty(), addresses.get(2));
+    assertEquals("District of Columbia", addresses.get(3).orElseThrow().getCounty());
+  }
+
   private Candidate getMockResult() {
     Metadata metadata = mock(Metadata.class);
     when(metadata.getCountyName()).thenReturn("District of Columbia");
@@ -0,0 +1,155 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import gov.cdc.usds.simplereport.db.model.ApiUser;
+import gov.cdc.usds.simplereport.db.model.auxiliary.PersonName;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class ApiUserCacheTest {
+
+  private static final Duration TTL = Duration.ofMinutes(1);
+  private static final Instant NOW = Instant.parse("2021-02-01T12:00:00Z");
+  private static final String EMAIL = "cached@example.com";
+
+  private Clock _clock;
+  private AtomicInteger _loads;
+  private ApiUser _user;
+
+  @BeforeEach
+  void setup() {
+    _clock = mock(Clock.class);
+    when(_clock.instant()).thenReturn(NOW);
+    _loads = new AtomicInteger();
+    _user = new ApiUser(EMAIL, new PersonName("A", null, "B", null));
+  }
+
+  @Test
+  void get_withinTtl_loadedOnce() {
+    ApiUserCache cache = new ApiUserCache(TTL, _clock, TransactionOperations.withoutTransaction());
+
+    ApiUser first = cache.get(EMAIL, this::load).orElseThrow();
+    when(_clock.instant()).thenReturn(NOW.plus(TTL).minusSeconds(1));
+    ApiUser second = cache.get(EMAIL, this::load).orElseThrow();
+
+    assertSame(first, second);
+    assertEquals(1, _loads.get());
+  }
+
+  @Test
+  void get_afterTtl_reloaded() {
+    ApiUserCache cache = new ApiUserCache(TTL, _clock, TransactionOperations.withoutTransaction());
+
+    cache.get(EMAIL, this::load);
+    when(_clock.instant()).thenReturn(NOW.plus(TTL));
+    cache.get(EMAIL, this::load);
+
+    assertEquals(2, _loads.get());
+  }
+
+  @Test
+  void get_afterEvict_reloaded() {
+    ApiUserCache cache = new ApiUserCache(TTL, _clock, TransactionOperations.withoutTransaction());
+
+    cache.get(EMAIL, this::load);
+    cache.evict(EMAIL);
+    cache.get(EMAIL, this::load);
+
+    assertEquals(2, _loads.get());
+  }
+
+  @Test
+  void get_evictedDuringTransaction_reloadedAfterCommit() {
+    ApiUserCache cache = new ApiUserCache(TTL, _clock, TransactionOperations.withoutTransaction());
+
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      cache.evict(EMAIL);
+      // another request caches the user again before the change is committed
+      cache.get(EMAIL, this::load);
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    cache.get(EMAIL, this::load);
+
+    assertEquals(2, _loads.get());
+  }
+
+  @Test
+  void get_loadedInItsOwnTransaction() {
+    AtomicBoolean inLoadTransaction = new AtomicBoolean();
+    TransactionOperations loadTransaction =
+        new TransactionOperations() {
+          @Override
+          public <T> T execute(TransactionCallback<T> action) {
+            inLoadTransaction.set(true);
+            try {
+              return action.doInTransaction(null);
+            } finally {
+              inLoadTransaction.set(false);
+            }
+          }
+        };
+    ApiUserCache cache = new ApiUserCache(TTL, _clock, loadTransaction);
+
+    cache.get(
+        EMAIL,
+        email -> {
+          assertTrue(inLoadTransaction.get());
+          return load(email);
+        });
+
+    assertFalse(inLoadTransaction.get());
+    assertEquals(1, _loads.get());
+  }
+
+  @Test
+  void get_userNotFound_notCached() {
+    ApiUserCache cache = new ApiUserCache(TTL, _clock, TransactionOperations.withoutTransaction());
+
+    assertTrue(cache.get(EMAIL, this::loadNothing).isEmpty());
+    cache.get(EMAIL, this::load);
+    cache.get(EMAIL, this::load);
+
+    assertEquals(2, _loads.get());
+  }
+
+  @Test
+  void get_zeroTtl_alwaysLoaded() {
+    ApiUserCache cache =
+        new ApiUserCache(Duration.ZERO, _clock, TransactionOperations.withoutTransaction());
+
+    cache.get(EMAIL, this::load);
+    cache.get(EMAIL, this::load);
+
+    assertEquals(2, _loads.get());
+  }
+
+  private Optional<ApiUser> load(String email) {
+    _loads.incrementAndGet();
+    return Optional.of(_user);
+  }
+
+  private Optional<ApiUser> loadNothing(String email) {
+    _loads.incrementAndGet();
+    return Optional.empty();
+  }
+}
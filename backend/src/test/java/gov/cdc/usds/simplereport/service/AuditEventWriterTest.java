@@ -0,0 +1,143 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import gov.cdc.usds.simplereport.db.model.ApiAuditEvent;
+import gov.cdc.usds.simplereport.db.model.auxiliary.HttpRequestDetails;
+import gov.cdc.usds.simplereport.db.repository.ApiAuditEventRepository;
+import gov.cdc.usds.simplereport.properties.AuditLoggingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class AuditEventWriterTest {
+
+  private ApiAuditEventRepository _repo;
+  private EntityManager _entityManager;
+  private SimpleMeterRegistry _registry;
+  private AuditEventWriter _writer;
+  private final Object _blockingLock = new Object();
+
+  @BeforeEach
+  void setup() {
+    _repo = mock(ApiAuditEventRepository.class);
+    _entityManager = mock(EntityManager.class);
+    Mockito.when(_entityManager.unwrap(Session.class)).thenReturn(mock(Session.class));
+    _registry = new SimpleMeterRegistry();
+  }
+
+  @AfterEach
+  void shutdown() throws InterruptedException {
+    synchronized (_blockingLock) {
+      _blockingLock.notifyAll();
+    }
+    if (_writer != null) {
+      _writer.stop();
+    }
+  }
+
+  @Test
+  void write_synchronous_savedInline() {
+    _writer = createWriter(false, true, 10);
+    _writer.start();
+    ApiAuditEvent event = event("A");
+    _writer.write(event);
+    verify(_repo).save(event);
+  }
+
+  @Test
+  void write_asynchronous_savedInBatch() {
+    _writer = createWriter(true, true, 10);
+    _writer.start();
+    List<ApiAuditEvent> events = List.of(event("A"), event("B"), event("C"));
+    events.forEach(_writer::write);
+    verify(_repo, timeout(2000)).saveAll(events);
+    verify(_repo, never()).save(any());
+  }
+
+  @Test
+  void write_queueFullFailClosed_savedInline() {
+    _writer = createWriter(true, true, 1);
+    _writer.start();
+    ApiAuditEvent queued = event("A");
+    ApiAuditEvent overflow = event("B");
+    blockQueue(queued);
+    _writer.write(overflow);
+    verify(_repo).save(overflow);
+  }
+
+  @Test
+  void write_queueFullFailOpen_dropped() {
+    _writer = createWriter(true, false, 1);
+    _writer.start();
+    ApiAuditEvent overflow = event("B");
+    blockQueue(event("A"));
+    _writer.write(overflow);
+    verify(_repo, never()).save(any());
+    assertEquals(1.0, _registry.counter("audit.events.dropped").count());
+  }
+
+  @Test
+  void write_batchKeepsFailingFailClosed_writtenOneAtATime() throws InterruptedException {
+    ApiAuditEvent good = event("good");
+    ApiAuditEvent bad = event("bad");
+    Mockito.when(_repo.saveAll(any())).thenThrow(new IllegalStateException("constraint"));
+    Mockito.when(_repo.save(bad)).thenThrow(new IllegalStateException("constraint"));
+    _writer = createWriter(true, true, 10);
+    _writer.start();
+
+    _writer.write(good);
+    _writer.write(bad);
+
+    verify(_repo, timeout(2000)).save(good);
+    verify(_repo, timeout(2000)).save(bad);
+    verify(_repo, timeout(2000).times(2)).saveAll(any());
+    _writer.stop(); // so the writer is done with the bad event
+    assertEquals(1.0, _registry.counter("audit.events.dropped").count());
+  }
+
+  /** Make the writer hang on its first batch, then fill the queue behind it. */
+  private void blockQueue(ApiAuditEvent queued) {
+    Mockito.when(_repo.saveAll(any()))
+        .thenAnswer(
+            i -> {
+              synchronized (_blockingLock) {
+                _blockingLock.wait();
+              }
+              return List.of();
+            });
+    _writer.write(event("blocker"));
+    verify(_repo, timeout(2000)).saveAll(any());
+    _writer.write(queued);
+  }
+
+  private AuditEventWriter createWriter(boolean async, boolean failClosed, int capacity) {
+    AuditLoggingProperties props =
+        new AuditLoggingProperties(
+            async, failClosed, capacity, 10, Duration.ofMillis(50), Duration.ofMillis(50), 2);
+    return new AuditEventWriter(
+        _repo, _entityManager, mock(PlatformTransactionManager.class), props, _registry);
+  }
+
+  private static ApiAuditEvent event(String requestId) {
+    return new ApiAuditEvent(
+        requestId,
+        new HttpRequestDetails("host", "1.2.3.4", List.of(), "https", "host", "/uri"),
+        200,
+        null,
+        null,
+        null);
+  }
+}
@@ -0,0 +1,83 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import gov.cdc.usds.simplereport.db.model.auxiliary.GraphQlInputs;
+import gov.cdc.usds.simplereport.db.model.auxiliary.HttpRequestDetails;
+import gov.cdc.usds.simplereport.logging.GraphqlQueryState;
+import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportEntryOnlyUser;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class AuditPartitionServiceTest extends BaseServiceTest<AuditPartitionService> {
+
+  @Autowired private AuditService _auditService;
+  @Autowired private JdbcTemplate _jdbc;
+
+  @Value("${spring.jpa.properties.hibernate.default_schema}")
+  private String _schema;
+
+  @Test
+  void createPartitions_monthsAhead_partitionsReady() {
+    _service.createPartitions();
+    _service.createPartitions(); // and again, which must not try to create them twice
+
+    Integer ready =
+        _jdbc.queryForObject(
+            "SELECT count(*) FROM "
+                + _schema
+                + ".api_audit_event_partitions()"
+                + " WHERE ends_at > timezone('UTC', now()) + interval '3 months'",
+            Integer.class);
+    assertEquals(1, ready);
+  }
+
+  @Test
+  @WithSimpleReportEntryOnlyUser
+  void export_partitionWithEvent_gzippedCsvWritten(@TempDir Path archive) throws IOException {
+    initSampleData();
+    GraphqlQueryState state = new GraphqlQueryState();
+    state.setRequestId("ARCHIVE-ME");
+    state.setGraphqlDetails(new GraphQlInputs("A", "B", Map.of()));
+    state.setHttpDetails(
+        new HttpRequestDetails("foo.com", "1.2.3.4", List.of(), "https", "simplereport.name", "/"));
+    _auditService.logGraphQlEvent(state, List.of());
+    String partition =
+        _jdbc.queryForObject(
+            "SELECT c.relname FROM "
+                + _schema
+                + ".api_audit_event e JOIN pg_class c ON c.oid = e.tableoid",
+            String.class);
+
+    Path target = archive.resolve("archived").resolve(partition + ".csv.gz");
+    _service.export(partition, target);
+
+    List<String> lines;
+    try (BufferedReader reader =
+        new BufferedReader(
+            new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(target)), StandardCharsets.UTF_8))) {
+      lines = reader.lines().collect(Collectors.toList());
+    }
+    assertEquals(2, lines.size());
+    assertThat(lines.get(0)).startsWith("id,event_timestamp,request_id,");
+    assertThat(lines.get(1)).contains("ARCHIVE-ME");
+    try (var files = Files.list(target.getParent())) {
+      assertEquals(List.of(target), files.collect(Collectors.toList())); // no partial files left
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.client.ExpectedCount.times;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import gov.cdc.usds.simplereport.db.model.DataHubUpload;
+import gov.cdc.usds.simplereport.db.model.Facility;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.model.Person;
+import gov.cdc.usds.simplereport.db.model.auxiliary.DataHubUploadStatus;
+import gov.cdc.usds.simplereport.db.repository.DataHubUploadRespository;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.client.AutoConfigureMockRestServiceServer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.client.MockRestServiceServer;
+
+@TestPropertySource(
+    properties = {
+      "simple-report.data-hub.upload-enabled=true",
+      "simple-report.data-hub.upload-url=" + DataHubUploaderServiceTest.UPLOAD_URL,
+      "simple-report.data-hub.api-key=fake-key",
+      "simple-report.data-hub.max-csv-rows=2",
+      "simple-report.data-hub.max-uploads-per-run=2",
+    })
+@AutoConfigureMockRestServiceServer
+class DataHubUploaderServiceTest extends BaseServiceTest<DataHubUploaderService> {
+
+  static final String UPLOAD_URL = "https://datahub.example/upload";
+
+  @Autowired private MockRestServiceServer _server;
+  @Autowired private UploadTrackingService _trackingService;
+  @Autowired private DataHubUploadRespository _uploadRepo;
+  @Autowired private JdbcTemplate _jdbc;
+
+  @Value("${spring.jpa.properties.hibernate.default_schema}")
+  private String _schema;
+
+  private Organization _org;
+  private Facility _facility;
+  private Person _person;
+
+  @BeforeEach
+  void setupData() {
+    _server.reset();
+    _org = _dataFactory.createValidOrg();
+    _facility = _dataFactory.createValidFacility(_org);
+    _person = _dataFactory.createFullPerson(_org);
+
+    // the uploader starts from the end of the last successful upload
+    Date start = Date.from(Instant.now().minus(2, ChronoUnit.HOURS));
+    DataHubUpload previous = _trackingService.startUpload(start);
+    _trackingService.markRowCount(previous, 0, start);
+    _trackingService.markSucceeded(previous, "{}", "");
+  }
+
+  @Test
+  void dataHubUploaderTask_twoBatchesBehind_bothUploaded() {
+    createEventsAnHourAgo(3);
+    _server
+        .expect(times(2), requestTo(UPLOAD_URL))
+        .andExpect(method(HttpMethod.POST))
+        .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+
+    _service.dataHubUploaderTask();
+
+    _server.verify();
+    assertEquals(List.of(0, 2, 1), recordsProcessedBySuccessfulUploads());
+  }
+
+  @Test
+  void dataHubUploaderTask_moreBatchesBehindThanAllowed_stopsAtLimit() {
+    createEventsAnHourAgo(5);
+    _server
+        .expect(times(2), requestTo(UPLOAD_URL))
+        .andExpect(method(HttpMethod.POST))
+        .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+
+    _service.dataHubUploaderTask();
+
+    _server.verify();
+    assertEquals(List.of(0, 2, 2), recordsProcessedBySuccessfulUploads());
+  }
+
+  private void createEventsAnHourAgo(int count) {
+    for (int i = 0; i < count; i++) {
+      _dataFactory.createTestEvent(_person, _facility);
+    }
+    // the uploader leaves out the last minute's events, which may belong to open transactions
+    _jdbc.update(
+        "UPDATE " + _schema + ".test_event SET created_at = created_at - interval '1 hour'");
+  }
+
+  private List<Integer> recordsProcessedBySuccessfulUploads() {
+    return _uploadRepo.findAll().stream()
+        .filter(u -> u.getJobStatus() == DataHubUploadStatus.SUCCESS)
+        .sorted(Comparator.comparing(DataHubUpload::getLatestRecordedTimestamp))
+        .map(DataHubUpload::getRecordsProcessed)
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,68 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentException;
+import gov.cdc.usds.simplereport.db.model.DeviceSpecimenType;
+import gov.cdc.usds.simplereport.db.model.DeviceType;
+import gov.cdc.usds.simplereport.db.repository.DeviceSpecimenTypeRepository;
+import gov.cdc.usds.simplereport.db.repository.DeviceTypeRepository;
+import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportSiteAdminUser;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "simple-report.device-catalog.cache-enabled=true")
+@SuppressWarnings({"checkstyle:MagicNumber", "deprecation"})
+class DeviceCatalogCacheTest extends BaseServiceTest<DeviceTypeService> {
+
+  private static final String FAKE_SWAB_TYPE = "012345678";
+
+  @Autowired private DeviceTypeRepository _deviceTypeRepo;
+  @Autowired private DeviceSpecimenTypeRepository _deviceSpecimenRepo;
+
+  @Test
+  @WithSimpleReportSiteAdminUser
+  void createDeviceType_visibleAsSoonAsCommitted() {
+    DeviceType created = _service.createDeviceType("A", "B", "C", "D", FAKE_SWAB_TYPE);
+
+    assertTrue(
+        _service.fetchDeviceTypes().stream()
+            .anyMatch(d -> d.getInternalId().equals(created.getInternalId())));
+    DeviceSpecimenType expected =
+        _deviceSpecimenRepo.findAll().stream()
+            .filter(dst -> dst.getDeviceType().getInternalId().equals(created.getInternalId()))
+            .findFirst()
+            .orElseThrow();
+    assertEquals(
+        expected.getInternalId(),
+        _service.getDefaultForDeviceId(created.getInternalId().toString()).getInternalId());
+  }
+
+  @Test
+  void directInsert_visibleAfterNotification() throws InterruptedException {
+    DeviceType saved = _deviceTypeRepo.save(new DeviceType("A", "B", "C", "D", FAKE_SWAB_TYPE));
+
+    long deadline = System.currentTimeMillis() + 5000;
+    boolean found = false;
+    while (!found && System.currentTimeMillis() < deadline) {
+      found =
+          _service.fetchDeviceTypes().stream()
+              .anyMatch(d -> d.getInternalId().equals(saved.getInternalId()));
+      if (!found) {
+        Thread.sleep(50);
+      }
+    }
+    assertTrue(found, "device type inserted behind the cache's back never showed up");
+  }
+
+  @Test
+  void getDefaultForDeviceId_unknownDevice_error() {
+    String unknown = UUID.randomUUID().toString();
+    assertThrows(
+        IllegalGraphqlArgumentException.class, () -> _service.getDefaultForDeviceId(unknown));
+  }
+}
@@ -0,0 +1,121 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import graphql.parser.Parser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class GraphQlDocumentCacheTest {
+
+  private static final String QUERY = "query whoDat { whoami { id } }";
+  private static final String OTHER_QUERY = "query whoElse { whoami { email } }";
+
+  private SimpleMeterRegistry _registry;
+  private AtomicInteger _parses;
+
+  @BeforeEach
+  void setup() {
+    _registry = new SimpleMeterRegistry();
+    _parses = new AtomicInteger();
+  }
+
+  @Test
+  void getDocument_sameQueryTwice_parsedOnce() {
+    GraphQlDocumentCache cache = cache(10);
+
+    PreparsedDocumentEntry first = cache.getDocument(input(QUERY), this::parse);
+    PreparsedDocumentEntry second = cache.getDocument(input(QUERY), this::parse);
+
+    assertSame(first, second);
+    assertEquals(1, _parses.get());
+    assertEquals(1, count("hit"));
+    assertEquals(1, count("miss"));
+  }
+
+  @Test
+  void getDocument_validationErrors_notCached() {
+    GraphQlDocumentCache cache = cache(10);
+    Function<ExecutionInput, PreparsedDocumentEntry> invalid =
+        input -> {
+          _parses.incrementAndGet();
+          return new PreparsedDocumentEntry(GraphqlErrorBuilder.newError().message("no").build());
+        };
+
+    cache.getDocument(input(QUERY), invalid);
+    cache.getDocument(input(QUERY), invalid);
+
+    assertEquals(2, _parses.get());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void getDocument_cacheFull_leastRecentlyUsedDropped() {
+    GraphQlDocumentCache cache = cache(1);
+    cache.getDocument(input(QUERY), this::parse);
+    cache.getDocument(input(OTHER_QUERY), this::parse);
+    cache.getDocument(input(QUERY), this::parse);
+
+    assertEquals(3, _parses.get());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  void getDocument_persistedQueryMarker_notFoundError() {
+    PreparsedDocumentEntry entry =
+        cache(10).getDocument(input(PersistedQuerySupport.PERSISTED_QUERY_MARKER), this::parse);
+
+    assertTrue(entry.hasErrors());
+    assertEquals("PersistedQueryNotFound", entry.getErrors().get(0).getMessage());
+    assertEquals(0, _parses.get());
+  }
+
+  @Test
+  void resolvePersistedQuery_queryWithHash_remembered() {
+    GraphQlDocumentCache cache = cache(10);
+    String hash = DigestUtils.sha256Hex(QUERY);
+
+    assertEquals(
+        PersistedQuerySupport.PERSISTED_QUERY_MARKER, cache.resolvePersistedQuery(hash, null));
+    assertEquals(QUERY, cache.resolvePersistedQuery(hash, QUERY));
+    assertEquals(QUERY, cache.resolvePersistedQuery(hash.toUpperCase(Locale.US), null));
+  }
+
+  @Test
+  void resolvePersistedQuery_wrongHash_notRemembered() {
+    GraphQlDocumentCache cache = cache(10);
+    String otherHash = DigestUtils.sha256Hex(OTHER_QUERY);
+
+    assertEquals(QUERY, cache.resolvePersistedQuery(otherHash, QUERY));
+    assertEquals(
+        PersistedQuerySupport.PERSISTED_QUERY_MARKER, cache.resolvePersistedQuery(otherHash, null));
+  }
+
+  private GraphQlDocumentCache cache(int maxSize) {
+    return new GraphQlDocumentCache(maxSize, maxSize, _registry);
+  }
+
+  private PreparsedDocumentEntry parse(ExecutionInput input) {
+    _parses.incrementAndGet();
+    return new PreparsedDocumentEntry(new Parser().parseDocument(input.getQuery()));
+  }
+
+  private static ExecutionInput input(String query) {
+    return ExecutionInput.newExecutionInput(query).build();
+  }
+
+  private double count(String result) {
+    return _registry.get("graphql.document.cache.requests").tag("result", result).counter().count();
+  }
+}
@@ -0,0 +1,66 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import gov.cdc.usds.simplereport.db.model.auxiliary.GraphQlInputs;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class GraphQlQueryDocumentServiceTest extends BaseServiceTest<GraphQlQueryDocumentService> {
+
+  private static final String QUERY =
+      "# who is waiting?\nquery GetQueue($facilityId: String!) {\n"
+          + "  queue(facilityId: $facilityId) {\n    internalId\n  }\n}\n";
+  private static final String SAME_QUERY =
+      "query GetQueue($facilityId:String!){queue(facilityId:$facilityId){internalId}}";
+
+  @Autowired private JdbcTemplate _jdbc;
+
+  @Value("${spring.jpa.properties.hibernate.default_schema}")
+  private String _schema;
+
+  @Test
+  void store_sameQueryFormattedDifferently_storedOnce() {
+    String hash = _service.store(QUERY);
+    assertEquals(hash, _service.store(SAME_QUERY));
+    assertEquals(hash, _service.store(QUERY)); // remembered, this time
+
+    assertEquals(1, countDocuments());
+    assertEquals(
+        Optional.of(
+            "query GetQueue($facilityId:String!) {queue(facilityId:$facilityId) {internalId}}"),
+        _service.getDocument(hash));
+  }
+
+  @Test
+  void store_invalidQuery_storedAsSent() {
+    String hash = _service.store("query { unfinished");
+    assertEquals(Optional.of("query { unfinished"), _service.getDocument(hash));
+  }
+
+  @Test
+  void store_noQuery_nothingStored() {
+    assertNull(_service.store(null));
+    assertEquals(0, countDocuments());
+  }
+
+  @Test
+  void getQuery_hashedAndInlineInputs_queryFound() {
+    String hash = _service.store(QUERY);
+    assertEquals(
+        _service.getDocument(hash),
+        _service.getQuery(GraphQlInputs.withQueryHash("GetQueue", hash, Map.of())));
+    assertEquals(
+        Optional.of(QUERY), _service.getQuery(new GraphQlInputs("GetQueue", QUERY, Map.of())));
+  }
+
+  private int countDocuments() {
+    return _jdbc.queryForObject(
+        "SELECT count(*) FROM " + _schema + ".graphql_query_document", Integer.class);
+  }
+}
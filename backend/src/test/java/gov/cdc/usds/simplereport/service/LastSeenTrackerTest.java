@@ -0,0 +1,59 @@
+package gov.cdc.usds.simplereport.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.cdc.usds.simplereport.db.model.ApiUser;
+import gov.cdc.usds.simplereport.db.model.auxiliary.PersonName;
+import gov.cdc.usds.simplereport.db.repository.ApiUserRepository;
+import java.util.Date;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+class LastSeenTrackerTest extends BaseServiceTest<LastSeenTracker> {
+
+  @Autowired private ApiUserRepository _userRepo;
+
+  @Test
+  void flush_seenUser_lastSeenUpdated() {
+    ApiUser user =
+        _userRepo.save(new ApiUser("lastseen@example.com", new PersonName("A", null, "B", null)));
+    assertNull(user.getLastSeen());
+    Date before = new Date();
+
+    _service.recordSeen(user);
+    _service.recordSeen(user);
+    long startQueryCount = _hibernateQueryInterceptor.getQueryCount();
+    _service.flush();
+    assertTrue(_hibernateQueryInterceptor.getQueryCount() - startQueryCount <= 1);
+
+    Date lastSeen = _userRepo.findById(user.getInternalId()).orElseThrow().getLastSeen();
+    assertNotNull(lastSeen);
+    assertFalse(lastSeen.before(before));
+  }
+
+  @Test
+  void flushOnShutdown_seenUser_lastSeenUpdated() {
+    ApiUser user =
+        _userRepo.save(new ApiUser("shutdown@example.com", new PersonName("A", null, "B", null)));
+    Date before = new Date();
+
+    _service.recordSeen(user);
+    _service.flushOnShutdown();
+
+    Date lastSeen = _userRepo.findById(user.getInternalId()).orElseThrow().getLastSeen();
+    assertNotNull(lastSeen);
+    assertFalse(lastSeen.before(before));
+  }
+
+  @Test
+  void flush_nothingSeen_noQueries() {
+    _service.flush(); // clear out anything recorded by setup
+    long startQueryCount = _hibernateQueryInterceptor.getQueryCount();
+    _service.flush();
+    assertEquals(startQueryCount, _hibernateQueryInterceptor.getQueryCount());
+  }
+}
@@ -2,6 +2,9 @@ package gov.cdc.usds.simplereport.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import gov.cdc.usds.simplereport.db.model.DeviceSpecimenType;
 import gov.cdc.usds.simplereport.db.model.DeviceType;
@@ -10,12 +13,16 @@ import gov.cdc.usds.simplereport.db.model.Organization;
 import gov.cdc.usds.simplereport.db.model.SpecimenType;
 import gov.cdc.usds.simplereport.db.model.auxiliary.PersonName;
 import gov.cdc.usds.simplereport.service.model.DeviceSpecimenTypeHolder;
+import gov.cdc.usds.simplereport.service.model.OrganizationRoles;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportSiteAdminUser;
 import gov.cdc.usds.simplereport.test_util.TestDataFactory;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 class OrganizationServiceTest extends BaseServiceTest<OrganizationService> {
 
@@ -33,6 +40,28 @@ class OrganizationServiceTest extends BaseServiceTest<OrganizationService> {
     assertEquals("DIS_ORG", org.getExternalId());
   }
 
+  @Test
+  void getCurrentOrganizationRoles_inRequest_resolvedOnce() {
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest()));
+    try {
+      long startQueryCount = _hibernateQueryInterceptor.getQueryCount();
+      OrganizationRoles roles = _service.getCurrentOrganizationRoles().orElseThrow();
+      long firstCallQueries = _hibernateQueryInterceptor.getQueryCount() - startQueryCount;
+      assertTrue(firstCallQueries > 0);
+
+      startQueryCount = _hibernateQueryInterceptor.getQueryCount();
+      assertSame(roles, _service.getCurrentOrganizationRoles().orElseThrow());
+      assertSame(roles.getOrganization(), _service.getCurrentOrganization());
+      _service.getAccessibleFacilities();
+      assertEquals(0, _hibernateQueryInterceptor.getQueryCount() - startQueryCount);
+
+      assertThrows(UnsupportedOperationException.class, () -> roles.getFacilities().clear());
+    } finally {
+      RequestContextHolder.resetRequestAttributes();
+    }
+  }
+
   @Test
   void createOrganization_standardUser_error() {
     DeviceSpecimenTypeHolder holder = getDeviceConfig();
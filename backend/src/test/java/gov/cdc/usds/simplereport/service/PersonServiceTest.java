@@ -1,15 +1,20 @@
 package gov.cdc.usds.simplereport.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentException;
 import gov.cdc.usds.simplereport.db.model.Facility;
 import gov.cdc.usds.simplereport.db.model.Organization;
 import gov.cdc.usds.simplereport.db.model.Person;
 import gov.cdc.usds.simplereport.db.model.auxiliary.PersonName;
 import gov.cdc.usds.simplereport.db.model.auxiliary.PersonRole;
+import gov.cdc.usds.simplereport.db.repository.PersonSearchResults;
+import gov.cdc.usds.simplereport.service.model.PatientPage;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportEntryOnlyAllFacilitiesUser;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportEntryOnlyUser;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportOrgAdminUser;
@@ -388,6 +393,45 @@ class PersonServiceTest extends BaseServiceTest<PersonService> {
     assertEquals(0, patients_site2_page2.size());
   }
 
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void getPatientsPage_cursorPagination() {
+    makedata(true);
+    UUID site2Id = _site2.getInternalId();
+
+    PatientPage page0 = _service.getPatientsPage(null, null, 5, false, null);
+    assertPatientList(page0.getPatients(), CHARLES, FRANK, JANNELLE, BRAD, DEXTER);
+    PatientPage page1 = _service.getPatientsPage(null, page0.getNextCursor(), 5, false, null);
+    assertPatientList(page1.getPatients(), KACEY, ELIZABETH, LEELOO, AMOS, IAN);
+    PatientPage page2 = _service.getPatientsPage(null, page1.getNextCursor(), 5, false, null);
+    assertPatientList(page2.getPatients(), HEINRICK, GALE);
+    assertNull(page2.getNextCursor());
+
+    // the cursor still works if that patient has been archived since
+    _service.setIsDeleted(page0.getPatients().get(4).getInternalId(), true);
+    page1 = _service.getPatientsPage(null, page0.getNextCursor(), 5, false, null);
+    assertPatientList(page1.getPatients(), KACEY, ELIZABETH, LEELOO, AMOS, IAN);
+
+    page0 = _service.getPatientsPage(site2Id, null, 2, false, "ma");
+    assertPatientList(page0.getPatients(), FRANK, JANNELLE);
+    page1 = _service.getPatientsPage(site2Id, page0.getNextCursor(), 2, false, "ma");
+    assertPatientList(page1.getPatients(), KACEY);
+    assertNull(page1.getNextCursor());
+  }
+
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void getPatientsPage_cursorFromOtherFacility_rejected() {
+    makedata(true);
+    PatientPage site2Page = _service.getPatientsPage(_site2.getInternalId(), null, 2, false, null);
+    assertPatientList(site2Page.getPatients(), FRANK, JANNELLE);
+    UUID site1Id = _site1.getInternalId();
+
+    assertThrows(
+        IllegalGraphqlArgumentException.class,
+        () -> _service.getPatientsPage(site1Id, site2Page.getNextCursor(), 2, false, null));
+  }
+
   @Test
   @WithSimpleReportOrgAdminUser
   void getPatients_search_OrgAdminUser() {
@@ -428,6 +472,72 @@ class PersonServiceTest extends BaseServiceTest<PersonService> {
     assertEquals(0, _service.getPatientsCount(null, false, ""));
   }
 
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void searchPatients_rankedAndPaged() {
+    makedata(true);
+
+    // Kacey Mathie matches on last name, so ranks above the middle-name matches
+    PersonSearchResults page = _service.searchPatients(null, false, "Ma", null, 3);
+    assertPatientList(page.getPatients(), KACEY, CHARLES, FRANK);
+    assertEquals(7, page.getTotalCount());
+    page = _service.searchPatients(null, false, "Ma", page.getNextCursor(), 3);
+    assertPatientList(page.getPatients(), JANNELLE, ELIZABETH, HEINRICK);
+    assertEquals(7, page.getTotalCount());
+    page = _service.searchPatients(null, false, "Ma", page.getNextCursor(), 3);
+    assertPatientList(page.getPatients(), GALE);
+    assertEquals(7, page.getTotalCount());
+    assertFalse(page.hasNextPage());
+    assertNull(page.getNextCursor());
+
+    page = _service.searchPatients(_site1.getInternalId(), false, "ma", null, 0);
+    assertPatientList(page.getPatients(), CHARLES, ELIZABETH, HEINRICK, GALE);
+    assertEquals(4, page.getTotalCount());
+  }
+
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void searchPatients_cursorFromOtherFacility_rejected() {
+    makedata(true);
+    PersonSearchResults site2Page =
+        _service.searchPatients(_site2.getInternalId(), false, "ma", null, 1);
+    assertPatientList(site2Page.getPatients(), KACEY);
+    UUID site1Id = _site1.getInternalId();
+    UUID cursor = site2Page.getNextCursor();
+
+    assertThrows(
+        IllegalGraphqlArgumentException.class,
+        () -> _service.searchPatients(site1Id, false, "ma", cursor, 2));
+    assertThrows(
+        IllegalGraphqlArgumentException.class,
+        () -> _service.searchPatients(null, false, "ma", UUID.randomUUID(), 2));
+  }
+
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void searchPatients_multipleTerms() {
+    makedata(true);
+
+    assertPatientList(
+        _service.searchPatients(null, false, "mat bon", null, 0).getPatients(), FRANK);
+    assertPatientList(
+        _service.searchPatients(null, false, "Bones, Mat", null, 0).getPatients(), FRANK);
+    assertPatientList(
+        _service.searchPatients(null, false, "jo", null, 0).getPatients(), BRAD, DEXTER);
+    assertPatientList(_service.searchPatients(null, false, "jo b", null, 0).getPatients(), BRAD);
+    assertEquals(0, _service.searchPatients(null, false, "jo zz", null, 0).getTotalCount());
+    assertEquals(0, _service.searchPatients(null, false, "M", null, 0).getTotalCount());
+    assertEquals(0, _service.searchPatients(null, false, " ,. ", null, 0).getTotalCount());
+  }
+
+  @Test
+  void toSearchTerms_splitsOnPunctuation() {
+    assertEquals(List.of("smith", "jo"), PersonService.toSearchTerms("  Smith,Jo "));
+    assertEquals(List.of("o", "brien"), PersonService.toSearchTerms("O'Brien"));
+    assertEquals(List.of(), PersonService.toSearchTerms("-- "));
+    assertEquals(List.of(), PersonService.toSearchTerms(null));
+  }
+
   @Test
   @WithSimpleReportOrgAdminUser
   void getPatients_counts() {
@@ -24,7 +24,7 @@ class ScheduledTasksServiceTest {
     String cronExpression = "0 0 0 * * *";
     List<String> uploadSchedule = List.of(cronExpression);
     DataHubConfig config =
-        new DataHubConfig(true, "http://mock.com", 20, "NOPE", "", uploadSchedule, null);
+        new DataHubConfig(true, "http://mock.com", 20, 10, "NOPE", "", uploadSchedule, null);
 
     TaskScheduler scheduler = mock(TaskScheduler.class);
     ArgumentCaptor<CronTrigger> captureTrigger = ArgumentCaptor.forClass(CronTrigger.class);
@@ -47,7 +47,8 @@ class ScheduledTasksServiceTest {
   @Test
   void scheduleUploads_noSchedule_nothingScheduled() {
     DataHubConfig config =
-        new DataHubConfig(true, "http://mock.com", 20, "NOPE", "", Collections.emptyList(), null);
+        new DataHubConfig(
+            true, "http://mock.com", 20, 10, "NOPE", "", Collections.emptyList(), null);
 
     TaskScheduler scheduler = mock(TaskScheduler.class);
     ArgumentCaptor<CronTrigger> captureTrigger = ArgumentCaptor.forClass(CronTrigger.class);
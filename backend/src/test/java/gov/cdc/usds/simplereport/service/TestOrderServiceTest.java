@@ -1,18 +1,23 @@
 package gov.cdc.usds.simplereport.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.verify;
 
 import com.google.i18n.phonenumbers.NumberParseException;
+import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentException;
 import gov.cdc.usds.simplereport.db.model.DeviceType;
 import gov.cdc.usds.simplereport.db.model.Facility;
 import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.model.PatientLink;
 import gov.cdc.usds.simplereport.db.model.Person;
 import gov.cdc.usds.simplereport.db.model.TestEvent;
 import gov.cdc.usds.simplereport.db.model.TestOrder;
@@ -21,7 +26,10 @@ import gov.cdc.usds.simplereport.db.model.auxiliary.PersonRole;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestCorrectionStatus;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestResult;
 import gov.cdc.usds.simplereport.db.model.auxiliary.TestResultDeliveryPreference;
-import gov.cdc.usds.simplereport.service.sms.SmsService;
+import gov.cdc.usds.simplereport.service.model.AddTestResultOutcome;
+import gov.cdc.usds.simplereport.service.model.TestResultEntry;
+import gov.cdc.usds.simplereport.service.model.TestResultPage;
+import gov.cdc.usds.simplereport.service.sms.SmsOutboxService;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportEntryOnlyAllFacilitiesUser;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportEntryOnlyUser;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportOrgAdminUser;
@@ -31,16 +39,25 @@ import gov.cdc.usds.simplereport.test_util.TestDataFactory;
 import gov.cdc.usds.simplereport.test_util.TestUserIdentities;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 @SuppressWarnings("checkstyle:MagicNumber")
 class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
@@ -48,7 +65,9 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
   @Autowired private OrganizationService _organizationService;
   @Autowired private PersonService _personService;
   @Autowired private TestDataFactory _dataFactory;
-  @MockBean private SmsService _smsService;
+  @Autowired private ApiUserService _apiUserService;
+  @Autowired private EntityManagerFactory _entityManagerFactory;
+  @MockBean private SmsOutboxService _smsOutbox;
 
   private static final PersonName AMOS = new PersonName("Amos", null, "Quint", null);
   private static final PersonName BRAD = new PersonName("Bradley", "Z.", "Jones", "Jr.");
@@ -171,6 +190,60 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     assertEquals(1, queue.size());
   }
 
+  @Test
+  @WithSimpleReportStandardAllFacilitiesUser
+  void addPatientToQueue_inRequest_noTransactionsForAuditing() {
+    Organization org = _organizationService.getCurrentOrganization();
+    Facility facility = _organizationService.getFacilities(org).get(0);
+    Person outsidePatient = _dataFactory.createFullPerson(org);
+    Person insidePatient = _dataFactory.createMinimalPerson(org, null, BRAD);
+    Statistics statistics = _entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+    try {
+      // outside a request, every audited entity looks up its creator in a transaction of its own
+      statistics.clear();
+      addToQueue(facility, outsidePatient);
+      long outsideRequest = statistics.getTransactionCount();
+
+      RequestContextHolder.setRequestAttributes(
+          new ServletRequestAttributes(new MockHttpServletRequest()));
+      try {
+        // as building the GraphQL context does, before any mutation
+        _apiUserService.getCurrentUserInfo();
+        statistics.clear();
+        addToQueue(facility, insidePatient);
+      } finally {
+        RequestContextHolder.resetRequestAttributes();
+      }
+      long insideRequest = statistics.getTransactionCount();
+
+      // one for each of the patient answers, test order and patient link, at the very least
+      assertTrue(
+          outsideRequest - insideRequest >= 3,
+          "expected at least 3 fewer transactions, but got "
+              + outsideRequest
+              + " and "
+              + insideRequest);
+      assertEquals(2, _service.getQueue(facility.getInternalId()).size());
+    } finally {
+      statistics.setStatisticsEnabled(false);
+    }
+  }
+
+  private void addToQueue(Facility facility, Person patient) {
+    _service.addPatientToQueue(
+        facility.getInternalId(),
+        patient,
+        "",
+        Collections.<String, Boolean>emptyMap(),
+        false,
+        LocalDate.of(1865, 12, 25),
+        "",
+        TestResult.POSITIVE,
+        LocalDate.of(1865, 12, 25),
+        false);
+  }
+
   @Test
   void addPatientToQueue_standardUser_successDependsOnFacilityAccess() {
     Facility facility =
@@ -273,12 +346,94 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     _service.addTestResult(
         devA.getInternalId().toString(), TestResult.POSITIVE, p.getInternalId(), null);
 
-    verify(_smsService).sendToPatientLink(any(UUID.class), anyString());
+    verify(_smsOutbox).enqueue(any(PatientLink.class), anyString());
 
     List<TestOrder> queue = _service.getQueue(facility.getInternalId());
     assertEquals(0, queue.size());
   }
 
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void addTestResults_mixedBatch_savesValidEntriesAndReportsTheRest() {
+    Organization org = _organizationService.getCurrentOrganization();
+    Facility facility = _dataFactory.createValidFacility(org);
+    Person amos = _dataFactory.createMinimalPerson(org, facility, AMOS);
+    Person brad = _dataFactory.createMinimalPerson(org, facility, BRAD);
+    Person charles = _dataFactory.createMinimalPerson(org, facility, CHARLES);
+    Person dexter = _dataFactory.createMinimalPerson(org, facility, DEXTER);
+    _dataFactory.createTestOrder(amos, facility);
+    _dataFactory.createTestOrder(brad, facility);
+    _dataFactory.createTestOrder(charles, facility);
+    // dexter is not in the queue
+    UUID device = _dataFactory.getGenericDeviceSpecimen().getInternalId();
+
+    List<AddTestResultOutcome> outcomes =
+        _service.addTestResults(
+            List.of(
+                new TestResultEntry(amos.getInternalId(), device, "POSITIVE", null),
+                new TestResultEntry(brad.getInternalId(), device, "SORT_OF", null),
+                new TestResultEntry(charles.getInternalId(), device, "NEGATIVE", null),
+                new TestResultEntry(dexter.getInternalId(), device, "NEGATIVE", null),
+                new TestResultEntry(brad.getInternalId(), device, "NEGATIVE", null)));
+
+    assertEquals(5, outcomes.size());
+    assertTrue(outcomes.get(0).isSuccess());
+    assertEquals(TestResult.POSITIVE, outcomes.get(0).getTestOrder().getResult());
+    assertEquals(
+        "Cannot submit more than one result for the same patient", outcomes.get(1).getError());
+    assertTrue(outcomes.get(2).isSuccess());
+    assertEquals("No active test order was found for that patient", outcomes.get(3).getError());
+    assertFalse(outcomes.get(4).isSuccess());
+
+    // brad is still waiting; amos and charles have results
+    List<TestOrder> queue = _service.getQueue(facility.getInternalId());
+    assertEquals(1, queue.size());
+    assertEquals(brad.getInternalId(), queue.get(0).getPatient().getInternalId());
+    assertEquals(2, _service.getTestEventsResults(facility.getInternalId(), 0, 10).size());
+  }
+
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void addTestResults_badResultOrDevice_reportedPerEntry() {
+    Organization org = _organizationService.getCurrentOrganization();
+    Facility facility = _dataFactory.createValidFacility(org);
+    Person amos = _dataFactory.createMinimalPerson(org, facility, AMOS);
+    Person brad = _dataFactory.createMinimalPerson(org, facility, BRAD);
+    _dataFactory.createTestOrder(amos, facility);
+    _dataFactory.createTestOrder(brad, facility);
+    UUID device = _dataFactory.getGenericDeviceSpecimen().getInternalId();
+
+    List<AddTestResultOutcome> outcomes =
+        _service.addTestResults(
+            List.of(
+                new TestResultEntry(amos.getInternalId(), device, "MAYBE", null),
+                new TestResultEntry(brad.getInternalId(), UUID.randomUUID(), "NEGATIVE", null)));
+
+    assertEquals("Invalid test result: MAYBE", outcomes.get(0).getError());
+    assertEquals("Invalid device/specimen type ID", outcomes.get(1).getError());
+    assertEquals(2, _service.getQueue(facility.getInternalId()).size());
+  }
+
+  @Test
+  @WithSimpleReportEntryOnlyUser
+  void addTestResults_entryOnlyUser_needsFacilityAccess() {
+    Organization org = _organizationService.getCurrentOrganization();
+    Facility facility = _dataFactory.createValidFacility(org);
+    Person amos = _dataFactory.createMinimalPerson(org, facility, AMOS);
+    _dataFactory.createTestOrder(amos, facility);
+    UUID device = _dataFactory.getGenericDeviceSpecimen().getInternalId();
+    List<TestResultEntry> entries =
+        List.of(new TestResultEntry(amos.getInternalId(), device, "NEGATIVE", null));
+
+    assertEquals(
+        "No active test order was found for that patient",
+        _service.addTestResults(entries).get(0).getError());
+
+    TestUserIdentities.setFacilityAuthorities(facility);
+    assertTrue(_service.addTestResults(entries).get(0).isSuccess());
+    TestUserIdentities.setFacilityAuthorities();
+  }
+
   @Test
   @WithSimpleReportStandardAllFacilitiesUser
   void addTestResult_standardUserAllFacilities_ok() throws NumberParseException {
@@ -595,6 +750,93 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     assertSecurityError(() -> _service.getTestResults(p));
   }
 
+  @Test
+  @WithSimpleReportStandardUser
+  void fetchTestResultsForPatients_standardUser_successDependsOnFacilityAccess() {
+    Organization org = _organizationService.getCurrentOrganization();
+    Facility f1 = _dataFactory.createValidFacility(org, "First One");
+    Facility f2 = _dataFactory.createValidFacility(org, "Second One");
+    Person p1 = _dataFactory.createMinimalPerson(org, f1);
+    Person p2 = _dataFactory.createMinimalPerson(org);
+    _dataFactory.createTestEvent(p1, f1);
+    _dataFactory.createTestEvent(p2, f1);
+    _dataFactory.createTestEvent(p2, f2);
+
+    assertThrows(
+        AccessDeniedException.class, () -> _service.getTestResultsForPatients(List.of(p1, p2)));
+    Map<UUID, List<TestEvent>> results = _service.getTestResultsForPatients(List.of(p2));
+    assertEquals(0, results.get(p2.getInternalId()).size());
+
+    TestUserIdentities.setFacilityAuthorities(f1);
+    results = _service.getTestResultsForPatients(List.of(p1, p2));
+    assertEquals(1, results.get(p1.getInternalId()).size());
+    assertEquals(1, results.get(p2.getInternalId()).size());
+
+    TestUserIdentities.setFacilityAuthorities(f1, f2);
+    results = _service.getTestResultsForPatients(List.of(p1, p2));
+    assertEquals(1, results.get(p1.getInternalId()).size());
+    assertEquals(2, results.get(p2.getInternalId()).size());
+  }
+
+  @Test
+  @WithSimpleReportStandardUser
+  void fetchTestOrders_standardUser_filteredByFacilityAccess() {
+    Organization org = _organizationService.getCurrentOrganization();
+    Facility f1 = _dataFactory.createValidFacility(org, "First One");
+    Facility f2 = _dataFactory.createValidFacility(org, "Second One");
+    Person p = _dataFactory.createMinimalPerson(org);
+    UUID o1 = _dataFactory.createTestEvent(p, f1).getTestOrderId();
+    UUID o2 = _dataFactory.createTestEvent(p, f2).getTestOrderId();
+
+    assertEquals(Set.of(), _service.getTestOrders(List.of(o1, o2)).keySet());
+
+    TestUserIdentities.setFacilityAuthorities(f1);
+    assertEquals(Set.of(o1), _service.getTestOrders(List.of(o1, o2)).keySet());
+
+    TestUserIdentities.setFacilityAuthorities(f1, f2);
+    assertEquals(Set.of(o1, o2), _service.getTestOrders(List.of(o1, o2)).keySet());
+  }
+
+  @Test
+  @WithSimpleReportEntryOnlyUser
+  void fetchTestOrders_entryOnlyUser_error() {
+    Organization org = _organizationService.getCurrentOrganization();
+    Facility facility = _organizationService.getFacilities(org).get(0);
+    Person p = _dataFactory.createFullPerson(org);
+    UUID orderId = _dataFactory.createTestEvent(p, facility).getTestOrderId();
+
+    assertSecurityError(() -> _service.getTestOrders(List.of(orderId)));
+  }
+
+  // watch for N+1 queries
+  @Test
+  @WithSimpleReportStandardAllFacilitiesUser
+  void fetchTestResultsForPatients_NPlusOne() {
+    Organization org = _organizationService.getCurrentOrganization();
+    Facility facility = _organizationService.getFacilities(org).get(0);
+    Person p1 = _dataFactory.createFullPerson(org);
+    _dataFactory.createTestEvent(p1, facility);
+
+    long startQueryCount = _hibernateQueryInterceptor.getQueryCount();
+    _service.getTestResultsForPatients(List.of(p1));
+    long firstPassTotal = _hibernateQueryInterceptor.getQueryCount() - startQueryCount;
+
+    List<Person> patients = new ArrayList<>(List.of(p1));
+    for (int ii = 0; ii < 3; ii++) {
+      Person p = _dataFactory.createMinimalPerson(org, facility);
+      _dataFactory.createTestEvent(p, facility);
+      _dataFactory.createTestEvent(p, facility);
+      patients.add(p);
+    }
+
+    startQueryCount = _hibernateQueryInterceptor.getQueryCount();
+    Map<UUID, List<TestEvent>> results = _service.getTestResultsForPatients(patients);
+    long secondPassTotal = _hibernateQueryInterceptor.getQueryCount() - startQueryCount;
+    assertEquals(firstPassTotal, secondPassTotal);
+    assertEquals(4, results.size());
+    assertEquals(2, results.get(patients.get(3).getInternalId()).size());
+  }
+
   // watch for N+1 queries
   @Test
   @WithSimpleReportStandardAllFacilitiesUser
@@ -756,6 +998,43 @@ class TestOrderServiceTest extends BaseServiceTest<TestOrderService> {
     assertEquals(0, results_page3.size());
   }
 
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void getTestEventsResultsPage_cursorPagination() {
+    List<TestEvent> testEvents = makedata();
+    Collections.reverse(testEvents);
+    UUID siteId = _site.getInternalId();
+
+    TestResultPage page0 = _service.getTestEventsResultsPage(siteId, null, 5);
+    assertTestResultsList(page0.getTestResults(), testEvents.subList(0, 5));
+
+    // a new result goes on the front, and does not shift the pages after the one we have seen
+    _dataFactory.createTestEvent(
+        _dataFactory.createMinimalPerson(
+            _organizationService.getCurrentOrganization(), _site, BRAD),
+        _site);
+
+    TestResultPage page1 = _service.getTestEventsResultsPage(siteId, page0.getNextCursor(), 5);
+    assertTestResultsList(page1.getTestResults(), testEvents.subList(5, 10));
+    TestResultPage page2 = _service.getTestEventsResultsPage(siteId, page1.getNextCursor(), 5);
+    assertTestResultsList(page2.getTestResults(), testEvents.subList(10, 11));
+    assertNull(page2.getNextCursor());
+  }
+
+  @Test
+  @WithSimpleReportOrgAdminUser
+  void getTestEventsResultsPage_cursorFromOtherFacility_rejected() {
+    makedata();
+    TestResultPage otherPage =
+        _service.getTestEventsResultsPage(_otherSite.getInternalId(), null, 0);
+    UUID otherEventId = otherPage.getTestResults().get(0).getInternalId();
+    UUID siteId = _site.getInternalId();
+
+    assertThrows(
+        IllegalGraphqlArgumentException.class,
+        () -> _service.getTestEventsResultsPage(siteId, otherEventId, 5));
+  }
+
   @Test
   @WithSimpleReportOrgAdminUser
   void getTestResultsCount() {
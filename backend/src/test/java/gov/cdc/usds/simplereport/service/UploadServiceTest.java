@@ -5,11 +5,15 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 
 import gov.cdc.usds.simplereport.api.model.errors.IllegalGraphqlArgumentException;
 import gov.cdc.usds.simplereport.db.model.Person;
 import gov.cdc.usds.simplereport.db.model.auxiliary.StreetAddress;
+import gov.cdc.usds.simplereport.service.model.PatientImportResult;
+import gov.cdc.usds.simplereport.service.model.PatientImportResult.RowError;
 import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.Role;
 import gov.cdc.usds.simplereport.test_util.TestUserIdentities;
 import java.io.ByteArrayInputStream;
@@ -18,10 +22,14 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.test.context.support.WithMockUser;
 
 @WithMockUser(username = TestUserIdentities.SITE_ADMIN_USER, authorities = Role.DEFAULT_ORG_ADMIN)
@@ -29,7 +37,7 @@ class UploadServiceTest extends BaseServiceTest<UploadService> {
   public static final int PATIENT_PAGEOFFSET = 0;
   public static final int PATIENT_PAGESIZE = 1000;
 
-  @Autowired private PersonService _ps;
+  @SpyBean private PersonService _ps;
   @MockBean protected AddressValidationService _addressValidation;
   private final StreetAddress address =
       new StreetAddress("123 Main Street", null, "Washington", "DC", "20008", null);
@@ -39,6 +47,12 @@ class UploadServiceTest extends BaseServiceTest<UploadService> {
     initSampleData();
     when(_addressValidation.getValidatedAddress(any(), any(), any(), any(), any(), any()))
         .thenReturn(address);
+    when(_addressValidation.getValidatedAddresses(anyList()))
+        .thenAnswer(
+            inv ->
+                inv.getArgument(0, List.class).stream()
+                    .map(l -> Optional.of(address))
+                    .collect(Collectors.toList()));
   }
 
   @Test
@@ -153,4 +167,129 @@ class UploadServiceTest extends BaseServiceTest<UploadService> {
         this._ps.getPatients(null, PATIENT_PAGEOFFSET, PATIENT_PAGESIZE, false, null);
     assertEquals(1, patients.size(), "Should have 1 patient");
   }
+
+  @Test
+  void importPersonCSV_validFile_importsAll() throws IOException {
+    PatientImportResult result;
+    try (InputStream inputStream =
+        UploadServiceTest.class.getClassLoader().getResourceAsStream("test-upload.csv")) {
+      result = this._service.importPersonCSV(inputStream);
+    }
+
+    assertEquals(1, result.getImportedCount());
+    assertEquals(List.of(), result.getErrors());
+    List<Person> patients =
+        this._ps.getPatients(null, PATIENT_PAGEOFFSET, PATIENT_PAGESIZE, false, null);
+    assertAll(
+        () -> assertEquals(1, patients.size()),
+        () -> assertEquals("Best", patients.get(0).getLastName()),
+        () -> assertEquals(address, patients.get(0).getAddress()));
+  }
+
+  @Test
+  void importPersonCSV_oneBadRow_importsTheRest() throws IOException {
+    PatientImportResult result;
+    try (InputStream inputStream =
+        UploadServiceTest.class
+            .getClassLoader()
+            .getResourceAsStream("test-upload-one-invalid-row.csv")) {
+      result = this._service.importPersonCSV(inputStream);
+    }
+
+    assertEquals(4, result.getImportedCount());
+    assertEquals(1, result.getErrors().size());
+    assertEquals(4, result.getErrors().get(0).getRow());
+    assertEquals(
+        4, this._ps.getPatients(null, PATIENT_PAGEOFFSET, PATIENT_PAGESIZE, false, null).size());
+  }
+
+  @Test
+  void importPersonCSV_chunkFailsToSave_rowsSavedOneAtATime() throws IOException {
+    AtomicInteger singleSaves = new AtomicInteger();
+    doAnswer(
+            inv -> {
+              List<?> patients = inv.getArgument(0);
+              if (patients.size() > 1 || singleSaves.incrementAndGet() == 2) {
+                throw new DataIntegrityViolationException("nope");
+              }
+              return inv.callRealMethod();
+            })
+        .when(_ps)
+        .addPatients(anyList());
+    PatientImportResult result;
+    try (InputStream inputStream =
+        UploadServiceTest.class
+            .getClassLoader()
+            .getResourceAsStream("test-upload-one-invalid-row.csv")) {
+      result = this._service.importPersonCSV(inputStream);
+    }
+
+    assertEquals(3, result.getImportedCount());
+    assertEquals(
+        List.of(2, 4),
+        result.getErrors().stream().map(RowError::getRow).collect(Collectors.toList()));
+    assertEquals("The patient could not be saved", result.getErrors().get(0).getMessage());
+    assertEquals(
+        3, this._ps.getPatients(null, PATIENT_PAGEOFFSET, PATIENT_PAGESIZE, false, null).size());
+  }
+
+  @Test
+  void importPersonCSV_rowRejectedByDatabase_otherRowsSaved() throws IOException {
+    String header =
+        "LastName,FirstName,MiddleName,Suffix,Race,DOB,biologicalSex,Ethnicity,Street,Street2,"
+            + "City,County,State,ZipCode,PhoneNumber,employedInHealthcare,"
+            + "residentCongregateSetting,Role,Email,facilityId\n";
+    String row =
+        ",Tim,,,White,5/11/1933,Male,Not_Hispanic,123 Main Street,,Washington,,DC,20008,"
+            + "5656667777,Yes,No,Staff,foo@example.com,\n";
+    // Postgres will not store a NUL character in a text column, so only the database rejects it
+    String csv = header + "Best" + row + "Be\u0000st" + row + "Rest" + row;
+    PatientImportResult result;
+    try (ByteArrayInputStream bis =
+        new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))) {
+      result = this._service.importPersonCSV(bis);
+    }
+
+    assertEquals(2, result.getImportedCount());
+    assertEquals(
+        List.of(2), result.getErrors().stream().map(RowError::getRow).collect(Collectors.toList()));
+    assertEquals("The patient could not be saved", result.getErrors().get(0).getMessage());
+    assertEquals(
+        2, this._ps.getPatients(null, PATIENT_PAGEOFFSET, PATIENT_PAGESIZE, false, null).size());
+  }
+
+  @Test
+  void importPersonCSV_unverifiableAddress_reportsRow() throws IOException {
+    when(_addressValidation.getValidatedAddresses(anyList()))
+        .thenAnswer(
+            inv ->
+                inv.getArgument(0, List.class).stream()
+                    .map(l -> Optional.empty())
+                    .collect(Collectors.toList()));
+    PatientImportResult result;
+    try (InputStream inputStream =
+        UploadServiceTest.class.getClassLoader().getResourceAsStream("test-upload.csv")) {
+      result = this._service.importPersonCSV(inputStream);
+    }
+
+    assertEquals(0, result.getImportedCount());
+    assertEquals(1, result.getErrors().get(0).getRow());
+    assertEquals(
+        "The address you entered could not be verified", result.getErrors().get(0).getMessage());
+    assertEquals(
+        0, this._ps.getPatients(null, PATIENT_PAGEOFFSET, PATIENT_PAGESIZE, false, null).size());
+  }
+
+  @Test
+  void importPersonCSV_notCSV_reportsRow() throws IOException {
+    PatientImportResult result;
+    try (ByteArrayInputStream bis =
+        new ByteArrayInputStream("this is not a CSV".getBytes(StandardCharsets.UTF_8))) {
+      result = this._service.importPersonCSV(bis);
+    }
+
+    assertEquals(0, result.getImportedCount());
+    assertEquals(1, result.getErrors().size());
+    assertTrue(result.getErrors().get(0).getMessage().contains("Not enough column values:"));
+  }
 }
@@ -0,0 +1,117 @@
+package gov.cdc.usds.simplereport.service.sms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.twilio.type.PhoneNumber;
+import gov.cdc.usds.simplereport.db.model.Facility;
+import gov.cdc.usds.simplereport.db.model.Organization;
+import gov.cdc.usds.simplereport.db.model.PatientLink;
+import gov.cdc.usds.simplereport.db.model.Person;
+import gov.cdc.usds.simplereport.db.model.SmsOutboxMessage;
+import gov.cdc.usds.simplereport.db.model.TestOrder;
+import gov.cdc.usds.simplereport.db.model.auxiliary.SmsDeliveryStatus;
+import gov.cdc.usds.simplereport.db.repository.SmsOutboxMessageRepository;
+import gov.cdc.usds.simplereport.service.BaseServiceTest;
+import gov.cdc.usds.simplereport.service.OrganizationService;
+import gov.cdc.usds.simplereport.test_util.SliceTestConfiguration.WithSimpleReportStandardUser;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(
+    properties = {
+      "simple-report.sms-outbox.max-attempts=2",
+      "simple-report.sms-outbox.initial-backoff=0s",
+      "simple-report.sms-outbox.max-per-second=1000",
+    })
+@WithSimpleReportStandardUser
+@SuppressWarnings("checkstyle:MagicNumber")
+class SmsOutboxServiceTest extends BaseServiceTest<SmsOutboxService> {
+
+  @MockBean SmsProviderWrapper mockTwilio;
+
+  @Autowired SmsService _smsService;
+  @Autowired SmsOutboxMessageRepository _repo;
+  @Autowired OrganizationService _organizationService;
+
+  Person _person;
+  PatientLink _patientLink;
+
+  @BeforeEach
+  void setupData() {
+    initSampleData();
+    Organization org = _organizationService.getCurrentOrganization();
+    Facility site = _dataFactory.createValidFacility(org);
+    _person = _dataFactory.createFullPerson(org);
+    TestOrder to = _dataFactory.createTestOrder(_person, site);
+    _patientLink = _dataFactory.createPatientLink(to);
+  }
+
+  @Test
+  void deliverDueMessages_providerAccepts_markedSent() throws Exception {
+    when(mockTwilio.send(any(), any(), any())).thenReturn("SM123");
+    _service.enqueue(_patientLink, "your results are in");
+
+    assertEquals(1, _service.deliverDueMessages());
+
+    verify(mockTwilio)
+        .send(
+            eq(new PhoneNumber(_smsService.formatNumber(_person.getTelephone()))),
+            any(),
+            eq("your results are in"));
+    SmsOutboxMessage sent = _repo.findAll().iterator().next();
+    assertEquals(SmsDeliveryStatus.SENT, sent.getStatus());
+    assertEquals("SM123", sent.getProviderMessageId());
+    assertEquals(1, sent.getAttempts());
+    assertNull(sent.getLastError());
+    // nothing left to do
+    assertEquals(0, _service.deliverDueMessages());
+  }
+
+  @Test
+  void deliverDueMessages_providerFails_retriedThenFailed() {
+    when(mockTwilio.send(any(), any(), any())).thenThrow(new IllegalStateException("twilio down"));
+    _service.enqueue(_patientLink, "your results are in");
+
+    assertEquals(1, _service.deliverDueMessages());
+    SmsOutboxMessage retrying = _repo.findAll().iterator().next();
+    assertEquals(SmsDeliveryStatus.PENDING, retrying.getStatus());
+    assertEquals(1, retrying.getAttempts());
+    assertTrue(retrying.getLastError().contains("twilio down"));
+
+    assertEquals(1, _service.deliverDueMessages());
+    SmsOutboxMessage failed = _repo.findAll().iterator().next();
+    assertEquals(SmsDeliveryStatus.FAILED, failed.getStatus());
+    assertEquals(2, failed.getAttempts());
+
+    assertEquals(0, _service.deliverDueMessages());
+  }
+
+  @Test
+  void reserveSendSlot_repeated_slotsOneIntervalApart() {
+    double interval = 60_000;
+    assertTrue(_repo.reserveSendSlot(interval) <= 0); // nothing sent yet: go now
+    double wait = _repo.reserveSendSlot(interval); // as if from another server, the next slot
+    assertTrue(wait > interval - 1_000 && wait <= interval, "waited " + wait);
+  }
+
+  @Test
+  void backoff_doublesUpToMaximum() {
+    Duration initial = Duration.ofSeconds(30);
+    Duration max = Duration.ofMinutes(5);
+    assertEquals(Duration.ofSeconds(30), SmsOutboxService.backoff(1, initial, max));
+    assertEquals(Duration.ofSeconds(60), SmsOutboxService.backoff(2, initial, max));
+    assertEquals(Duration.ofSeconds(240), SmsOutboxService.backoff(4, initial, max));
+    assertEquals(max, SmsOutboxService.backoff(5, initial, max));
+    assertEquals(max, SmsOutboxService.backoff(50, initial, max));
+  }
+}
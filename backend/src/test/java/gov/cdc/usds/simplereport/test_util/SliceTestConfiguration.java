@@ -12,9 +12,14 @@ import gov.cdc.usds.simplereport.config.simplereport.DemoUserConfiguration.DemoU
 import gov.cdc.usds.simplereport.config.simplereport.SiteAdminEmailList;
 import gov.cdc.usds.simplereport.db.repository.BaseRepositoryTest;
 import gov.cdc.usds.simplereport.idp.repository.DemoOktaRepository;
+import gov.cdc.usds.simplereport.properties.AuditLoggingProperties;
+import gov.cdc.usds.simplereport.properties.AuditRetentionProperties;
+import gov.cdc.usds.simplereport.properties.SmsOutboxProperties;
 import gov.cdc.usds.simplereport.service.ApiUserService;
 import gov.cdc.usds.simplereport.service.AuthorizationService;
 import gov.cdc.usds.simplereport.service.BaseServiceTest;
+import gov.cdc.usds.simplereport.service.CurrentApiUserContextHolder;
+import gov.cdc.usds.simplereport.service.CurrentOrganizationRolesContextHolder;
 import gov.cdc.usds.simplereport.service.LoggedInAuthorizationService;
 import gov.cdc.usds.simplereport.service.OrganizationInitializingService;
 import gov.cdc.usds.simplereport.service.OrganizationService;
@@ -25,11 +30,14 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.util.List;
+import org.springframework.beans.factory.config.CustomScopeConfigurer;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.RequestScope;
 
 /**
  * Bean creation and wiring required to get slice tests to run without a full application context
@@ -80,13 +88,18 @@ import org.springframework.security.test.context.support.WithMockUser;
   OrganizationService.class,
   ApiUserService.class,
   OrganizationInitializingService.class,
-  CurrentPatientContextHolder.class
+  CurrentPatientContextHolder.class,
+  CurrentOrganizationRolesContextHolder.class,
+  CurrentApiUserContextHolder.class
 })
 @EnableConfigurationProperties({
   InitialSetupProperties.class,
   AuthorizationProperties.class,
   SiteAdminEmailList.class,
   DataHubConfig.class,
+  AuditLoggingProperties.class,
+  AuditRetentionProperties.class,
+  SmsOutboxProperties.class,
 })
 public class SliceTestConfiguration {
 
@@ -119,6 +132,18 @@ public class SliceTestConfiguration {
         new DemoUserConfiguration(sliceTestUsers));
   }
 
+  /**
+   * Slice tests do not run in a web application context, so request scope is not registered by
+   * default. Registering it lets a test bind a mock request to exercise request-scoped beans; tests
+   * that do not bind a request never touch them.
+   */
+  @Bean
+  public static CustomScopeConfigurer requestScopeConfigurer() {
+    CustomScopeConfigurer configurer = new CustomScopeConfigurer();
+    configurer.addScope(WebApplicationContext.SCOPE_REQUEST, new RequestScope());
+    return configurer;
+  }
+
   @Bean
   public AuthorizationService realAuthorizationService(OrganizationExtractor extractor) {
     return new LoggedInAuthorizationService(extractor);
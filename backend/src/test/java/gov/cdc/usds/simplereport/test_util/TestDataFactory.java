@@ -163,6 +163,7 @@ public class TestDataFactory {
     o.setTestEventRef(e);
     o.markComplete();
     _testOrderRepo.save(o);
+    _testEventRepo.recordCurrentResult(e.getInternalId());
     return e;
   }
 
@@ -172,14 +173,17 @@ public class TestDataFactory {
     order.setTestEventRef(event);
     order.markComplete();
     _testOrderRepo.save(order);
+    _testEventRepo.recordCurrentResult(event.getInternalId());
     return event;
   }
 
   @Transactional
   public PatientLink createPatientLink(TestOrder order) {
     TestOrder to = _testOrderRepo.findById(order.getInternalId()).orElseThrow();
-    PatientLink pl = new PatientLink(to);
-    return _patientLinkRepository.save(pl);
+    PatientLink pl = _patientLinkRepository.save(new PatientLink(to));
+    to.setPatientLink(pl);
+    _testOrderRepo.save(to);
+    return pl;
   }
 
   @Transactional